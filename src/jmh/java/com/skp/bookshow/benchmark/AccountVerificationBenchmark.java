@@ -0,0 +1,93 @@
+package com.skp.bookshow.benchmark;
+
+import com.skp.bookshow.cache.SessionTokenCache;
+import com.skp.bookshow.exception.AccountNotFound;
+import com.skp.bookshow.model.Account;
+import com.skp.bookshow.repository.AccountRepo;
+import com.skp.bookshow.security.PasswordHasher;
+import com.skp.bookshow.service.AccountService;
+import com.skp.bookshow.service.impl.AccountServiceImpl;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.Banner;
+import org.springframework.boot.SpringBootConfiguration;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Verified requests per second of the admin account of {@code data.sql} on H2: "off" loads the account and checks
+ * its password on every request, "on" checks the session token issued by one login. Thread counts are set with
+ * {@code -t}, the hash cost with {@code -p iterations}.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class AccountVerificationBenchmark {
+    private static final long ADMIN = 123456L;
+    private static final String PASSWORD = "Amy";
+
+    @Param({"off", "on"})
+    String cache;
+
+    @Param({"210000"})
+    int iterations;
+
+    private ConfigurableApplicationContext context;
+    private AccountService accountService;
+    private String token;
+
+    @Setup(Level.Trial)
+    public void start() throws AccountNotFound {
+        context = new SpringApplicationBuilder(H2.class)
+                .web(WebApplicationType.NONE)
+                .bannerMode(Banner.Mode.OFF)
+                .logStartupInfo(false)
+                .properties("spring.jpa.show-sql=false", "logging.level.root=WARN",
+                        "bookshow.security.hash-iterations=" + iterations)
+                .run();
+        accountService = context.getBean(AccountService.class);
+        // the first login moves the stored hash to the configured iterations
+        token = accountService.authenticate(ADMIN, PASSWORD);
+    }
+
+    @TearDown(Level.Trial)
+    public void stop() {
+        context.close();
+    }
+
+    @Benchmark
+    public Object verifiedRequest() throws AccountNotFound {
+        if (cache.equals("on")) return accountService.verify(token).orElseThrow();
+        if (!accountService.login(ADMIN, PASSWORD)) throw new IllegalStateException("Login failed");
+        return Boolean.TRUE;
+    }
+
+    @SpringBootConfiguration
+    @EnableAutoConfiguration
+    @EntityScan(basePackageClasses = Account.class)
+    @EnableJpaRepositories(basePackageClasses = AccountRepo.class)
+    @Import({AccountServiceImpl.class, PasswordHasher.class, SessionTokenCache.class})
+    static class H2 {
+    }
+}
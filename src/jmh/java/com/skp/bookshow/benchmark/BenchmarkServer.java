@@ -0,0 +1,22 @@
+package com.skp.bookshow.benchmark;
+
+import com.skp.bookshow.Application;
+import com.skp.bookshow.ConsoleApplication;
+import org.springframework.boot.SpringBootConfiguration;
+import org.springframework.boot.autoconfigure.AutoConfigurationPackage;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.context.annotation.ComponentScan;
+import org.springframework.context.annotation.FilterType;
+
+/**
+ * The web {@link Application}, without the benchmark configurations next to this class that its component scan
+ * would otherwise pick up from the benchmark classpath.
+ */
+@SpringBootConfiguration
+@EnableAutoConfiguration
+@AutoConfigurationPackage(basePackageClasses = Application.class)
+@ComponentScan(basePackageClasses = Application.class, excludeFilters = {
+        @ComponentScan.Filter(type = FilterType.ASSIGNABLE_TYPE, classes = {Application.class, ConsoleApplication.class}),
+        @ComponentScan.Filter(type = FilterType.REGEX, pattern = "com\\.skp\\.bookshow\\.benchmark\\..*")})
+class BenchmarkServer {
+}
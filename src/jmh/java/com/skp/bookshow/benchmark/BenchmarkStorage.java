@@ -0,0 +1,129 @@
+package com.skp.bookshow.benchmark;
+
+import com.skp.bookshow.cache.ShowAvailabilityCache;
+import com.skp.bookshow.cache.ShowSchedule;
+import com.skp.bookshow.model.Show;
+import com.skp.bookshow.model.request.ShowRequest;
+import com.skp.bookshow.repository.BookingRepo;
+import com.skp.bookshow.repository.MovieRepo;
+import com.skp.bookshow.repository.ShowRepo;
+import com.skp.bookshow.scheduler.SeatHoldTimer;
+import com.skp.bookshow.service.SeatBookingService;
+import com.skp.bookshow.service.ShowService;
+import com.skp.bookshow.service.impl.SeatBookingImpl;
+import com.skp.bookshow.service.impl.ShowServiceImpl;
+import com.skp.bookshow.stream.ShowSeatStream;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.boot.Banner;
+import org.springframework.boot.SpringBootConfiguration;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceAutoConfiguration;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernateJpaAutoConfiguration;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.transaction.support.TransactionOperations;
+
+import java.util.Date;
+
+/**
+ * Booking services wired by Spring either to the repositories of {@link InMemoryRepositories} ("memory") or to
+ * JPA repositories on an in-memory H2 database ("h2"). Shows are laid out in {@link #ROWS} rows. Changes to a
+ * show are applied on that many show lanes, or on the calling thread under the show lock with 0 lanes.
+ */
+@State(Scope.Benchmark)
+public class BenchmarkStorage {
+    static final int ROWS = 25;
+
+    @Param({"memory", "h2"})
+    String storage;
+
+    @Param({"100", "1000", "10000", "50000"})
+    int seats;
+
+    @Param({"0", "16"})
+    int lanes;
+
+    ConfigurableApplicationContext context;
+    SeatBookingService seatBooking;
+    ShowService showService;
+
+    @Setup(Level.Trial)
+    public void start() {
+        context = new SpringApplicationBuilder(storage.equals("h2") ? H2.class : InMemory.class)
+                .web(WebApplicationType.NONE)
+                .bannerMode(Banner.Mode.OFF)
+                .logStartupInfo(false)
+                .properties("spring.jpa.show-sql=false", "logging.level.root=WARN", "bookshow.booking.lanes=" + lanes)
+                .run();
+        seatBooking = context.getBean(SeatBookingService.class);
+        showService = context.getBean(ShowService.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void stop() {
+        context.close();
+    }
+
+    ShowRequest showRequest() {
+        return ShowRequest.builder()
+                .showTime(new Date())
+                .movieId(1L)
+                .numberOfRows(ROWS)
+                .numberOfSeatsPerRows(seats / ROWS)
+                .cancellationWindow(Integer.MAX_VALUE)
+                .build();
+    }
+
+    Show createShow() {
+        return showService.createShow(showRequest());
+    }
+
+    @Import({SeatBookingImpl.class, ShowServiceImpl.class, ShowAvailabilityCache.class, ShowSchedule.class, ShowSeatStream.class, SeatHoldTimer.class})
+    static class Services {
+    }
+
+    @SpringBootConfiguration
+    @EnableAutoConfiguration(exclude = {DataSourceAutoConfiguration.class, HibernateJpaAutoConfiguration.class})
+    @Import(Services.class)
+    static class InMemory {
+        private final InMemoryRepositories repositories = new InMemoryRepositories();
+
+        @Bean
+        ShowRepo showRepo() {
+            return repositories.showRepo();
+        }
+
+        @Bean
+        BookingRepo bookingRepo() {
+            return repositories.bookingRepo();
+        }
+
+        @Bean
+        MovieRepo movieRepo() {
+            return repositories.movieRepo();
+        }
+
+        @Bean
+        TransactionOperations transactionOperations() {
+            return TransactionOperations.withoutTransaction();
+        }
+    }
+
+    @SpringBootConfiguration
+    @EnableAutoConfiguration
+    @EntityScan(basePackageClasses = Show.class)
+    @EnableJpaRepositories(basePackageClasses = ShowRepo.class)
+    @Import(Services.class)
+    static class H2 {
+    }
+}
@@ -0,0 +1,116 @@
+package com.skp.bookshow.benchmark;
+
+import com.skp.bookshow.model.BookedSeat;
+import com.skp.bookshow.model.Show;
+import com.skp.bookshow.model.enums.SeatStatus;
+import com.skp.bookshow.model.response.ScheduledShow;
+import com.skp.bookshow.repository.BookingRepo;
+import com.skp.bookshow.repository.MovieRepo;
+import com.skp.bookshow.repository.ShowRepo;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * Map backed stand-ins for the repositories the booking path uses, so the in-memory benchmarks measure the
+ * services alone. Loaded entities are shared like in a persistence context, the show lock in
+ * {@code SeatBookingImpl} keeps writers of one show apart.
+ */
+final class InMemoryRepositories {
+    private final Map<Long, Show> shows = new ConcurrentHashMap<>();
+    private final Map<Long, BookedSeat> bookings = new ConcurrentHashMap<>();
+    private final Map<Long, BookedSeat> bookingsByPhone = new ConcurrentHashMap<>();
+    private final AtomicLong showIds = new AtomicLong();
+    private final AtomicLong ticketIds = new AtomicLong();
+
+    ShowRepo showRepo() {
+        return proxy(ShowRepo.class, (name, args) -> {
+            switch (name) {
+                case "findById":
+                    return Optional.ofNullable(shows.get((Long) args[0]));
+                case "findScheduledShows":
+                    return shows.values().stream().map(ScheduledShow::of).collect(Collectors.toList());
+                case "save":
+                    Show show = (Show) args[0];
+                    if (show.getId() == null) {
+                        show.setId(showIds.incrementAndGet());
+                        show.snapshotSeats();
+                    }
+                    show.setVersion(show.getVersion() == null ? 0 : show.getVersion() + 1);
+                    shows.put(show.getId(), show);
+                    return show;
+                default:
+                    throw new UnsupportedOperationException(name);
+            }
+        });
+    }
+
+    BookingRepo bookingRepo() {
+        return proxy(BookingRepo.class, (name, args) -> {
+            switch (name) {
+                case "existsByPhoneNumber":
+                    return bookingsByPhone.containsKey((Long) args[0]);
+                case "findLatestByPhoneNumber":
+                    return Optional.ofNullable(bookingsByPhone.get((Long) args[0]));
+                case "findByTicketId":
+                    return Optional.ofNullable(bookings.get((Long) args[0]));
+                case "findByTicketIdIn":
+                    return ((Collection<?>) args[0]).stream().map(bookings::get).filter(b -> b != null).collect(Collectors.toList());
+                case "findBySeatStatus":
+                    return new ArrayList<>();
+                case "save":
+                    BookedSeat booking = (BookedSeat) args[0];
+                    if (booking.getTicketId() == null) booking.setTicketId(ticketIds.incrementAndGet());
+                    bookings.put(booking.getTicketId(), booking);
+                    bookingsByPhone.put(booking.getPhoneNumber(), booking);
+                    return booking;
+                case "updateSeatStatus":
+                    return updateSeatStatus((Long) args[0], (SeatStatus) args[1], (SeatStatus) args[2]);
+                default:
+                    throw new UnsupportedOperationException(name);
+            }
+        });
+    }
+
+    MovieRepo movieRepo() {
+        return proxy(MovieRepo.class, (name, args) -> {
+            throw new UnsupportedOperationException(name);
+        });
+    }
+
+    private int updateSeatStatus(Long ticketId, SeatStatus from, SeatStatus to) {
+        BookedSeat booking = bookings.get(ticketId);
+        if (booking == null) return 0;
+        synchronized (booking) {
+            if (booking.getSeatStatus() != from) return 0;
+            booking.setSeatStatus(to);
+            return 1;
+        }
+    }
+
+    private interface Handler {
+        Object invoke(String method, Object[] args);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T proxy(Class<T> type, Handler handler) {
+        return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, (proxy, method, args) -> {
+            switch (method.getName()) {
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "InMemory" + type.getSimpleName();
+                default:
+                    return handler.invoke(method.getName(), args);
+            }
+        });
+    }
+}
@@ -0,0 +1,324 @@
+package com.skp.bookshow.benchmark;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Replays an on-sale spike against one show: customers arrive at a fixed rate, look at the seat map, block seats
+ * mostly in a few hot rows, and then confirm, abandon the hold or confirm and cancel later. Starts the
+ * application on an in-memory H2 database unless {@code url} points at a running instance, and prints throughput,
+ * latency percentiles per endpoint, oversold and leaked seats:
+ * <pre>
+ * mvn -Pjmh clean test-compile exec:exec -Djmh.main=com.skp.bookshow.benchmark.OnSaleLoadTest \
+ *     -Djmh.args="rate=300 duration-s=30 hot-rows=3 hot-share=0.8 abandon=0.3 --bookshow.booking.lanes=16"
+ * </pre>
+ * Options: {@code rate} customers per second, {@code duration-s}, {@code rows} and {@code seats-per-row} of the
+ * show, {@code seats} per booking, {@code hot-rows} and {@code hot-share} of customers that want one of them,
+ * {@code abandon} share of holds never confirmed, {@code cancel} share of confirmed bookings cancelled,
+ * {@code views} seat map reads per customer, {@code hold-ms} hold window, {@code max-in-flight} customers before
+ * arrivals are shed, {@code admin} and {@code password} of the account creating the show. Arguments starting with
+ * {@code --} are passed to the application.
+ */
+public final class OnSaleLoadTest {
+    private static final String[] OPERATIONS = {"view", "book", "confirm", "cancel"};
+    private static final ObjectMapper JSON = new ObjectMapper();
+
+    private final Map<String, String> options;
+    private final HttpClient client;
+    private final URI base;
+    private final Map<String, Histogram> latencies = new LinkedHashMap<>();
+    private final Map<String, LongAdder> errors = new LinkedHashMap<>();
+    private final Map<String, LongAdder> outcomes = new ConcurrentHashMap<>();
+    /** Seats of the confirmed and not cancelled bookings, by how many of them hold the seat. */
+    private final Map<String, AtomicInteger> soldSeats = new ConcurrentHashMap<>();
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final Duration timeout;
+    private long showId;
+
+    private OnSaleLoadTest(Map<String, String> options, URI base) {
+        this.options = options;
+        this.base = base;
+        this.timeout = Duration.ofMillis(number("timeout-ms", 30000));
+        this.client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(timeout)
+                .build();
+        for (String operation : OPERATIONS) {
+            latencies.put(operation, new ConcurrentHistogram(3));
+            errors.put(operation, new LongAdder());
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new HashMap<>();
+        List<String> applicationArgs = new ArrayList<>(List.of("--spring.jpa.show-sql=false", "--logging.level.root=WARN"));
+        for (String arg : args) {
+            if (arg.startsWith("--")) {
+                applicationArgs.add(arg);
+            } else {
+                int equals = arg.indexOf('=');
+                options.put(arg.substring(0, equals), arg.substring(equals + 1));
+            }
+        }
+        ConfigurableApplicationContext application = null;
+        String url = options.get("url");
+        if (url == null) {
+            application = new SpringApplicationBuilder(BenchmarkServer.class)
+                    .properties("server.port=0", "spring.main.banner-mode=off")
+                    .run(applicationArgs.toArray(new String[0]));
+            url = "http://localhost:" + application.getEnvironment().getProperty("local.server.port");
+        }
+        try {
+            new OnSaleLoadTest(options, URI.create(url + "/api/v1/")).run();
+        } finally {
+            if (application != null) application.close();
+        }
+    }
+
+    private void run() throws Exception {
+        int rows = (int) number("rows", 20);
+        int seatsPerRow = (int) number("seats-per-row", 30);
+        long holdMs = number("hold-ms", 5000);
+        showId = createShow(rows, seatsPerRow, holdMs);
+
+        double rate = Double.parseDouble(options.getOrDefault("rate", "200"));
+        long customers = (long) (rate * number("duration-s", 20));
+        int maxInFlight = (int) number("max-in-flight", 10000);
+        List<CompletableFuture<Void>> flows = new ArrayList<>();
+        long start = System.nanoTime();
+        for (long i = 0; i < customers; i++) {
+            long arrival = start + (long) (i * 1e9 / rate);
+            long wait = arrival - System.nanoTime();
+            if (wait > 0) TimeUnit.NANOSECONDS.sleep(wait);
+            if (inFlight.get() >= maxInFlight) {
+                count("shed");
+                continue;
+            }
+            inFlight.incrementAndGet();
+            flows.add(customer(1_000_000_000L + i, rows).whenComplete((v, e) -> {
+                if (e != null) count("failed");
+                inFlight.decrementAndGet();
+            }));
+        }
+        CompletableFuture.allOf(flows.toArray(new CompletableFuture[0])).exceptionally(e -> null).join();
+        double elapsed = (System.nanoTime() - start) / 1e9;
+
+        // abandoned holds expire after the hold window and the next tick of the expiry job
+        Thread.sleep(holdMs + 3000);
+        report(customers, elapsed, send("view", get("show/" + showId)).join());
+    }
+
+    /**
+     * One customer: looks at the seat map, blocks seats and then confirms, abandons or confirms and cancels.
+     */
+    private CompletableFuture<Void> customer(long phoneNumber, int rows) {
+        var random = ThreadLocalRandom.current();
+        int views = (int) number("views", 2);
+        CompletableFuture<HttpResponse<String>> seen = send("view", get("show/" + showId));
+        for (int v = 1; v < views; v++) {
+            seen = seen.thenCompose(response -> send("view", get("show/" + showId)));
+        }
+        boolean abandon = random.nextDouble() < Double.parseDouble(options.getOrDefault("abandon", "0.3"));
+        boolean cancel = random.nextDouble() < Double.parseDouble(options.getOrDefault("cancel", "0.1"));
+        return seen.thenCompose(response -> {
+            List<String> seats = pickSeats(json(response).path("availableSeat"), rows);
+            if (seats.isEmpty()) {
+                count("sold-out");
+                return CompletableFuture.completedFuture(null);
+            }
+            var request = new LinkedHashMap<String, Object>();
+            request.put("phoneNumber", phoneNumber);
+            request.put("showNumber", showId);
+            request.put("blockedSeat", seats);
+            return send("book", post("show/booking", request)).thenCompose(booked -> {
+                JsonNode booking = json(booked).path("bookedSeat");
+                if (!"BLOCKED".equals(booking.path("seatStatus").asText())) {
+                    count("seats-taken");
+                    return CompletableFuture.completedFuture(null);
+                }
+                if (abandon) {
+                    count("abandoned");
+                    return CompletableFuture.completedFuture(null);
+                }
+                request.remove("blockedSeat");
+                return send("confirm", post("show/booking/confirm/true", request)).thenCompose(confirmed -> {
+                    if (!"BOOKED".equals(json(confirmed).path("bookedSeat").path("seatStatus").asText())) {
+                        count("confirm-failed");
+                        return CompletableFuture.completedFuture(null);
+                    }
+                    seats.forEach(seat -> soldSeats.computeIfAbsent(seat, s -> new AtomicInteger()).incrementAndGet());
+                    if (!cancel) {
+                        count("confirmed");
+                        return CompletableFuture.completedFuture(null);
+                    }
+                    long ticketId = booking.path("ticketId").asLong();
+                    return send("cancel", post("show/booking/cancel/" + ticketId, null)).thenAccept(canceled -> {
+                        if ("CANCELED".equals(json(canceled).path("bookedSeat").path("seatStatus").asText())) {
+                            seats.forEach(seat -> soldSeats.get(seat).decrementAndGet());
+                            count("canceled");
+                        } else {
+                            count("confirmed");
+                            count("cancel-failed");
+                        }
+                    });
+                });
+            });
+        });
+    }
+
+    /**
+     * Picks adjacent available seats, in one of the hot rows for {@code hot-share} of the customers.
+     */
+    private List<String> pickSeats(JsonNode available, int rows) {
+        var random = ThreadLocalRandom.current();
+        int seats = (int) number("seats", 2);
+        int hotRows = Math.min(Math.min(rows, 26), (int) number("hot-rows", 3));
+        boolean hot = random.nextDouble() < Double.parseDouble(options.getOrDefault("hot-share", "0.8"));
+        List<String> candidates = new ArrayList<>();
+        if (hot) {
+            String row = String.valueOf((char) ('A' + random.nextInt(hotRows)));
+            available.forEach(seat -> {
+                if (seat.asText().startsWith(row) && Character.isDigit(seat.asText().charAt(row.length()))) {
+                    candidates.add(seat.asText());
+                }
+            });
+        }
+        if (candidates.size() < seats) {
+            candidates.clear();
+            available.forEach(seat -> candidates.add(seat.asText()));
+        }
+        if (candidates.size() < seats) return List.of();
+        int first = random.nextInt(candidates.size() - seats + 1);
+        return new ArrayList<>(candidates.subList(first, first + seats));
+    }
+
+    private long createShow(int rows, int seatsPerRow, long holdMs) {
+        var show = new LinkedHashMap<String, Object>();
+        show.put("movieId", 1);
+        show.put("showTime", System.currentTimeMillis() + TimeUnit.DAYS.toMillis(1));
+        show.put("numberOfRows", rows);
+        show.put("numberOfSeatsPerRows", seatsPerRow);
+        show.put("cancellationWindow", holdMs);
+        var login = new LinkedHashMap<String, Object>();
+        login.put("phone", Long.parseLong(options.getOrDefault("admin", "123456")));
+        login.put("password", options.getOrDefault("password", "Amy"));
+        var session = send("view", post("login", login)).join();
+        if (session.statusCode() != 200) {
+            throw new IllegalStateException("Could not login as admin: " + session.statusCode());
+        }
+        var request = HttpRequest.newBuilder(post("show", show), (name, value) -> true)
+                .header("Authorization", "Bearer " + json(session).path("token").asText())
+                .build();
+        var response = send("view", request).join();
+        if (response.statusCode() != 200) {
+            throw new IllegalStateException("Could not create show: " + response.statusCode() + " " + response.body());
+        }
+        return json(response).path("id").asLong();
+    }
+
+    private void report(long customers, double elapsed, HttpResponse<String> finalState) {
+        JsonNode show = json(finalState);
+        Set<String> booked = new HashSet<>();
+        show.path("bookedSeat").forEach(seat -> booked.add(seat.asText()));
+        int blocked = show.path("blockedSeat").size();
+        int sold = 0;
+        int oversold = 0;
+        for (Map.Entry<String, AtomicInteger> seat : soldSeats.entrySet()) {
+            int holders = seat.getValue().get();
+            if (holders <= 0) continue;
+            sold++;
+            oversold += holders - 1;
+            // sold to a customer, but free or held for someone else again
+            if (!booked.contains(seat.getKey())) oversold++;
+        }
+        int unsold = 0;
+        for (String seat : booked) {
+            AtomicInteger holders = soldSeats.get(seat);
+            if (holders == null || holders.get() <= 0) unsold++;
+        }
+
+        long requests = 0;
+        for (Histogram histogram : latencies.values()) {
+            requests += histogram.getTotalCount();
+        }
+        System.out.printf("%d customers in %.1f s, %d requests, %.0f requests/s%n",
+                customers, elapsed, requests, requests / elapsed);
+        System.out.printf("%-8s %9s %9s %9s %9s %9s %7s%n", "", "count", "p50 ms", "p99 ms", "p999 ms", "max ms", "errors");
+        latencies.forEach((operation, histogram) -> System.out.printf("%-8s %9d %9.1f %9.1f %9.1f %9.1f %7d%n",
+                operation, histogram.getTotalCount(), histogram.getValueAtPercentile(50) / 1000.0,
+                histogram.getValueAtPercentile(99) / 1000.0, histogram.getValueAtPercentile(99.9) / 1000.0,
+                histogram.getMaxValue() / 1000.0, errors.get(operation).sum()));
+        System.out.println("outcomes " + new TreeMap<>(outcomes));
+        System.out.printf("seats sold %d, booked on the show %d, oversold %d, leaked %d (%d still blocked, %d booked without a sale)%n",
+                sold, booked.size(), oversold, blocked + unsold, blocked, unsold);
+    }
+
+    private CompletableFuture<HttpResponse<String>> send(String operation, HttpRequest request) {
+        long sent = System.nanoTime();
+        return client.sendAsync(request, HttpResponse.BodyHandlers.ofString()).whenComplete((response, e) -> {
+            latencies.get(operation).recordValue(TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - sent));
+            if (e != null || response.statusCode() >= 500) errors.get(operation).increment();
+        });
+    }
+
+    private HttpRequest get(String path) {
+        return HttpRequest.newBuilder(base.resolve(path)).timeout(timeout).GET().build();
+    }
+
+    private HttpRequest post(String path, Object body) {
+        try {
+            return HttpRequest.newBuilder(base.resolve(path))
+                    .timeout(timeout)
+                    .header("Content-Type", "application/json")
+                    .POST(body == null ? HttpRequest.BodyPublishers.noBody()
+                            : HttpRequest.BodyPublishers.ofByteArray(JSON.writeValueAsBytes(body)))
+                    .build();
+        } catch (Exception e) {
+            throw new IllegalArgumentException("Could not write " + body, e);
+        }
+    }
+
+    /**
+     * @return the JSON body, or a missing node for the plain text messages of refused requests
+     */
+    private static JsonNode json(HttpResponse<String> response) {
+        try {
+            return response.body().startsWith("{") ? JSON.readTree(response.body()) : JSON.missingNode();
+        } catch (Exception e) {
+            return JSON.missingNode();
+        }
+    }
+
+    private void count(String outcome) {
+        outcomes.computeIfAbsent(outcome, o -> new LongAdder()).increment();
+    }
+
+    private long number(String option, long defaultValue) {
+        String value = options.get(option);
+        return value == null ? defaultValue : Long.parseLong(value);
+    }
+}
@@ -0,0 +1,96 @@
+package com.skp.bookshow.benchmark;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Keeps {@code concurrency} requests in flight against a running instance until {@code requests} were sent, then
+ * prints throughput, latency percentiles and failures. Run it once against an instance on platform threads and
+ * once with {@code bookshow.execution.virtual-threads=true} to compare how each holds up with many requests
+ * blocked at once:
+ * <pre>
+ * java -cp target/jmh/test-classes com.skp.bookshow.benchmark.RequestLoadTest \
+ *     url=http://localhost:8080/api/v1/show/status/1 concurrency=5000 requests=50000
+ * </pre>
+ * {@code body} turns the requests into JSON posts, {@code timeout-ms} bounds each request.
+ */
+public final class RequestLoadTest {
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            int equals = arg.indexOf('=');
+            options.put(arg.substring(0, equals), arg.substring(equals + 1));
+        }
+        URI url = URI.create(options.getOrDefault("url", "http://localhost:8080/api/v1/show"));
+        int concurrency = Integer.parseInt(options.getOrDefault("concurrency", "1000"));
+        int requests = Integer.parseInt(options.getOrDefault("requests", "20000"));
+        String body = options.get("body");
+        Duration timeout = Duration.ofMillis(Long.parseLong(options.getOrDefault("timeout-ms", "60000")));
+
+        HttpClient client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(timeout)
+                .build();
+        HttpRequest.Builder request = HttpRequest.newBuilder(url).timeout(timeout);
+        if (body != null) {
+            request.header("Content-Type", "application/json").POST(HttpRequest.BodyPublishers.ofString(body));
+        }
+
+        Semaphore inFlight = new Semaphore(concurrency);
+        AtomicLongArray latencies = new AtomicLongArray(requests);
+        AtomicInteger completed = new AtomicInteger();
+        AtomicInteger failures = new AtomicInteger();
+        Map<String, AtomicInteger> failureKinds = new ConcurrentHashMap<>();
+        long start = System.nanoTime();
+        for (int i = 0; i < requests; i++) {
+            inFlight.acquire();
+            int index = i;
+            long sent = System.nanoTime();
+            CompletableFuture<HttpResponse<Void>> response = client.sendAsync(request.build(), HttpResponse.BodyHandlers.discarding());
+            response.whenComplete((r, e) -> {
+                latencies.set(index, System.nanoTime() - sent);
+                if (e != null || r.statusCode() >= 500) {
+                    failures.incrementAndGet();
+                    String kind = e != null ? rootCause(e).getClass().getSimpleName() : "HTTP " + r.statusCode();
+                    failureKinds.computeIfAbsent(kind, k -> new AtomicInteger()).incrementAndGet();
+                }
+                completed.incrementAndGet();
+                inFlight.release();
+            });
+        }
+        inFlight.acquire(concurrency);
+        long elapsed = System.nanoTime() - start;
+
+        long[] sorted = new long[requests];
+        for (int i = 0; i < requests; i++) {
+            sorted[i] = latencies.get(i);
+        }
+        Arrays.sort(sorted);
+        System.out.printf("%d requests, %d in flight, %.1f s, %.0f requests/s, %d failed %s%n",
+                completed.get(), concurrency, elapsed / 1e9, completed.get() / (elapsed / 1e9), failures.get(), failureKinds);
+        for (double percentile : new double[]{50, 90, 99, 99.9, 100}) {
+            int index = Math.min(requests - 1, (int) Math.ceil(percentile / 100 * requests) - 1);
+            System.out.printf("p%-5s %8.1f ms%n", percentile, TimeUnit.NANOSECONDS.toMicros(sorted[index]) / 1000.0);
+        }
+    }
+
+    private static Throwable rootCause(Throwable e) {
+        while (e.getCause() != null) {
+            e = e.getCause();
+        }
+        return e;
+    }
+}
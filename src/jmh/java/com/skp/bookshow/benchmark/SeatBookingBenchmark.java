@@ -0,0 +1,165 @@
+package com.skp.bookshow.benchmark;
+
+import com.skp.bookshow.exception.BookingAlreadyExist;
+import com.skp.bookshow.exception.BookingNotFound;
+import com.skp.bookshow.exception.BookingUnSuccessful;
+import com.skp.bookshow.exception.ShowNotFound;
+import com.skp.bookshow.model.BookedSeat;
+import com.skp.bookshow.model.SeatMap;
+import com.skp.bookshow.model.enums.SeatStatus;
+import com.skp.bookshow.model.request.BookShowRequest;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.BenchmarkParams;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Booking hot path against a fresh show every iteration. Booking changes state, so each iteration runs a fixed
+ * batch of {@link #BATCH} calls per thread against requests prepared in the iteration setup, and the reported
+ * time is for the whole batch. Requests take distinct seats as long as the show has {@code BATCH * threads}
+ * seats, later requests hit taken seats and measure the rejection path.
+ * <p>
+ * Thread counts are set with {@code -t}, allocation rates are reported with {@code -prof gc}.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 20, batchSize = SeatBookingBenchmark.BATCH)
+@Measurement(iterations = 40, batchSize = SeatBookingBenchmark.BATCH)
+@Fork(1)
+public class SeatBookingBenchmark {
+    static final int BATCH = 100;
+
+    private static final AtomicLong PHONE_NUMBERS = new AtomicLong();
+
+    @State(Scope.Benchmark)
+    public static class FreeSeats {
+        private List<BookShowRequest> requests;
+        private final AtomicInteger next = new AtomicInteger();
+
+        @Setup(Level.Iteration)
+        public void prepare(BenchmarkStorage storage, BenchmarkParams params) {
+            requests = requests(storage, BATCH * params.getThreads());
+            next.set(0);
+        }
+
+        BookShowRequest next() {
+            return requests.get(next.getAndIncrement() % requests.size());
+        }
+    }
+
+    /**
+     * A show of its own per thread, so threads book independent shows.
+     */
+    @State(Scope.Thread)
+    public static class OwnShow {
+        private List<BookShowRequest> requests;
+        private int next;
+
+        @Setup(Level.Iteration)
+        public void prepare(BenchmarkStorage storage) {
+            requests = requests(storage, BATCH);
+            next = 0;
+        }
+
+        BookShowRequest next() {
+            return requests.get(next++ % requests.size());
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class HeldSeats {
+        private List<BookedSeat> bookings;
+        private final AtomicInteger next = new AtomicInteger();
+
+        @Setup(Level.Iteration)
+        public void prepare(BenchmarkStorage storage, BenchmarkParams params) {
+            bookings = new ArrayList<>();
+            for (BookShowRequest request : requests(storage, BATCH * params.getThreads())) {
+                try {
+                    bookings.add(storage.seatBooking.bookSeat(request));
+                } catch (BookingAlreadyExist | BookingUnSuccessful e) {
+                    // more requests than seats
+                }
+            }
+            next.set(0);
+        }
+
+        BookedSeat next() {
+            return bookings.get(next.getAndIncrement() % bookings.size());
+        }
+    }
+
+    @Benchmark
+    public Object bookSeat(BenchmarkStorage storage, FreeSeats seats) {
+        try {
+            return storage.seatBooking.bookSeat(seats.next());
+        } catch (BookingAlreadyExist | BookingUnSuccessful e) {
+            return e;
+        }
+    }
+
+    @Benchmark
+    public Object bookSeatOnOwnShow(BenchmarkStorage storage, OwnShow show) {
+        try {
+            return storage.seatBooking.bookSeat(show.next());
+        } catch (BookingAlreadyExist | BookingUnSuccessful e) {
+            return e;
+        }
+    }
+
+    @Benchmark
+    public Object updateBooking(BenchmarkStorage storage, HeldSeats seats) {
+        BookedSeat booking = seats.next();
+        try {
+            return storage.seatBooking.updateBooking(BookShowRequest.builder()
+                    .phoneNumber(booking.getPhoneNumber())
+                    .showNumber(booking.getShowNumber())
+                    .blockedSeat(booking.getBookedSeat())
+                    .build(), SeatStatus.BOOKED);
+        } catch (BookingUnSuccessful | BookingNotFound e) {
+            return e;
+        }
+    }
+
+    @Benchmark
+    public Object cancelBookingTicketById(BenchmarkStorage storage, HeldSeats seats) {
+        try {
+            return storage.seatBooking.cancelBookingTicketById(seats.next().getTicketId());
+        } catch (BookingNotFound | ShowNotFound e) {
+            return e;
+        }
+    }
+
+    @Benchmark
+    public Object createShow(BenchmarkStorage storage) {
+        return storage.createShow();
+    }
+
+    private static List<BookShowRequest> requests(BenchmarkStorage storage, int count) {
+        Long showId = storage.createShow().getId();
+        SeatMap layout = SeatMap.empty(BenchmarkStorage.ROWS, storage.seats / BenchmarkStorage.ROWS);
+        List<BookShowRequest> requests = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            requests.add(BookShowRequest.builder()
+                    .phoneNumber(PHONE_NUMBERS.incrementAndGet())
+                    .showNumber(showId)
+                    .blockedSeat(List.of(layout.label(i % layout.size())))
+                    .build());
+        }
+        return requests;
+    }
+}
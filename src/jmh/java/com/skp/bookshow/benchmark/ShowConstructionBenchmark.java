@@ -0,0 +1,52 @@
+package com.skp.bookshow.benchmark;
+
+import com.skp.bookshow.model.Show;
+import com.skp.bookshow.model.request.ShowRequest;
+import com.skp.bookshow.service.impl.ShowServiceImpl;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Building a show and its seat map, without storing it.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ShowConstructionBenchmark {
+    @Param({"100", "1000", "10000", "50000"})
+    int seats;
+
+    private final ShowServiceImpl showService = new ShowServiceImpl();
+    private ShowRequest request;
+
+    @Setup
+    public void prepare() {
+        request = ShowRequest.builder()
+                .showTime(new Date())
+                .movieId(1L)
+                .numberOfRows(BenchmarkStorage.ROWS)
+                .numberOfSeatsPerRows(seats / BenchmarkStorage.ROWS)
+                .cancellationWindow(60_000)
+                .build();
+    }
+
+    @Benchmark
+    public Show constructShow() {
+        return showService.constructShow(request);
+    }
+}
@@ -0,0 +1,56 @@
+package com.skp.bookshow.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cold start of the web application until its first request is answered, in a fresh JVM per measurement.
+ * "fast-start" is the profile of the same name, CDS archives can be tried with
+ * {@code -jvmArgsAppend -XX:SharedArchiveFile=...}.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 0)
+@Measurement(iterations = 1)
+@Fork(5)
+@State(Scope.Benchmark)
+public class StartupBenchmark {
+    @Param({"default", "fast-start"})
+    String profile;
+
+    private ConfigurableApplicationContext context;
+
+    @Benchmark
+    public int startAndServeFirstRequest() throws Exception {
+        var application = new SpringApplicationBuilder(BenchmarkServer.class)
+                .properties("server.port=0", "spring.jpa.show-sql=false", "logging.level.root=WARN");
+        if (!profile.equals("default")) application.profiles(profile);
+        context = application.run();
+        String port = context.getEnvironment().getProperty("local.server.port");
+        var request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/v1/show")).build();
+        return HttpClient.newHttpClient().send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+    }
+
+    @TearDown(Level.Iteration)
+    public void stop() {
+        context.close();
+    }
+}
@@ -2,19 +2,21 @@ package com.skp.bookshow;
 
 import com.skp.bookshow.controller.BookShowController;
 import com.skp.bookshow.exception.AccountNotFound;
-import com.skp.bookshow.model.BookedSeat;
 import com.skp.bookshow.model.request.BookShowRequest;
 import com.skp.bookshow.model.request.ShowRequest;
 import com.skp.bookshow.model.response.BookingResponse;
+import com.skp.bookshow.model.response.CursorPage;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.boot.CommandLineRunner;
-import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.annotation.Profile;
 import org.springframework.data.util.Pair;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 
+import java.nio.charset.StandardCharsets;
 import java.time.Instant;
 import java.util.Arrays;
 import java.util.Date;
@@ -22,7 +24,12 @@ import java.util.List;
 import java.util.Scanner;
 import java.util.stream.Collectors;
 
+/**
+ * Interactive console on the services, without a web server. Runs only with the "console" profile, which its
+ * {@link #main} turns on, so the web {@link Application} never picks the runner up.
+ */
 @SpringBootApplication
+@Profile("console")
 public class ConsoleApplication implements CommandLineRunner {
 
     private BookShowController bookShowController;
@@ -35,7 +42,7 @@ public class ConsoleApplication implements CommandLineRunner {
     }
     public static void main(String[] args) {
         LOG.info("STARTING THE APPLICATION");
-        SpringApplication.run(ConsoleApplication.class, args);
+        new SpringApplicationBuilder(ConsoleApplication.class).profiles("console").run(args);
         LOG.info("APPLICATION FINISHED");
     }
 
@@ -59,7 +66,11 @@ public class ConsoleApplication implements CommandLineRunner {
                     System.out.println("Enter password");
                     String pass = in.next();
                     try {
-                        var res = bookShowController.login(Long.parseLong(user), pass);
+                        String token = bookShowController.login(Long.parseLong(user), pass);
+                        if (token == null) {
+                            System.out.println("\nFailed to login");
+                            continue;
+                        }
                         boolean loggedIn = true;
                         while (loggedIn) {
                             System.out.println("\nWelcome to Admin: " + user);
@@ -91,15 +102,29 @@ public class ConsoleApplication implements CommandLineRunner {
                                             .numberOfSeatsPerRows(numberOfSeatsPerRows)
                                             .cancellationWindow(cancellationWindow)
                                             .build();
-                                    var result = bookShowController.createShow(showRequest);
+                                    var result = bookShowController.createShow(token, showRequest);
+                                    if (result.getStatusCode() == HttpStatus.UNAUTHORIZED) {
+                                        System.out.println("\nSession expired, please login again");
+                                        loggedIn = false;
+                                        continue;
+                                    }
                                     System.out.println("Response: " + result.getBody());
                                     continue;
                                 case 2:
                                     System.out.println("Enter the show id");
                                     Long showId = in.nextLong();
-                                    bookShowController.findShowStatus(showId);
-                                    ResponseEntity<List<BookedSeat>> showStatusResult = bookShowController.findShowStatus(showId);
-                                    System.out.println("Response: " + showStatusResult.getBody());
+                                    Long afterTicket = null;
+                                    do {
+                                        var showStatusResult = bookShowController.findShowStatus(token, showId, afterTicket, CursorPage.MAX_LIMIT);
+                                        if (showStatusResult.getStatusCode() == HttpStatus.UNAUTHORIZED) {
+                                            System.out.println("\nSession expired, please login again");
+                                            loggedIn = false;
+                                            break;
+                                        }
+                                        showStatusResult.getBody().getItems().forEach(b -> System.out.println("Response: " + b.getTicketId()
+                                                + " " + b.getPhoneNumber() + " " + b.getSeatStatus() + " " + b.getBookingTime()));
+                                        afterTicket = showStatusResult.getBody().getNextCursor();
+                                    } while (afterTicket != null);
                                     continue;
                                 case 3: loggedIn = false; continue;
                                 default: loggedIn = false;
@@ -124,16 +149,21 @@ public class ConsoleApplication implements CommandLineRunner {
                         var buyer = in.nextInt();
                         switch (buyer) {
                             case 1:
-                                var allShowRes = bookShowController.findAllShows();
-                                var showList = allShowRes.getBody().stream().map(x ->Pair.of(x.getId(), x.getShowTime())).collect(Collectors.toList());
-                                System.out.println("\nDetails of shows: " + showList);
+                                Long afterShow = null;
+                                do {
+                                    var allShowRes = bookShowController.findAllShows(afterShow, CursorPage.MAX_LIMIT);
+                                    var showList = allShowRes.getBody().getItems().stream().map(x ->Pair.of(x.getId(), x.getShowTime())).collect(Collectors.toList());
+                                    System.out.println("\nDetails of shows: " + showList);
+                                    afterShow = allShowRes.getBody().getNextCursor();
+                                } while (afterShow != null);
                                 continue;
                             case 2:
                                 System.out.println("\nEnter the show id: ");
                                 Long showId = in.nextLong();
-                                var allShows = bookShowController.findAllShows();
-                                var selectedShow = allShows.getBody().stream().filter(x -> x.getId().equals(showId)).collect(Collectors.toList());
-                                System.out.println("\nShow details: " + selectedShow);
+                                var selectedShow = bookShowController.findShowBy(showId, null, null);
+                                Object showDetails = selectedShow.getBody();
+                                System.out.println("\nShow details: " + (showDetails instanceof byte[]
+                                        ? new String((byte[]) showDetails, StandardCharsets.UTF_8) : showDetails));
                                 continue;
                             case 3:
                                 System.out.println("\nEnter the details for booking");
@@ -149,7 +179,7 @@ public class ConsoleApplication implements CommandLineRunner {
                                         .blockedSeat(seatsList)
                                         .phoneNumber(phoneNumber)
                                         .build();
-                                var bookingRes = bookShowController.bookShow(bookShowRequest);
+                                var bookingRes = bookShowController.bookShow(bookShowRequest, null);
                                 if(bookingRes.getStatusCode() == HttpStatus.OK) {
                                     Instant cur = Instant.now();
                                     System.out.println("\nBooking details: " + bookingRes.getBody());
@@ -157,9 +187,9 @@ public class ConsoleApplication implements CommandLineRunner {
                                     var confirmation = in.next();
                                     ResponseEntity<BookingResponse> confirmationRes;
                                     if(confirmation.equalsIgnoreCase("Yes")) {
-                                        confirmationRes = bookShowController.confirmBooking(bookShowRequest, true);
+                                        confirmationRes = bookShowController.confirmBooking(bookShowRequest, true, null);
                                     } else {
-                                        confirmationRes = bookShowController.confirmBooking(bookShowRequest, false);
+                                        confirmationRes = bookShowController.confirmBooking(bookShowRequest, false, null);
                                     }
                                     System.out.println("\nConfirmation details: " + confirmationRes.getBody());
                                 } else {
@@ -0,0 +1,216 @@
+package com.skp.bookshow.cache;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.skp.bookshow.model.IdempotencyRecord;
+import com.skp.bookshow.repository.IdempotencyRecordRepo;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.Date;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+
+/**
+ * Responses of requests sent with an {@code Idempotency-Key} header. A retry with the same key gets the stored
+ * response without running the request again, a retry arriving while the first request is still running waits
+ * for its response. Keys expire after the TTL and at most {@code maximum-size} are kept in memory. When
+ * {@code persist} is on, responses are also written to the database so they survive restarts and are shared
+ * between instances. The key is then claimed by inserting its record before the request runs, so of two instances
+ * getting the same key only the one whose insert succeeds runs it, the other answers that it is in flight.
+ * <p>
+ * Requests are told apart by a SHA-256 digest of their JSON.
+ */
+@Slf4j
+@Component
+public class IdempotencyStore {
+    public static final String HEADER = "Idempotency-Key";
+    private static final int MAX_KEY_LENGTH = 255;
+
+    private final Cache<String, CompletableFuture<Stored>> responses;
+    private final long ttlMs;
+    private final boolean persist;
+    private final ObjectMapper objectMapper;
+    private final IdempotencyRecordRepo recordRepo;
+
+    public IdempotencyStore(@Value("${bookshow.idempotency.maximum-size:100000}") long maximumSize,
+                            @Value("${bookshow.idempotency.ttl-ms:86400000}") long ttlMs,
+                            @Value("${bookshow.idempotency.persist:false}") boolean persist,
+                            ObjectMapper objectMapper,
+                            IdempotencyRecordRepo recordRepo) {
+        this.responses = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(Duration.ofMillis(ttlMs))
+                .build();
+        this.ttlMs = ttlMs;
+        this.persist = persist;
+        this.objectMapper = objectMapper;
+        this.recordRepo = recordRepo;
+    }
+
+    /**
+     * Runs {@code action} once per {@code scope} and {@code key}. Server errors and exceptions are not stored, so
+     * the request can be retried with the same key.
+     *
+     * @param key     value of the {@link #HEADER} header, requests without one always run
+     * @param request what was asked for, reusing a key for a different request is rejected
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public <T> ResponseEntity<T> execute(String scope, String key, Object request, Supplier<ResponseEntity<T>> action) {
+        if (key == null || key.isBlank()) {
+            return action.get();
+        }
+        if (key.length() > MAX_KEY_LENGTH) {
+            return new ResponseEntity(HEADER + " must be at most " + MAX_KEY_LENGTH + " characters", HttpStatus.BAD_REQUEST);
+        }
+        String id = scope + ":" + key;
+        String fingerprint = fingerprint(request);
+        var pending = new CompletableFuture<Stored>();
+        var previous = responses.asMap().putIfAbsent(id, pending);
+        if (previous != null) {
+            return replay(previous.handle((stored, e) -> stored).join(), fingerprint);
+        }
+        try {
+            if (persist) {
+                var claimed = claim(id, fingerprint);
+                if (claimed != null) {
+                    // the record may be in flight on another instance, ask again instead of keeping its answer
+                    if (claimed.response == null) responses.invalidate(id);
+                    pending.complete(claimed);
+                    return replay(claimed, fingerprint);
+                }
+            }
+            var response = action.get();
+            if (response.getStatusCode().is5xxServerError()) {
+                release(id);
+                pending.complete(null);
+                return response;
+            }
+            pending.complete(new Stored(fingerprint, response));
+            if (persist) {
+                recordRepo.save(toRecord(id, fingerprint, response));
+            }
+            return response;
+        } catch (RuntimeException e) {
+            release(id);
+            pending.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${bookshow.idempotency.purge-ms:60000}")
+    public void purgeExpired() {
+        if (!persist) return;
+        int purged = recordRepo.deleteCreatedBefore(new Date(System.currentTimeMillis() - ttlMs));
+        if (purged > 0) log.info("Purged {} expired idempotency records", purged);
+    }
+
+    /**
+     * Inserts the record of the key, marked in flight.
+     *
+     * @return null when the key is claimed, otherwise the response stored for it, without a response while the
+     * request is still running
+     */
+    private Stored claim(String id, String fingerprint) {
+        try {
+            recordRepo.insertInFlight(id, fingerprint, new Date());
+            return null;
+        } catch (DataIntegrityViolationException e) {
+            return recordRepo.findById(id)
+                    .map(Stored::of)
+                    // released or purged in the meantime, claim it again
+                    .orElseGet(() -> claim(id, fingerprint));
+        }
+    }
+
+    /**
+     * Forgets the key, so the request can be retried with it.
+     */
+    private void release(String id) {
+        responses.invalidate(id);
+        if (persist) recordRepo.deleteInFlight(id);
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private <T> ResponseEntity<T> replay(Stored stored, String fingerprint) {
+        if (stored == null) {
+            return new ResponseEntity("Request with the same " + HEADER + " failed, try again", HttpStatus.CONFLICT);
+        }
+        if (!stored.fingerprint.equals(fingerprint)) {
+            return new ResponseEntity(HEADER + " was already used for a different request", HttpStatus.UNPROCESSABLE_ENTITY);
+        }
+        if (stored.response == null) {
+            return new ResponseEntity("Request with the same " + HEADER + " is still running, try again", HttpStatus.CONFLICT);
+        }
+        return (ResponseEntity<T>) stored.response;
+    }
+
+    String fingerprint(Object request) {
+        try {
+            byte[] json = objectMapper.writeValueAsBytes(request);
+            return Base64.getEncoder().encodeToString(MessageDigest.getInstance("SHA-256").digest(json));
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Request could not be serialized", e);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private IdempotencyRecord toRecord(String id, String fingerprint, ResponseEntity<?> response) {
+        Object body = response.getBody();
+        byte[] bytes;
+        MediaType contentType;
+        if (body == null || body instanceof String) {
+            bytes = body == null ? new byte[0] : ((String) body).getBytes(StandardCharsets.UTF_8);
+            contentType = MediaType.TEXT_PLAIN;
+        } else {
+            try {
+                bytes = objectMapper.writeValueAsBytes(body);
+            } catch (JsonProcessingException e) {
+                throw new IllegalStateException("Response could not be stored", e);
+            }
+            contentType = MediaType.APPLICATION_JSON;
+        }
+        return IdempotencyRecord.builder()
+                .idempotencyKey(id)
+                .fingerprint(fingerprint)
+                .status(response.getStatusCodeValue())
+                .contentType(contentType.toString())
+                .body(bytes)
+                .createdAt(new Date())
+                .build();
+    }
+
+    private static final class Stored {
+        private final String fingerprint;
+        /** Null while the request is in flight. */
+        private final ResponseEntity<?> response;
+
+        private Stored(String fingerprint, ResponseEntity<?> response) {
+            this.fingerprint = fingerprint;
+            this.response = response;
+        }
+
+        private static Stored of(IdempotencyRecord record) {
+            if (record.getStatus() == IdempotencyRecord.IN_FLIGHT) {
+                return new Stored(record.getFingerprint(), null);
+            }
+            return new Stored(record.getFingerprint(), ResponseEntity.status(record.getStatus())
+                    .contentType(MediaType.parseMediaType(record.getContentType()))
+                    .body(record.getBody()));
+        }
+    }
+}
@@ -0,0 +1,148 @@
+package com.skp.bookshow.cache;
+
+import com.skp.bookshow.model.Movie;
+import com.skp.bookshow.model.response.CursorPage;
+import com.skp.bookshow.repository.MovieRepo;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.ContextRefreshedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+
+/**
+ * All movies in memory, with an inverted index from the words of their title and description to the movies
+ * containing them. Loaded once the context is refreshed and replaced on every {@link #add}, readers work on an
+ * immutable snapshot and never wait for a writer or reach the database.
+ */
+@Component
+@Slf4j
+public class MovieCatalogue {
+    @Autowired
+    private MovieRepo movieRepo;
+
+    private volatile Snapshot snapshot = new Snapshot(List.of());
+
+    @EventListener(ContextRefreshedEvent.class)
+    public synchronized void load() {
+        List<Movie> movies = movieRepo.findAll();
+        snapshot = new Snapshot(movies);
+        log.info("Loaded {} movies with {} indexed terms", movies.size(), snapshot.postings.size());
+    }
+
+    /**
+     * Adds the movie, or replaces the one with the same id. Rebuilds the index, which suits a catalogue that is
+     * read far more often than it changes.
+     */
+    public synchronized void add(Movie movie) {
+        Map<Long, Movie> movies = new HashMap<>();
+        for (Movie existing : snapshot.movies) {
+            movies.put(existing.getId(), existing);
+        }
+        movies.put(movie.getId(), movie);
+        snapshot = new Snapshot(movies.values());
+    }
+
+    public List<Movie> findAll() {
+        return List.of(snapshot.movies);
+    }
+
+    /**
+     * @param after id of the last movie of the previous page, null for the first page
+     */
+    public CursorPage<Movie> findPage(Long after, int limit) {
+        Snapshot current = snapshot;
+        BitSet all = new BitSet(current.movies.length);
+        all.set(0, current.movies.length);
+        return current.page(all, after, limit);
+    }
+
+    /**
+     * Movies having, for every word of the query, a word in title or description that starts with it, in id
+     * order. A query without words finds every movie.
+     */
+    public CursorPage<Movie> search(String query, Long after, int limit) {
+        Snapshot current = snapshot;
+        List<String> terms = tokenize(query);
+        if (terms.isEmpty()) return findPage(after, limit);
+        BitSet matches = null;
+        for (String term : terms) {
+            BitSet termMatches = current.prefixMatches(term);
+            if (matches == null) {
+                matches = termMatches;
+            } else {
+                matches.and(termMatches);
+            }
+            if (matches.isEmpty()) break;
+        }
+        return current.page(matches, after, limit);
+    }
+
+    /**
+     * @return the lower cased words of the text, split at every character that is neither letter nor digit
+     */
+    static List<String> tokenize(String text) {
+        List<String> tokens = new ArrayList<>();
+        if (text == null) return tokens;
+        int start = -1;
+        for (int i = 0; i <= text.length(); i++) {
+            boolean wordChar = i < text.length() && Character.isLetterOrDigit(text.charAt(i));
+            if (wordChar && start < 0) {
+                start = i;
+            } else if (!wordChar && start >= 0) {
+                tokens.add(text.substring(start, i).toLowerCase(Locale.ROOT));
+                start = -1;
+            }
+        }
+        return tokens;
+    }
+
+    private static final class Snapshot {
+        /** Sorted by id, postings refer to movies by their position here. */
+        final Movie[] movies;
+        final long[] ids;
+        final NavigableMap<String, int[]> postings = new TreeMap<>();
+
+        Snapshot(Collection<Movie> movies) {
+            this.movies = movies.toArray(new Movie[0]);
+            Arrays.sort(this.movies, Comparator.comparing(Movie::getId));
+            this.ids = new long[this.movies.length];
+            Map<String, List<Integer>> positions = new HashMap<>();
+            for (int i = 0; i < this.movies.length; i++) {
+                Movie movie = this.movies[i];
+                ids[i] = movie.getId();
+                Set<String> terms = new HashSet<>(tokenize(movie.getTitle()));
+                terms.addAll(tokenize(movie.getDescriptions()));
+                for (String term : terms) {
+                    positions.computeIfAbsent(term, t -> new ArrayList<>()).add(i);
+                }
+            }
+            positions.forEach((term, list) -> postings.put(term, list.stream().mapToInt(Integer::intValue).toArray()));
+        }
+
+        BitSet prefixMatches(String prefix) {
+            BitSet matches = new BitSet(movies.length);
+            for (int[] positions : postings.subMap(prefix, true, prefix + Character.MAX_VALUE, true).values()) {
+                for (int position : positions) {
+                    matches.set(position);
+                }
+            }
+            return matches;
+        }
+
+        CursorPage<Movie> page(BitSet matches, Long after, int limit) {
+            int capped = CursorPage.limit(limit);
+            int from = 0;
+            if (after != null) {
+                int found = Arrays.binarySearch(ids, after);
+                from = found >= 0 ? found + 1 : -found - 1;
+            }
+            List<Movie> fetched = new ArrayList<>(Math.min(capped + 1, movies.length));
+            for (int i = matches.nextSetBit(from); i >= 0 && fetched.size() <= capped; i = matches.nextSetBit(i + 1)) {
+                fetched.add(movies[i]);
+            }
+            return CursorPage.of(fetched, capped, Movie::getId);
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package com.skp.bookshow.cache;
+
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+
+/**
+ * Representations of a show's seat map. {@link #JSON} lists the seat labels by state, {@link #PACKED} carries the
+ * layout and two bits per seat:
+ * <pre>
+ * byte    format version, 1
+ * long    show id
+ * int     number of rows
+ * int     number of seats per row
+ * byte[]  seat states as {@link com.skp.bookshow.model.SeatMap#packed()}, 0 available, 1 blocked, 2 booked
+ * </pre>
+ * all numbers big endian.
+ */
+public enum SeatMapFormat {
+    JSON(MediaType.APPLICATION_JSON, "json"),
+    PACKED(MediaType.parseMediaType(SeatMapFormat.PACKED_VALUE), "packed");
+
+    public static final String PACKED_VALUE = "application/vnd.bookshow.seat-map";
+    public static final byte PACKED_VERSION = 1;
+
+    private final MediaType mediaType;
+    private final String tag;
+
+    SeatMapFormat(MediaType mediaType, String tag) {
+        this.mediaType = mediaType;
+        this.tag = tag;
+    }
+
+    public MediaType mediaType() {
+        return mediaType;
+    }
+
+    String tag() {
+        return tag;
+    }
+
+    /**
+     * @param accept the Accept header of the request, may be null
+     * @return {@link #PACKED} when the client asks for it, otherwise {@link #JSON}
+     */
+    public static SeatMapFormat negotiate(String accept) {
+        if (accept == null) return JSON;
+        try {
+            for (MediaType type : MediaType.parseMediaTypes(accept)) {
+                if (type.getQualityValue() > 0 && PACKED.mediaType.equalsTypeAndSubtype(type)) return PACKED;
+            }
+        } catch (InvalidMediaTypeException e) {
+            return JSON;
+        }
+        return JSON;
+    }
+}
@@ -0,0 +1,40 @@
+package com.skp.bookshow.cache;
+
+/**
+ * Seat map of a show in one {@link SeatMapFormat}, shared by every request for the same snapshot and format.
+ */
+public final class SerializedSeatMap {
+    private final SeatMapFormat format;
+    private final byte[] body;
+    private final boolean gzipped;
+    private final String etag;
+
+    public SerializedSeatMap(SeatMapFormat format, byte[] body, boolean gzipped, String etag) {
+        this.format = format;
+        this.body = body;
+        this.gzipped = gzipped;
+        this.etag = etag;
+    }
+
+    public SeatMapFormat getFormat() {
+        return format;
+    }
+
+    public byte[] getBody() {
+        return body;
+    }
+
+    /**
+     * @return whether {@link #getBody()} is gzip compressed
+     */
+    public boolean isGzipped() {
+        return gzipped;
+    }
+
+    /**
+     * @return strong entity tag of this representation, or null when the show has no version
+     */
+    public String getEtag() {
+        return etag;
+    }
+}
@@ -0,0 +1,57 @@
+package com.skp.bookshow.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.skp.bookshow.model.Account;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.Optional;
+
+/**
+ * Session tokens handed out on login, so later requests of the account are checked in memory instead of loading
+ * the account and hashing the password again. Tokens expire {@code ttl-ms} after login and at most
+ * {@code maximum-size} are kept, a token that is gone needs a new login.
+ */
+@Component
+public class SessionTokenCache {
+    private static final int TOKEN_BYTES = 32;
+
+    private final Cache<String, Account> sessions;
+    private final SecureRandom random = new SecureRandom();
+
+    public SessionTokenCache(@Value("${bookshow.session.maximum-size:10000}") long maximumSize,
+                             @Value("${bookshow.session.ttl-ms:900000}") long ttlMs) {
+        this.sessions = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(Duration.ofMillis(ttlMs))
+                .build();
+    }
+
+    /**
+     * @return new token for the account, its password is not kept
+     */
+    public String issue(Account account) {
+        byte[] bytes = new byte[TOKEN_BYTES];
+        random.nextBytes(bytes);
+        String token = Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+        sessions.put(token, Account.builder()
+                .phone(account.getPhone())
+                .name(account.getName())
+                .email(account.getEmail())
+                .accounttype(account.getAccounttype())
+                .build());
+        return token;
+    }
+
+    public Optional<Account> verify(String token) {
+        return token == null ? Optional.empty() : Optional.ofNullable(sessions.getIfPresent(token));
+    }
+
+    public void revoke(String token) {
+        if (token != null) sessions.invalidate(token);
+    }
+}
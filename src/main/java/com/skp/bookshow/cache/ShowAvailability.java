@@ -0,0 +1,126 @@
+package com.skp.bookshow.cache;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.skp.bookshow.model.SeatMap;
+import com.skp.bookshow.model.Show;
+import com.skp.bookshow.model.enums.SeatState;
+import com.skp.bookshow.model.response.ShowDetailsForGuestResponse;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Immutable snapshot of a show's seat states. The guest response and its serialized forms are built on first use
+ * and then shared by every reader of this snapshot.
+ */
+public final class ShowAvailability {
+    /** Smaller bodies are sent uncompressed, the gzip framing would outweigh the savings. */
+    static final int MIN_GZIP_BYTES = 512;
+    private static final int PACKED_HEADER_BYTES = 1 + Long.BYTES + 2 * Integer.BYTES;
+
+    private final Long showId;
+    private final Long version;
+    private final SeatMap seatMap;
+    private volatile ShowDetailsForGuestResponse details;
+    private volatile byte[] json;
+    /** Bodies by format, uncompressed at {@code 2 * ordinal} and gzipped at {@code 2 * ordinal + 1}. */
+    private final AtomicReferenceArray<byte[]> bodies = new AtomicReferenceArray<>(2 * SeatMapFormat.values().length);
+
+    ShowAvailability(Show show) {
+        this.showId = show.getId();
+        this.version = show.getVersion();
+        SeatMap current = show.seatMap();
+        this.seatMap = new SeatMap(current.getNumberOfRows(), current.getNumberOfSeatsPerRows(), current.states().clone());
+    }
+
+    public Long getShowId() {
+        return showId;
+    }
+
+    public Long getVersion() {
+        return version;
+    }
+
+    public ShowDetailsForGuestResponse details() {
+        var result = details;
+        if (result == null) {
+            result = ShowDetailsForGuestResponse.builder()
+                    .showNumber(showId)
+                    .availableSeat(seatMap.labels(SeatState.AVAILABLE))
+                    .blockedSeat(seatMap.labels(SeatState.BLOCKED))
+                    .bookedSeat(seatMap.labels(SeatState.BOOKED))
+                    .build();
+            details = result;
+        }
+        return result;
+    }
+
+    byte[] json(ObjectMapper objectMapper) {
+        var result = json;
+        if (result == null) {
+            try {
+                result = objectMapper.writeValueAsBytes(details());
+            } catch (JsonProcessingException e) {
+                throw new IllegalStateException("Could not serialize show " + showId, e);
+            }
+            json = result;
+        }
+        return result;
+    }
+
+    /**
+     * @return whether {@link #body} compresses the format when asked to
+     */
+    boolean compresses(SeatMapFormat format, ObjectMapper objectMapper) {
+        return body(format, false, objectMapper).length >= MIN_GZIP_BYTES;
+    }
+
+    byte[] body(SeatMapFormat format, boolean gzip, ObjectMapper objectMapper) {
+        int slot = 2 * format.ordinal() + (gzip ? 1 : 0);
+        var result = bodies.get(slot);
+        if (result == null) {
+            if (gzip) {
+                result = gzip(body(format, false, objectMapper));
+            } else {
+                result = format == SeatMapFormat.PACKED ? packed() : json(objectMapper);
+            }
+            bodies.set(slot, result);
+        }
+        return result;
+    }
+
+    /**
+     * @return strong entity tag of the representation, it changes with the version of the show, or null for shows
+     * without a version
+     */
+    String etag(SeatMapFormat format, boolean gzip) {
+        if (version == null) return null;
+        return "\"" + showId + "-" + version + "-" + format.tag() + (gzip ? "-gzip" : "") + "\"";
+    }
+
+    private byte[] packed() {
+        byte[] states = seatMap.packed();
+        return ByteBuffer.allocate(PACKED_HEADER_BYTES + states.length)
+                .put(SeatMapFormat.PACKED_VERSION)
+                .putLong(showId)
+                .putInt(seatMap.getNumberOfRows())
+                .putInt(seatMap.getNumberOfSeatsPerRows())
+                .put(states)
+                .array();
+    }
+
+    private static byte[] gzip(byte[] body) {
+        var out = new ByteArrayOutputStream(body.length / 4 + 64);
+        try (var gzip = new GZIPOutputStream(out)) {
+            gzip.write(body);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+}
@@ -0,0 +1,62 @@
+package com.skp.bookshow.cache;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.skp.bookshow.model.Show;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.function.Function;
+
+/**
+ * In-process cache of show availability in front of {@code GET /show/{id}}. Seat changes made on this instance
+ * replace the cached snapshot right away, the TTL bounds how long changes made by other instances stay unseen.
+ */
+@Component
+public class ShowAvailabilityCache {
+    private final Cache<Long, ShowAvailability> cache;
+    private final ObjectMapper objectMapper;
+
+    public ShowAvailabilityCache(@Value("${bookshow.show-cache.maximum-size:10000}") long maximumSize,
+                                 @Value("${bookshow.show-cache.ttl-ms:5000}") long ttlMs,
+                                 ObjectMapper objectMapper) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(Duration.ofMillis(ttlMs))
+                .build();
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * @param loader loads the show on a cache miss, may return an empty optional
+     */
+    public Optional<ShowAvailability> get(Long showId, Function<Long, Optional<Show>> loader) {
+        return Optional.ofNullable(cache.get(showId, id -> loader.apply(id).map(ShowAvailability::new).orElse(null)));
+    }
+
+    public byte[] json(ShowAvailability availability) {
+        return availability.json(objectMapper);
+    }
+
+    /**
+     * @param acceptsGzip whether the client takes gzip, small bodies are sent uncompressed anyway
+     */
+    public SerializedSeatMap serialize(ShowAvailability availability, SeatMapFormat format, boolean acceptsGzip) {
+        boolean gzip = acceptsGzip && availability.compresses(format, objectMapper);
+        return new SerializedSeatMap(format, availability.body(format, gzip, objectMapper), gzip, availability.etag(format, gzip));
+    }
+
+    /**
+     * Replaces the cached snapshot of the show if it is cached, shows nobody is reading are not added.
+     */
+    public void update(Show show) {
+        cache.asMap().computeIfPresent(show.getId(), (id, cached) -> isNewer(show, cached) ? new ShowAvailability(show) : cached);
+    }
+
+    private static boolean isNewer(Show show, ShowAvailability cached) {
+        return show.getVersion() == null || cached.getVersion() == null || show.getVersion() >= cached.getVersion();
+    }
+}
@@ -0,0 +1,114 @@
+package com.skp.bookshow.cache;
+
+import com.skp.bookshow.model.Show;
+import com.skp.bookshow.model.response.CursorPage;
+import com.skp.bookshow.model.response.ScheduledShow;
+import com.skp.bookshow.repository.ShowRepo;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.ContextRefreshedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * Every show ordered by show time, once overall and once per movie, so the shows in a time range are found in
+ * O(log n + k) without reaching the database. Shows are loaded once the context is refreshed and added as they are
+ * created, shows are never rescheduled so entries are not updated afterwards.
+ */
+@Component
+@Slf4j
+public class ShowSchedule {
+    private static final Slot FIRST = new Slot(Long.MIN_VALUE, Long.MIN_VALUE);
+    private static final Slot LAST = new Slot(Long.MAX_VALUE, Long.MAX_VALUE);
+
+    @Autowired
+    private ShowRepo showRepo;
+
+    private final NavigableMap<Slot, ScheduledShow> byTime = new ConcurrentSkipListMap<>();
+    private final Map<Long, NavigableMap<Slot, ScheduledShow>> byMovie = new ConcurrentHashMap<>();
+    /** Slot of every show by id, to continue a page after the show it ended with. */
+    private final Map<Long, Slot> slots = new ConcurrentHashMap<>();
+
+    /**
+     * Loads the shows through the repository the bookings use, which in journal storage is the journal and not
+     * the database written behind it. Only the scheduled fields are read, not the seat maps.
+     */
+    @EventListener(ContextRefreshedEvent.class)
+    public void load() {
+        showRepo.findScheduledShows().forEach(this::add);
+        log.info("Scheduled {} shows", slots.size());
+    }
+
+    /**
+     * Adds the show, shows without a show time or id are left out.
+     */
+    public void add(Show show) {
+        add(ScheduledShow.of(show));
+    }
+
+    private void add(ScheduledShow show) {
+        if (show.getId() == null || show.getShowTime() == null) return;
+        Slot slot = new Slot(show.getShowTime().getTime(), show.getId());
+        byMovie.computeIfAbsent(show.getMovieId(), id -> new ConcurrentSkipListMap<>()).put(slot, show);
+        byTime.put(slot, show);
+        slots.put(show.getId(), slot);
+    }
+
+    /**
+     * @param movieId only shows of this movie, or null for every movie
+     * @param from    first show time included, or null
+     * @param to      last show time included, or null
+     * @param after   id of the last show of the previous page, null for the first page
+     * @return shows ordered by show time and id
+     */
+    public CursorPage<ScheduledShow> find(Long movieId, Date from, Date to, Long after, int limit) {
+        int pageSize = CursorPage.limit(limit);
+        NavigableMap<Slot, ScheduledShow> shows = movieId == null ? byTime : byMovie.get(movieId);
+        Slot lower = from == null ? FIRST : new Slot(from.getTime(), Long.MIN_VALUE);
+        Slot upper = to == null ? LAST : new Slot(to.getTime(), Long.MAX_VALUE);
+        Slot last = after == null ? null : slots.get(after);
+        boolean lowerIncluded = true;
+        if (last != null && last.compareTo(lower) >= 0) {
+            lower = last;
+            lowerIncluded = false;
+        }
+        if (shows == null || lower.compareTo(upper) > 0) return new CursorPage<>(List.of(), null);
+
+        List<ScheduledShow> fetched = new ArrayList<>(Math.min(pageSize + 1, 64));
+        for (ScheduledShow show : shows.subMap(lower, lowerIncluded, upper, true).values()) {
+            fetched.add(show);
+            if (fetched.size() > pageSize) break;
+        }
+        return CursorPage.of(fetched, pageSize, ScheduledShow::getId);
+    }
+
+    private static final class Slot implements Comparable<Slot> {
+        final long time;
+        final long showId;
+
+        Slot(long time, long showId) {
+            this.time = time;
+            this.showId = showId;
+        }
+
+        @Override
+        public int compareTo(Slot other) {
+            int byTime = Long.compare(time, other.time);
+            return byTime != 0 ? byTime : Long.compare(showId, other.showId);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Slot && compareTo((Slot) o) == 0;
+        }
+
+        @Override
+        public int hashCode() {
+            return Long.hashCode(time) * 31 + Long.hashCode(showId);
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package com.skp.bookshow.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Exits as soon as the application is ready, on with {@code bookshow.training-run=true}. Started with
+ * {@code -XX:ArchiveClassesAtExit}, such a run leaves a CDS archive of every class loaded during startup behind,
+ * which later starts map instead of loading and verifying the classes again.
+ */
+@Slf4j
+@Configuration
+@ConditionalOnProperty(name = "bookshow.training-run", havingValue = "true")
+public class TrainingRunConfig {
+
+    @Bean
+    public ApplicationListener<ApplicationReadyEvent> exitWhenReady() {
+        return event -> {
+            log.info("Training run finished, exiting");
+            System.exit(SpringApplication.exit(event.getApplicationContext()));
+        };
+    }
+}
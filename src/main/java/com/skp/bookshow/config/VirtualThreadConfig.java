@@ -0,0 +1,68 @@
+package com.skp.bookshow.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.support.TaskExecutorAdapter;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Runs every request on a virtual thread of its own, on with {@code bookshow.execution.virtual-threads=true} and a
+ * Java 21 or later runtime. A request blocked on the database then parks its virtual thread instead of holding
+ * one of Tomcat's pooled threads, so requests in flight are bounded by {@code server.tomcat.max-connections}
+ * rather than {@code server.tomcat.threads.max}. The code is built for Java 11, so the virtual thread API is
+ * looked up at runtime.
+ */
+@Slf4j
+@Configuration
+@ConditionalOnProperty(name = "bookshow.execution.virtual-threads", havingValue = "true")
+public class VirtualThreadConfig implements WebMvcConfigurer {
+
+    /**
+     * Closed with the context, which waits for the requests still running on it once the web server stopped.
+     */
+    @Bean(destroyMethod = "close")
+    public ExecutorService requestExecutor() {
+        return newVirtualThreadPerTaskExecutor("request-");
+    }
+
+    @Bean
+    public TomcatProtocolHandlerCustomizer<?> virtualThreadProtocolHandler() {
+        log.info("Running requests on virtual threads");
+        return protocolHandler -> protocolHandler.setExecutor(requestExecutor());
+    }
+
+    /**
+     * Callable and deferred results of handlers complete on virtual threads too.
+     */
+    @Override
+    public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+        configurer.setTaskExecutor(new TaskExecutorAdapter(requestExecutor()));
+    }
+
+    /**
+     * @param prefix name prefix of the threads, numbered from 0
+     * @throws IllegalStateException when the runtime has no virtual threads
+     */
+    static ExecutorService newVirtualThreadPerTaskExecutor(String prefix) {
+        try {
+            Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+            Class<?> builderType = Class.forName("java.lang.Thread$Builder");
+            builder = builderType.getMethod("name", String.class, long.class).invoke(builder, prefix, 0L);
+            var factory = (ThreadFactory) builderType.getMethod("factory").invoke(builder);
+            return (ExecutorService) Executors.class.getMethod("newThreadPerTaskExecutor", ThreadFactory.class)
+                    .invoke(null, factory);
+        } catch (NoSuchMethodException | ClassNotFoundException e) {
+            throw new IllegalStateException("Virtual threads need Java 21 or later, running on " + Runtime.version(), e);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Could not create virtual thread executor", e);
+        }
+    }
+}
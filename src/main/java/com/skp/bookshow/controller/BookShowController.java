@@ -1,29 +1,45 @@
 package com.skp.bookshow.controller;
 
+import com.skp.bookshow.cache.IdempotencyStore;
+import com.skp.bookshow.cache.SeatMapFormat;
 import com.skp.bookshow.exception.*;
 import com.skp.bookshow.model.BookedSeat;
+import com.skp.bookshow.model.Movie;
 import com.skp.bookshow.model.Show;
+import com.skp.bookshow.model.enums.AccountType;
 import com.skp.bookshow.model.enums.SeatStatus;
+import com.skp.bookshow.model.projection.BookingSummary;
+import com.skp.bookshow.model.projection.ShowSummary;
 import com.skp.bookshow.model.request.BookShowRequest;
+import com.skp.bookshow.model.request.LoginRequest;
 import com.skp.bookshow.model.request.ShowRequest;
 import com.skp.bookshow.model.response.BookingResponse;
-import com.skp.bookshow.model.response.ShowDetailsForGuestResponse;
+import com.skp.bookshow.model.response.CursorPage;
+import com.skp.bookshow.model.response.LoginResponse;
+import com.skp.bookshow.model.response.ScheduledShow;
+import com.skp.bookshow.security.PasswordHasher;
 import com.skp.bookshow.service.AccountService;
 import com.skp.bookshow.service.MovieService;
 import com.skp.bookshow.service.SeatBookingService;
 import com.skp.bookshow.service.ShowService;
+import com.skp.bookshow.stream.SeatEventEmitter;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.context.annotation.ComponentScan;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.Instant;
+import java.util.Date;
 import java.util.List;
+import java.util.stream.Collectors;
 
 @RestController
-@ComponentScan("com.skp.bookshow")
 @RequestMapping("api/v1/")
 public class BookShowController {
+    private static final String BEARER = "Bearer ";
 
     @Autowired
     private AccountService accountService;
@@ -37,8 +53,20 @@ public class BookShowController {
     @Autowired
     private SeatBookingService seatBookingService;
 
+    @Autowired
+    private IdempotencyStore idempotencyStore;
+
+    @Autowired
+    private PasswordHasher passwordHasher;
+
     @PostMapping("/show/booking/confirm/{status}")
-    public ResponseEntity<BookingResponse> confirmBooking(@RequestBody BookShowRequest bookShowRequest, @PathVariable Boolean status) {
+    public ResponseEntity<BookingResponse> confirmBooking(@RequestBody BookShowRequest bookShowRequest, @PathVariable Boolean status,
+                                                          @RequestHeader(name = IdempotencyStore.HEADER, required = false) String idempotencyKey) {
+        return idempotencyStore.execute("confirm/" + status, idempotencyKey, bookShowRequest,
+                () -> changeBooking(bookShowRequest, status));
+    }
+
+    private ResponseEntity<BookingResponse> changeBooking(BookShowRequest bookShowRequest, Boolean status) {
         try {
             BookedSeat bookedSeat;
             if(status) {
@@ -59,7 +87,7 @@ public class BookShowController {
 
     }
 
-    @PostMapping("/show/booking/cancel/{tickerId}")
+    @PostMapping("/show/booking/cancel/{ticketId}")
     public ResponseEntity<BookingResponse> cancelBooking(@PathVariable Long ticketId) {
         try {
             var bookingByTicketId = seatBookingService.findBookingByTicketId(ticketId);
@@ -79,7 +107,12 @@ public class BookShowController {
     }
 
     @PostMapping("/show/booking")
-    public ResponseEntity<BookingResponse> bookShow(@RequestBody BookShowRequest bookShowRequest) {
+    public ResponseEntity<BookingResponse> bookShow(@RequestBody BookShowRequest bookShowRequest,
+                                                    @RequestHeader(name = IdempotencyStore.HEADER, required = false) String idempotencyKey) {
+        return idempotencyStore.execute("booking", idempotencyKey, bookShowRequest, () -> placeBooking(bookShowRequest));
+    }
+
+    private ResponseEntity<BookingResponse> placeBooking(BookShowRequest bookShowRequest) {
         ResponseEntity responseEntity;
         try {
             BookedSeat bookedSeat = seatBookingService.bookSeat(bookShowRequest);
@@ -96,6 +129,19 @@ public class BookShowController {
         return responseEntity;
     }
 
+    @PostMapping("/show/booking/bulk")
+    public ResponseEntity<List<BookingResponse>> bookShows(@RequestBody List<BookShowRequest> bookShowRequests) {
+        try {
+            var bookingResponses = seatBookingService.bookSeats(bookShowRequests).stream()
+                    .map(result -> result.getBookedSeat() != null ? getBookingResponse(result.getBookedSeat())
+                            : BookingResponse.builder().message(result.getError()).build())
+                    .collect(Collectors.toList());
+            return new ResponseEntity(bookingResponses, HttpStatus.OK);
+        } catch (BookingUnSuccessful e) {
+            return new ResponseEntity(e.getMessage(), HttpStatus.BAD_REQUEST);
+        }
+    }
+
     @GetMapping("/show/booking/{phoneNumber}")
     public ResponseEntity<BookingResponse> findBookingByPhoneNumber(@PathVariable Long phoneNumber) {
         try {
@@ -111,19 +157,65 @@ public class BookShowController {
     }
 
     @GetMapping("/show/status/{id}")
-    public ResponseEntity<List<BookedSeat>> findShowStatus(@PathVariable Long id){
-        return new ResponseEntity(seatBookingService.findAllBookingForShow(id), HttpStatus.OK);
+    public ResponseEntity<CursorPage<BookingSummary>> findShowStatus(@RequestHeader(name = HttpHeaders.AUTHORIZATION, required = false) String authorization,
+                                                                      @PathVariable Long id,
+                                                                      @RequestParam(required = false) Long after,
+                                                                      @RequestParam(defaultValue = "50") int limit){
+        HttpStatus denied = checkAdmin(authorization);
+        if (denied != null) return new ResponseEntity(denied);
+        return new ResponseEntity(seatBookingService.findBookingPageForShow(id, after, limit), HttpStatus.OK);
     }
 
     @PostMapping("/show")
-    public ResponseEntity<Show> createShow(@RequestBody ShowRequest showRequest){
+    public ResponseEntity<Show> createShow(@RequestHeader(name = HttpHeaders.AUTHORIZATION, required = false) String authorization,
+                                           @RequestBody ShowRequest showRequest){
+        HttpStatus denied = checkAdmin(authorization);
+        if (denied != null) return new ResponseEntity(denied);
         return new ResponseEntity(showService.createShow(showRequest), HttpStatus.OK);
     }
 
+    @PostMapping("/login")
+    public ResponseEntity<LoginResponse> login(@RequestBody LoginRequest loginRequest) {
+        try {
+            String token = accountService.authenticate(loginRequest.getPhone(), loginRequest.getPassword());
+            if (token == null) return new ResponseEntity(HttpStatus.UNAUTHORIZED);
+            return new ResponseEntity(LoginResponse.builder().token(token).build(), HttpStatus.OK);
+        } catch (AccountNotFound e) {
+            // same answer as a wrong password, after as long, so accounts can not be probed
+            passwordHasher.matches(loginRequest.getPassword(), passwordHasher.dummyHash());
+            return new ResponseEntity(HttpStatus.UNAUTHORIZED);
+        }
+    }
+
+    /**
+     * Ends the session of the bearer token, admin requests sending it are refused from then on.
+     */
+    @PostMapping("/logout")
+    public ResponseEntity<Void> logout(@RequestHeader(name = HttpHeaders.AUTHORIZATION, required = false) String authorization) {
+        String token = tokenOf(authorization);
+        if (accountService.verify(token).isEmpty()) return new ResponseEntity(HttpStatus.UNAUTHORIZED);
+        accountService.logout(token);
+        return new ResponseEntity(HttpStatus.NO_CONTENT);
+    }
+
+    /**
+     * Seat map as JSON, or packed two bits per seat for clients accepting {@link SeatMapFormat#PACKED_VALUE}.
+     * Responses carry an entity tag of the show version, a poll sending it back as If-None-Match gets a 304 as long
+     * as no seat changed.
+     */
     @GetMapping("/show/{id}")
-    public ResponseEntity<ShowDetailsForGuestResponse> findShowBy(@PathVariable Long id){
+    public ResponseEntity<byte[]> findShowBy(@PathVariable Long id,
+                                             @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept,
+                                             @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding){
         try {
-            return new ResponseEntity(showService.findById(id), HttpStatus.OK);
+            var seatMap = showService.findSerializedById(id, SeatMapFormat.negotiate(accept), acceptsGzip(acceptEncoding));
+            var response = ResponseEntity.ok()
+                    .contentType(seatMap.getFormat().mediaType())
+                    .cacheControl(CacheControl.noCache())
+                    .varyBy(HttpHeaders.ACCEPT, HttpHeaders.ACCEPT_ENCODING);
+            if (seatMap.getEtag() != null) response.eTag(seatMap.getEtag());
+            if (seatMap.isGzipped()) response.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+            return response.body(seatMap.getBody());
         } catch (ShowNotFound e) {
             return new ResponseEntity(e.getMessage(), HttpStatus.NOT_FOUND);
         } catch (Exception e) {
@@ -131,11 +223,51 @@ public class BookShowController {
         }
     }
 
+    @GetMapping(path = "/show/{id}/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SeatEventEmitter> streamShow(@PathVariable Long id){
+        try {
+            return new ResponseEntity(showService.streamById(id), HttpStatus.OK);
+        } catch (ShowNotFound e) {
+            // an event stream response can only carry an emitter as body
+            return new ResponseEntity(HttpStatus.NOT_FOUND);
+        }
+    }
+
     @GetMapping("/show")
-    public ResponseEntity<List<Show>> findAllShows(){
-        return new ResponseEntity(showService.findAll(), HttpStatus.OK);
+    public ResponseEntity<CursorPage<ShowSummary>> findAllShows(@RequestParam(required = false) Long after,
+                                                                @RequestParam(defaultValue = "50") int limit){
+        return new ResponseEntity(showService.findPage(after, limit), HttpStatus.OK);
     }
 
+    @GetMapping("/show/schedule")
+    public ResponseEntity<CursorPage<ScheduledShow>> findSchedule(@RequestParam(required = false) Instant from,
+                                                                  @RequestParam(required = false) Instant to,
+                                                                  @RequestParam(required = false) Long after,
+                                                                  @RequestParam(defaultValue = "50") int limit){
+        return new ResponseEntity(showService.findSchedule(null, date(from), date(to), after, limit), HttpStatus.OK);
+    }
+
+    @GetMapping("/movie/{movieId}/show")
+    public ResponseEntity<CursorPage<ScheduledShow>> findScheduleForMovie(@PathVariable Long movieId,
+                                                                          @RequestParam(required = false) Instant from,
+                                                                          @RequestParam(required = false) Instant to,
+                                                                          @RequestParam(required = false) Long after,
+                                                                          @RequestParam(defaultValue = "50") int limit){
+        return new ResponseEntity(showService.findSchedule(movieId, date(from), date(to), after, limit), HttpStatus.OK);
+    }
+
+    @GetMapping("/movie")
+    public ResponseEntity<CursorPage<Movie>> findAllMovies(@RequestParam(required = false) Long after,
+                                                           @RequestParam(defaultValue = "50") int limit){
+        return new ResponseEntity(movieService.findPage(after, limit), HttpStatus.OK);
+    }
+
+    @GetMapping("/movie/search")
+    public ResponseEntity<CursorPage<Movie>> searchMovies(@RequestParam("q") String query,
+                                                         @RequestParam(required = false) Long after,
+                                                         @RequestParam(defaultValue = "50") int limit){
+        return new ResponseEntity(movieService.search(query, after, limit), HttpStatus.OK);
+    }
 
     private BookingResponse getBookingResponse(BookedSeat bookedSeat) {
         String message = "";
@@ -154,8 +286,46 @@ public class BookShowController {
         return bookingResponse;
     }
 
-    public Boolean login(Long id, String password) throws AccountNotFound {
-        return accountService.login(id, password);
+    private static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) return false;
+        for (String coding : acceptEncoding.split(",")) {
+            String[] parts = coding.split(";");
+            if (!parts[0].trim().equalsIgnoreCase("gzip")) continue;
+            for (int i = 1; i < parts.length; i++) {
+                // q=0 declines the coding
+                if (parts[i].trim().matches("q=0(\\.0{0,3})?")) return false;
+            }
+            return true;
+        }
+        return false;
+    }
+
+    private static Date date(Instant instant) {
+        return instant == null ? null : Date.from(instant);
+    }
+
+    /**
+     * @return session token for the admin requests, or null when the password is wrong
+     */
+    public String login(Long id, String password) throws AccountNotFound {
+        return accountService.authenticate(id, password);
+    }
+
+    /**
+     * Checks the session token of an admin request in memory, the account and its password are not looked at
+     * again until the session expires.
+     *
+     * @param authorization the token, with or without a "Bearer " prefix
+     * @return null when the request may go on, otherwise the status to deny it with
+     */
+    private HttpStatus checkAdmin(String authorization) {
+        var account = accountService.verify(tokenOf(authorization));
+        if (account.isEmpty()) return HttpStatus.UNAUTHORIZED;
+        if (account.get().getAccounttype() != AccountType.ADMIN) return HttpStatus.FORBIDDEN;
+        return null;
     }
-}
 
+    private static String tokenOf(String authorization) {
+        return authorization != null && authorization.startsWith(BEARER) ? authorization.substring(BEARER.length()) : authorization;
+    }
+}
@@ -0,0 +1,264 @@
+package com.skp.bookshow.journal;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+/**
+ * Append-only journal of memory-mapped files. Records are framed as {@code [length][crc][payload]} and copied into
+ * the mapping under a short lock, a single flusher thread then forces everything appended so far to disk in one
+ * go, so concurrent writers share one fsync (group commit). A writer waits with {@link #awaitDurable(long)}.
+ * <p>
+ * The journal is split into numbered generations, one file each. A new generation starts when the current file is
+ * full and on {@link #roll()}, which lets a snapshot replace every generation before it.
+ */
+@Slf4j
+public final class BookingJournal implements AutoCloseable {
+    private static final Pattern JOURNAL_FILE = Pattern.compile("journal-(\\d+)\\.log");
+    private static final int HEADER_BYTES = 8;
+
+    private final Path directory;
+    private final int fileBytes;
+    private final boolean fsync;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition appendedMore = lock.newCondition();
+    private final Condition durableMore = lock.newCondition();
+    private final Thread flusher;
+
+    private long generation;
+    private FileChannel channel;
+    private MappedByteBuffer buffer;
+    private long appended;
+    private long durable;
+    private volatile boolean closed;
+
+    /**
+     * Opens a new generation after the existing ones, call {@link #replay} before to read them.
+     */
+    public BookingJournal(Path directory, int fileBytes, boolean fsync) {
+        this.directory = directory;
+        this.fileBytes = fileBytes;
+        this.fsync = fsync;
+        try {
+            Files.createDirectories(directory);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        List<Long> generations = generations(directory);
+        this.generation = generations.isEmpty() ? 0 : generations.get(generations.size() - 1);
+        open(generation + 1);
+        this.flusher = new Thread(this::flushLoop, "booking-journal-flusher");
+        this.flusher.setDaemon(true);
+        this.flusher.start();
+    }
+
+    /**
+     * Feeds the payload of every intact record of the generations from {@code fromGeneration} on to
+     * {@code handler}, in append order. A file ends at its first empty or torn record.
+     */
+    public static void replay(Path directory, long fromGeneration, Consumer<byte[]> handler) {
+        for (long generation : generations(directory)) {
+            if (generation < fromGeneration) continue;
+            try (FileChannel channel = FileChannel.open(file(directory, generation), StandardOpenOption.READ)) {
+                var buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+                int records = 0;
+                while (buffer.remaining() >= HEADER_BYTES) {
+                    int length = buffer.getInt();
+                    int crc = buffer.getInt();
+                    if (length <= 0 || length > buffer.remaining()) break;
+                    byte[] payload = new byte[length];
+                    buffer.get(payload);
+                    if (crc(payload) != crc) {
+                        log.warn("Journal generation {} has a torn record after {} records", generation, records);
+                        break;
+                    }
+                    handler.accept(payload);
+                    records++;
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    /**
+     * Removes the generations before {@code generation}, once a snapshot covers them.
+     */
+    public static void deleteBefore(Path directory, long generation) {
+        for (long old : generations(directory)) {
+            if (old >= generation) continue;
+            try {
+                Files.deleteIfExists(file(directory, old));
+            } catch (IOException e) {
+                log.warn("Could not delete journal generation {}", old, e);
+            }
+        }
+    }
+
+    /**
+     * @return position to {@link #awaitDurable(long) wait for}
+     */
+    public long append(byte[] payload) {
+        int recordBytes = HEADER_BYTES + payload.length;
+        if (recordBytes > fileBytes) {
+            throw new IllegalArgumentException("Journal record of " + payload.length + " bytes does not fit a file");
+        }
+        lock.lock();
+        try {
+            if (closed) throw new IllegalStateException("Journal is closed");
+            if (buffer.remaining() < recordBytes) {
+                force(buffer);
+                durable = appended;
+                open(generation + 1);
+            }
+            buffer.putInt(payload.length);
+            buffer.putInt(crc(payload));
+            buffer.put(payload);
+            appended += recordBytes;
+            appendedMore.signal();
+            return appended;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void awaitDurable(long position) {
+        lock.lock();
+        try {
+            while (durable < position) {
+                if (closed) throw new IllegalStateException("Journal closed before the record was written");
+                durableMore.awaitUninterruptibly();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Starts a new generation, records appended from now on go to it.
+     *
+     * @return the new generation
+     */
+    public long roll() {
+        lock.lock();
+        try {
+            force(buffer);
+            durable = appended;
+            durableMore.signalAll();
+            open(generation + 1);
+            return generation;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void close() {
+        lock.lock();
+        try {
+            if (closed) return;
+            closed = true;
+            appendedMore.signalAll();
+        } finally {
+            lock.unlock();
+        }
+        try {
+            flusher.join(TimeUnit.SECONDS.toMillis(10));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        lock.lock();
+        try {
+            force(buffer);
+            durable = appended;
+            durableMore.signalAll();
+            channel.close();
+        } catch (IOException e) {
+            log.warn("Could not close journal", e);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void flushLoop() {
+        while (true) {
+            MappedByteBuffer target;
+            long position;
+            lock.lock();
+            try {
+                while (appended == durable && !closed) {
+                    appendedMore.awaitUninterruptibly();
+                }
+                if (closed) return;
+                target = buffer;
+                position = appended;
+            } finally {
+                lock.unlock();
+            }
+            force(target);
+            lock.lock();
+            try {
+                durable = Math.max(durable, position);
+                durableMore.signalAll();
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    private void open(long next) {
+        try {
+            if (channel != null) channel.close();
+            channel = FileChannel.open(file(directory, next),
+                    StandardOpenOption.CREATE_NEW, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, fileBytes);
+            generation = next;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void force(MappedByteBuffer target) {
+        if (fsync) target.force();
+    }
+
+    private static int crc(byte[] payload) {
+        var crc = new CRC32C();
+        crc.update(payload);
+        return (int) crc.getValue();
+    }
+
+    private static Path file(Path directory, long generation) {
+        return directory.resolve(String.format("journal-%016d.log", generation));
+    }
+
+    private static List<Long> generations(Path directory) {
+        if (!Files.isDirectory(directory)) return new ArrayList<>();
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.map(path -> JOURNAL_FILE.matcher(path.getFileName().toString()))
+                    .filter(Matcher::matches)
+                    .map(matcher -> Long.parseLong(matcher.group(1)))
+                    .sorted()
+                    .collect(Collectors.toList());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,150 @@
+package com.skp.bookshow.journal;
+
+import com.skp.bookshow.model.BookedSeat;
+import com.skp.bookshow.model.Show;
+import com.skp.bookshow.model.enums.SeatStatus;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Binary form of shows and bookings in the journal and in snapshots. A show written over a previous state of
+ * itself only carries the seats that changed.
+ */
+final class JournalCodec {
+    static final byte SHOW = 1;
+    static final byte BOOKING = 2;
+
+    private static final byte ALL_SEATS = 1;
+    private static final byte CHANGED_SEATS = 2;
+
+    private JournalCodec() {
+    }
+
+    /**
+     * @param previous seat states the reader already has, or null to write all seats
+     */
+    static void writeShow(DataOutput out, Show show, byte[] previous) throws IOException {
+        out.writeByte(SHOW);
+        out.writeLong(show.getId());
+        out.writeLong(show.getVersion());
+        writeDate(out, show.getShowTime());
+        out.writeLong(show.getMovieId());
+        out.writeInt(show.getNumberOfRows());
+        out.writeInt(show.getNumberOfSeatsPerRows());
+        out.writeInt(show.getCancellationWindow());
+        byte[] states = show.getSeatStates();
+        if (previous == null || previous.length != states.length) {
+            out.writeByte(ALL_SEATS);
+            out.writeInt(states.length);
+            out.write(states);
+            return;
+        }
+        out.writeByte(CHANGED_SEATS);
+        int[] changed = new int[16];
+        int count = 0;
+        for (int i = 0; i < states.length; i++) {
+            int mismatch = Arrays.mismatch(states, i, states.length, previous, i, previous.length);
+            if (mismatch < 0) break;
+            i += mismatch;
+            if (count == changed.length) changed = Arrays.copyOf(changed, count * 2);
+            changed[count++] = i;
+        }
+        out.writeInt(count);
+        for (int c = 0; c < count; c++) {
+            out.writeInt(changed[c]);
+            out.writeByte(states[changed[c]]);
+        }
+    }
+
+    /**
+     * Reads a show written by {@link #writeShow}, the type byte already consumed.
+     *
+     * @param known shows as known before by id, changed seats are applied to a copy of their seats
+     */
+    static Show readShow(DataInput in, Function<Long, Show> known) throws IOException {
+        var show = Show.builder()
+                .id(in.readLong())
+                .version(in.readLong())
+                .showTime(readDate(in))
+                .movieId(in.readLong())
+                .numberOfRows(in.readInt())
+                .numberOfSeatsPerRows(in.readInt())
+                .cancellationWindow(in.readInt())
+                .build();
+        byte[] states;
+        if (in.readByte() == ALL_SEATS) {
+            states = new byte[in.readInt()];
+            in.readFully(states);
+        } else {
+            Show previous = known.apply(show.getId());
+            if (previous == null) throw new IOException("Seat changes of unknown show " + show.getId());
+            states = previous.getSeatStates().clone();
+            for (int c = in.readInt(); c > 0; c--) {
+                states[in.readInt()] = in.readByte();
+            }
+        }
+        show.setSeatStates(states);
+        show.countSeats();
+        return show;
+    }
+
+    static void writeBooking(DataOutput out, BookedSeat booking) throws IOException {
+        out.writeByte(BOOKING);
+        out.writeLong(booking.getTicketId());
+        writeLong(out, booking.getPhoneNumber());
+        writeLong(out, booking.getShowNumber());
+        out.writeByte(booking.getSeatStatus() == null ? -1 : booking.getSeatStatus().ordinal());
+        writeDate(out, booking.getBookingTime());
+        writeDate(out, booking.getHoldExpiresAt());
+        List<String> seats = booking.getBookedSeat() == null ? List.of() : booking.getBookedSeat();
+        out.writeInt(seats.size());
+        for (String seat : seats) {
+            out.writeUTF(seat);
+        }
+    }
+
+    /**
+     * Reads a booking written by {@link #writeBooking}, the type byte already consumed.
+     */
+    static BookedSeat readBooking(DataInput in) throws IOException {
+        var booking = BookedSeat.builder()
+                .ticketId(in.readLong())
+                .phoneNumber(readLong(in))
+                .showNumber(readLong(in));
+        byte status = in.readByte();
+        booking.seatStatus(status < 0 ? null : SeatStatus.values()[status])
+                .bookingTime(readDate(in))
+                .holdExpiresAt(readDate(in));
+        int count = in.readInt();
+        List<String> seats = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            seats.add(in.readUTF());
+        }
+        return booking.bookedSeat(seats).build();
+    }
+
+    private static void writeLong(DataOutput out, Long value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) out.writeLong(value);
+    }
+
+    private static Long readLong(DataInput in) throws IOException {
+        return in.readBoolean() ? in.readLong() : null;
+    }
+
+    private static void writeDate(DataOutput out, Date value) throws IOException {
+        writeLong(out, value == null ? null : value.getTime());
+    }
+
+    private static Date readDate(DataInput in) throws IOException {
+        Long time = readLong(in);
+        return time == null ? null : new Date(time);
+    }
+}
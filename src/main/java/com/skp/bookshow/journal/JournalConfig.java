@@ -0,0 +1,83 @@
+package com.skp.bookshow.journal;
+
+import com.skp.bookshow.repository.BookingRepo;
+import com.skp.bookshow.repository.ShowRepo;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.sql.init.dependency.DependsOnDatabaseInitialization;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionOperations;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+import java.nio.file.Path;
+
+/**
+ * Journal storage, on with {@code bookshow.storage=journal}. Shows and bookings then live in a {@link JournalStore}
+ * and the booking path reads and writes them there, the JPA tables become a projection written behind it.
+ */
+@Configuration
+@ConditionalOnProperty(name = "bookshow.storage", havingValue = "journal")
+public class JournalConfig {
+
+    /**
+     * The store hands out ids above the highest ones in the tables as well, so switching an instance that ran on
+     * JPA storage to the journal never reuses the id of a show or booking written before.
+     */
+    @Bean(destroyMethod = "close")
+    @DependsOnDatabaseInitialization
+    public JournalStore journalStore(@Value("${bookshow.journal.directory:journal}") String directory,
+                                     @Value("${bookshow.journal.file-bytes:67108864}") int fileBytes,
+                                     @Value("${bookshow.journal.fsync:true}") boolean fsync,
+                                     @Qualifier("showRepo") ShowRepo showRepo,
+                                     @Qualifier("bookingRepo") BookingRepo bookingRepo) {
+        var store = new JournalStore(Path.of(directory), fileBytes, fsync);
+        store.reserveIds(showRepo.findMaxId(), bookingRepo.findMaxId());
+        return store;
+    }
+
+    @Bean(destroyMethod = "close")
+    public JpaProjection jpaProjection(JournalStore journalStore, EntityManager entityManager,
+                                       PlatformTransactionManager transactionManager, MeterRegistry meterRegistry) {
+        var projection = new JpaProjection(entityManager, new TransactionTemplate(transactionManager),
+                journalStore::awaitDurable, meterRegistry);
+        projection.enqueue(0, journalStore.contents());
+        journalStore.addListener(projection::enqueue);
+        return projection;
+    }
+
+    @Bean
+    @Primary
+    public ShowRepo journaledShowRepo(JournalStore journalStore, JpaProjection jpaProjection,
+                                      @Qualifier("showRepo") ShowRepo showRepo) {
+        return new JournaledShowRepo(journalStore, showRepo);
+    }
+
+    @Bean
+    @Primary
+    public BookingRepo journaledBookingRepo(JournalStore journalStore, JpaProjection jpaProjection,
+                                            @Qualifier("bookingRepo") BookingRepo bookingRepo) {
+        return new JournaledBookingRepo(journalStore, bookingRepo);
+    }
+
+    /**
+     * Transactions of the booking path commit to the store, the projection runs its own against the database.
+     */
+    @Bean
+    @Primary
+    public TransactionOperations journalTransactionOperations(JournalStore journalStore) {
+        return new TransactionOperations() {
+            @Override
+            public <T> T execute(TransactionCallback<T> action) {
+                return journalStore.inTransaction(() -> action.doInTransaction(new SimpleTransactionStatus()));
+            }
+        };
+    }
+}
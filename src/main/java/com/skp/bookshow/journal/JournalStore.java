@@ -0,0 +1,540 @@
+package com.skp.bookshow.journal;
+
+import com.skp.bookshow.model.BookedSeat;
+import com.skp.bookshow.model.Show;
+import com.skp.bookshow.model.enums.SeatStatus;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+/**
+ * Shows and bookings held in memory as the primary copy, every change appended to a {@link BookingJournal} before
+ * it is acknowledged. On start the latest snapshot is loaded and the journal written after it replayed.
+ * <p>
+ * Changes saved inside {@link #inTransaction} are written as one journal record when the work completes and
+ * dropped if it throws. A saved show must carry the version it was read with, like the version check of a JPA
+ * save. Stored entities are never handed out, readers get copies and a change replaces the stored entity.
+ */
+@Slf4j
+public class JournalStore implements AutoCloseable {
+    private static final Pattern SNAPSHOT_FILE = Pattern.compile("snapshot-(\\d+)\\.bin");
+
+    private final Path directory;
+    private final BookingJournal journal;
+    private final Map<Long, Show> shows = new ConcurrentHashMap<>();
+    private final Map<Long, BookedSeat> bookings = new ConcurrentHashMap<>();
+    private final Map<Long, NavigableSet<Long>> ticketsByPhone = new ConcurrentHashMap<>();
+    private final AtomicLong showIds = new AtomicLong();
+    private final AtomicLong ticketIds = new AtomicLong();
+    private final ThreadLocal<List<Object>> transaction = new ThreadLocal<>();
+    private final List<CommitListener> listeners = new CopyOnWriteArrayList<>();
+    private final Object commitLock = new Object();
+
+    public JournalStore(Path directory, int journalFileBytes, boolean fsync) {
+        this.directory = directory;
+        long generation = loadSnapshot();
+        BookingJournal.replay(directory, generation, this::replay);
+        this.journal = new BookingJournal(directory, journalFileBytes, fsync);
+        log.info("Recovered {} shows and {} bookings from {}", shows.size(), bookings.size(), directory);
+    }
+
+    /**
+     * Seeds the id counters, so ids handed out never collide with ids already stored elsewhere.
+     */
+    public void reserveIds(long showId, long ticketId) {
+        showIds.accumulateAndGet(showId, Math::max);
+        ticketIds.accumulateAndGet(ticketId, Math::max);
+    }
+
+    public void addListener(CommitListener listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * Waits until the journal holds everything up to {@code position} on disk.
+     */
+    public void awaitDurable(long position) {
+        journal.awaitDurable(position);
+    }
+
+    /**
+     * Runs {@code work} and commits what it saved once it returns, joining the transaction already running on this
+     * thread if there is one.
+     */
+    public <T> T inTransaction(Supplier<T> work) {
+        if (transaction.get() != null) {
+            return work.get();
+        }
+        List<Object> saved = new ArrayList<>();
+        transaction.set(saved);
+        try {
+            T result = work.get();
+            transaction.remove();
+            if (!saved.isEmpty()) commit(saved);
+            return result;
+        } finally {
+            transaction.remove();
+        }
+    }
+
+    public Optional<Show> findShow(Long id) {
+        return Optional.ofNullable(shows.get(id)).map(JournalStore::copy);
+    }
+
+    public List<Show> findShows() {
+        return shows.values().stream()
+                .sorted(Comparator.comparing(Show::getId))
+                .map(JournalStore::copy)
+                .collect(Collectors.toList());
+    }
+
+    public Show saveShow(Show show) {
+        if (show.getId() == null) show.setId(showIds.incrementAndGet());
+        save(show);
+        return show;
+    }
+
+    public Optional<BookedSeat> findBooking(Long ticketId) {
+        return Optional.ofNullable(bookings.get(ticketId)).map(JournalStore::copy);
+    }
+
+    public Optional<BookedSeat> findBookingByPhoneNumber(Long phoneNumber) {
+        NavigableSet<Long> tickets = ticketsByPhone.getOrDefault(phoneNumber, Collections.emptyNavigableSet());
+        return tickets.isEmpty() ? Optional.empty() : findBooking(tickets.last());
+    }
+
+    public List<BookedSeat> findBookings(Collection<Long> ticketIds) {
+        return ticketIds.stream()
+                .map(bookings::get)
+                .filter(Objects::nonNull)
+                .map(JournalStore::copy)
+                .collect(Collectors.toList());
+    }
+
+    public List<BookedSeat> findBookingsByShow(Long showId) {
+        return findBookingsWhere(booking -> Objects.equals(booking.getShowNumber(), showId));
+    }
+
+    public List<BookedSeat> findBookingsByStatus(SeatStatus seatStatus) {
+        return findBookingsWhere(booking -> booking.getSeatStatus() == seatStatus);
+    }
+
+    public List<Long> findExistingPhoneNumbers(Collection<Long> phoneNumbers) {
+        return phoneNumbers.stream()
+                .filter(phoneNumber -> !ticketsByPhone.getOrDefault(phoneNumber, Collections.emptyNavigableSet()).isEmpty())
+                .collect(Collectors.toList());
+    }
+
+    public BookedSeat saveBooking(BookedSeat booking) {
+        if (booking.getTicketId() == null) booking.setTicketId(ticketIds.incrementAndGet());
+        save(booking);
+        return booking;
+    }
+
+    /**
+     * Moves the booking to {@code to} only if it is still in {@code from}. Inside {@link #inTransaction} the change
+     * is committed with the rest of the transaction, which fails if the booking left {@code from} in the meantime,
+     * otherwise it is written right away like the conditional update it stands in for.
+     *
+     * @return 1 when the status was changed, 0 otherwise
+     */
+    public int updateSeatStatus(Long ticketId, SeatStatus from, SeatStatus to) {
+        List<Object> saved = transaction.get();
+        if (saved != null) {
+            if (stagedStatus(saved, ticketId) != from) return 0;
+            saved.add(new StatusChange(ticketId, from, to));
+            return 1;
+        }
+        List<Object> committed;
+        long position;
+        synchronized (commitLock) {
+            BookedSeat stored = bookings.get(ticketId);
+            if (stored == null || stored.getSeatStatus() != from) return 0;
+            BookedSeat changed = copy(stored);
+            changed.setSeatStatus(to);
+            committed = List.of(changed);
+            position = write(committed);
+        }
+        journal.awaitDurable(position);
+        return 1;
+    }
+
+    /**
+     * @return copies of every stored show and booking
+     */
+    public List<Object> contents() {
+        List<Object> contents = new ArrayList<>(findShows());
+        contents.addAll(findBookingsWhere(booking -> true));
+        return contents;
+    }
+
+    /**
+     * Writes the stored state to a snapshot and drops the journal it replaces, so a restart replays only what
+     * was written after it.
+     */
+    @Scheduled(initialDelayString = "${bookshow.journal.snapshot-ms:300000}", fixedDelayString = "${bookshow.journal.snapshot-ms:300000}")
+    public void snapshot() {
+        long generation;
+        List<Show> showsAtRoll;
+        List<BookedSeat> bookingsAtRoll;
+        long showId;
+        long ticketId;
+        synchronized (commitLock) {
+            generation = journal.roll();
+            showsAtRoll = new ArrayList<>(shows.values());
+            bookingsAtRoll = new ArrayList<>(bookings.values());
+            showId = showIds.get();
+            ticketId = ticketIds.get();
+        }
+        try {
+            var bytes = new ByteArrayOutputStream();
+            var out = new DataOutputStream(bytes);
+            out.writeLong(generation);
+            out.writeLong(showId);
+            out.writeLong(ticketId);
+            out.writeInt(showsAtRoll.size());
+            for (Show show : showsAtRoll) {
+                JournalCodec.writeShow(out, show, null);
+            }
+            out.writeInt(bookingsAtRoll.size());
+            for (BookedSeat booking : bookingsAtRoll) {
+                JournalCodec.writeBooking(out, booking);
+            }
+            out.writeInt(crc(bytes.toByteArray(), bytes.size()));
+            Path temp = directory.resolve("snapshot.tmp");
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.TRUNCATE_EXISTING)) {
+                channel.write(ByteBuffer.wrap(bytes.toByteArray()));
+                channel.force(true);
+            }
+            Files.move(temp, snapshotFile(generation), StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        for (long old : snapshots()) {
+            if (old < generation) deleteQuietly(snapshotFile(old));
+        }
+        BookingJournal.deleteBefore(directory, generation);
+        log.info("Snapshot of {} shows and {} bookings written at journal generation {}",
+                showsAtRoll.size(), bookingsAtRoll.size(), generation);
+    }
+
+    @Override
+    public void close() {
+        journal.close();
+    }
+
+    private void save(Object entity) {
+        List<Object> saved = transaction.get();
+        if (saved != null) {
+            for (Object staged : saved) {
+                if (staged == entity) return;
+            }
+            saved.add(entity);
+        } else {
+            commit(List.of(entity));
+        }
+    }
+
+    private void commit(List<Object> saved) {
+        List<Object> committed = new ArrayList<>(saved.size());
+        long position;
+        synchronized (commitLock) {
+            Map<Long, SeatStatus> statuses = new HashMap<>();
+            for (Object entity : saved) {
+                if (entity instanceof Show) {
+                    Show show = (Show) entity;
+                    Show stored = shows.get(show.getId());
+                    if (!Objects.equals(stored == null ? null : stored.getVersion(), show.getVersion())) {
+                        throw new ObjectOptimisticLockingFailureException(Show.class, show.getId());
+                    }
+                } else if (entity instanceof StatusChange) {
+                    StatusChange change = (StatusChange) entity;
+                    BookedSeat stored = bookings.get(change.ticketId);
+                    SeatStatus current = statuses.getOrDefault(change.ticketId, stored == null ? null : stored.getSeatStatus());
+                    if (current != change.from) {
+                        throw new ObjectOptimisticLockingFailureException(BookedSeat.class, change.ticketId);
+                    }
+                    statuses.put(change.ticketId, change.to);
+                } else {
+                    BookedSeat booking = (BookedSeat) entity;
+                    statuses.put(booking.getTicketId(), booking.getSeatStatus());
+                }
+            }
+            Map<Long, BookedSeat> changedBookings = new HashMap<>();
+            for (Object entity : saved) {
+                if (entity instanceof Show) {
+                    Show show = (Show) entity;
+                    show.setVersion(show.getVersion() == null ? 0 : show.getVersion() + 1);
+                    Show stored = copy(show);
+                    stored.countSeats();
+                    committed.add(stored);
+                } else {
+                    BookedSeat booking;
+                    if (entity instanceof StatusChange) {
+                        StatusChange change = (StatusChange) entity;
+                        booking = copy(changedBookings.getOrDefault(change.ticketId, bookings.get(change.ticketId)));
+                        booking.setSeatStatus(change.to);
+                    } else {
+                        booking = copy((BookedSeat) entity);
+                    }
+                    changedBookings.put(booking.getTicketId(), booking);
+                    committed.add(booking);
+                }
+            }
+            position = write(committed);
+        }
+        journal.awaitDurable(position);
+    }
+
+    /**
+     * @return status of the booking as the transaction left it so far, null when there is no such booking
+     */
+    private SeatStatus stagedStatus(List<Object> saved, Long ticketId) {
+        for (int i = saved.size() - 1; i >= 0; i--) {
+            Object staged = saved.get(i);
+            if (staged instanceof StatusChange && ((StatusChange) staged).ticketId.equals(ticketId)) {
+                return ((StatusChange) staged).to;
+            }
+            if (staged instanceof BookedSeat && ticketId.equals(((BookedSeat) staged).getTicketId())) {
+                return ((BookedSeat) staged).getSeatStatus();
+            }
+        }
+        BookedSeat stored = bookings.get(ticketId);
+        return stored == null ? null : stored.getSeatStatus();
+    }
+
+    /**
+     * Appends the entities to the journal, stores them and hands them to the listeners, called holding the commit
+     * lock so listeners see commits in journal order.
+     */
+    private long write(List<Object> committed) {
+        var bytes = new ByteArrayOutputStream();
+        var out = new DataOutputStream(bytes);
+        Map<Long, byte[]> written = new HashMap<>();
+        try {
+            out.writeInt(committed.size());
+            for (Object entity : committed) {
+                if (entity instanceof Show) {
+                    Show show = (Show) entity;
+                    Show stored = shows.get(show.getId());
+                    byte[] previous = written.getOrDefault(show.getId(), stored == null ? null : stored.getSeatStates());
+                    JournalCodec.writeShow(out, show, previous);
+                    written.put(show.getId(), show.getSeatStates());
+                } else {
+                    JournalCodec.writeBooking(out, (BookedSeat) entity);
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        long position = journal.append(bytes.toByteArray());
+        committed.forEach(this::store);
+        for (CommitListener listener : listeners) {
+            listener.committed(position, committed);
+        }
+        return position;
+    }
+
+    private void store(Object entity) {
+        if (entity instanceof Show) {
+            Show show = (Show) entity;
+            shows.put(show.getId(), show);
+            showIds.accumulateAndGet(show.getId(), Math::max);
+        } else {
+            BookedSeat booking = (BookedSeat) entity;
+            BookedSeat previous = bookings.put(booking.getTicketId(), booking);
+            if (previous != null && previous.getPhoneNumber() != null
+                    && !previous.getPhoneNumber().equals(booking.getPhoneNumber())) {
+                ticketsByPhone.getOrDefault(previous.getPhoneNumber(), Collections.emptyNavigableSet())
+                        .remove(previous.getTicketId());
+            }
+            if (booking.getPhoneNumber() != null) {
+                ticketsByPhone.computeIfAbsent(booking.getPhoneNumber(), phoneNumber -> new ConcurrentSkipListSet<>())
+                        .add(booking.getTicketId());
+            }
+            ticketIds.accumulateAndGet(booking.getTicketId(), Math::max);
+        }
+    }
+
+    private void replay(byte[] record) {
+        try {
+            var in = new DataInputStream(new ByteArrayInputStream(record));
+            for (int count = in.readInt(); count > 0; count--) {
+                store(read(in));
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private Object read(DataInputStream in) throws IOException {
+        byte type = in.readByte();
+        switch (type) {
+            case JournalCodec.SHOW:
+                return JournalCodec.readShow(in, shows::get);
+            case JournalCodec.BOOKING:
+                return JournalCodec.readBooking(in);
+            default:
+                throw new IOException("Unknown journal entry " + type);
+        }
+    }
+
+    /**
+     * @return journal generation the latest intact snapshot covers up to, 0 without one
+     */
+    private long loadSnapshot() {
+        List<Long> generations = snapshots();
+        for (int i = generations.size() - 1; i >= 0; i--) {
+            try {
+                byte[] bytes = Files.readAllBytes(snapshotFile(generations.get(i)));
+                var in = new DataInputStream(new ByteArrayInputStream(bytes));
+                if (bytes.length < Integer.BYTES || crc(bytes, bytes.length - Integer.BYTES)
+                        != ByteBuffer.wrap(bytes, bytes.length - Integer.BYTES, Integer.BYTES).getInt()) {
+                    log.warn("Skipping damaged snapshot {}", generations.get(i));
+                    continue;
+                }
+                long generation = in.readLong();
+                reserveIds(in.readLong(), in.readLong());
+                for (int count = in.readInt(); count > 0; count--) {
+                    store(read(in));
+                }
+                for (int count = in.readInt(); count > 0; count--) {
+                    store(read(in));
+                }
+                return generation;
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        return 0;
+    }
+
+    private List<BookedSeat> findBookingsWhere(Predicate<BookedSeat> filter) {
+        return bookings.values().stream()
+                .filter(filter)
+                .sorted(Comparator.comparing(BookedSeat::getTicketId))
+                .map(JournalStore::copy)
+                .collect(Collectors.toList());
+    }
+
+    private List<Long> snapshots() {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.map(path -> SNAPSHOT_FILE.matcher(path.getFileName().toString()))
+                    .filter(Matcher::matches)
+                    .map(matcher -> Long.parseLong(matcher.group(1)))
+                    .sorted()
+                    .collect(Collectors.toList());
+        } catch (IOException e) {
+            return new ArrayList<>();
+        }
+    }
+
+    private Path snapshotFile(long generation) {
+        return directory.resolve(String.format("snapshot-%016d.bin", generation));
+    }
+
+    private static void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            log.warn("Could not delete {}", file, e);
+        }
+    }
+
+    private static int crc(byte[] bytes, int length) {
+        var crc = new CRC32C();
+        crc.update(bytes, 0, length);
+        return (int) crc.getValue();
+    }
+
+    static Show copy(Show show) {
+        return Show.builder()
+                .id(show.getId())
+                .version(show.getVersion())
+                .showTime(show.getShowTime())
+                .movieId(show.getMovieId())
+                .numberOfRows(show.getNumberOfRows())
+                .numberOfSeatsPerRows(show.getNumberOfSeatsPerRows())
+                .cancellationWindow(show.getCancellationWindow())
+                .seatStates(show.getSeatStates().clone())
+                .availableSeatCount(show.getAvailableSeatCount())
+                .blockedSeatCount(show.getBlockedSeatCount())
+                .bookedSeatCount(show.getBookedSeatCount())
+                .build();
+    }
+
+    static BookedSeat copy(BookedSeat booking) {
+        return BookedSeat.builder()
+                .ticketId(booking.getTicketId())
+                .phoneNumber(booking.getPhoneNumber())
+                .showNumber(booking.getShowNumber())
+                .bookedSeat(booking.getBookedSeat() == null ? null : new ArrayList<>(booking.getBookedSeat()))
+                .seatStatus(booking.getSeatStatus())
+                .bookingTime(booking.getBookingTime())
+                .holdExpiresAt(booking.getHoldExpiresAt())
+                .build();
+    }
+
+    /**
+     * Receives every commit of the store.
+     */
+    public interface CommitListener {
+        /**
+         * Called holding the commit lock, in journal order, before the commit is durable. It must not block, and
+         * should {@link #awaitDurable(long) wait for} {@code position} before acting on what it was handed.
+         *
+         * @param committed copies of the committed entities
+         */
+        void committed(long position, List<Object> committed);
+    }
+
+    /**
+     * Conditional status change of a booking staged in a transaction, checked again when it commits.
+     */
+    private static final class StatusChange {
+        final Long ticketId;
+        final SeatStatus from;
+        final SeatStatus to;
+
+        StatusChange(Long ticketId, SeatStatus from, SeatStatus to) {
+            this.ticketId = ticketId;
+            this.from = from;
+            this.to = to;
+        }
+    }
+}
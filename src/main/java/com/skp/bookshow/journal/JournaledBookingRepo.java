@@ -0,0 +1,117 @@
+package com.skp.bookshow.journal;
+
+import com.skp.bookshow.model.BookedSeat;
+import com.skp.bookshow.model.enums.SeatStatus;
+import com.skp.bookshow.model.projection.BookingSummary;
+import com.skp.bookshow.model.projection.SeatHold;
+import com.skp.bookshow.repository.BookingRepo;
+import org.springframework.data.domain.Pageable;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+/**
+ * Bookings of the booking path served from a {@link JournalStore}. The paged booking listing reads the JPA
+ * projection, it may lag behind the store by the commits not written to the tables yet.
+ */
+class JournaledBookingRepo extends UnsupportedJpaRepository<BookedSeat, Long> implements BookingRepo {
+    private final JournalStore store;
+    private final BookingRepo projection;
+
+    JournaledBookingRepo(JournalStore store, BookingRepo projection) {
+        this.store = store;
+        this.projection = projection;
+    }
+
+    @Override
+    public Optional<BookedSeat> findById(Long ticketId) {
+        return store.findBooking(ticketId);
+    }
+
+    @Override
+    public Optional<BookedSeat> findByTicketId(Long ticketId) {
+        return store.findBooking(ticketId);
+    }
+
+    @Override
+    public boolean existsByPhoneNumber(Long phoneNumber) {
+        return store.findBookingByPhoneNumber(phoneNumber).isPresent();
+    }
+
+    @Override
+    public Optional<BookedSeat> findLatestByPhoneNumber(Long phoneNumber) {
+        return store.findBookingByPhoneNumber(phoneNumber);
+    }
+
+    @Override
+    public List<BookedSeat> findByShowNumber(Long showNumber) {
+        return store.findBookingsByShow(showNumber);
+    }
+
+    @Override
+    public List<BookingSummary> findByShowNumberAndTicketIdGreaterThanOrderByTicketIdAsc(Long showNumber, Long ticketId, Pageable pageable) {
+        return projection.findByShowNumberAndTicketIdGreaterThanOrderByTicketIdAsc(showNumber, ticketId, pageable);
+    }
+
+    @Override
+    public List<Long> findExistingPhoneNumbers(Collection<Long> phoneNumbers) {
+        return store.findExistingPhoneNumbers(phoneNumbers);
+    }
+
+    @Override
+    public List<SeatHold> findBySeatStatus(SeatStatus seatStatus) {
+        return store.findBookingsByStatus(seatStatus).stream()
+                .map(JournaledBookingRepo::seatHold)
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public List<BookedSeat> findByTicketIdIn(Collection<Long> ticketIds) {
+        return store.findBookings(ticketIds);
+    }
+
+    @Override
+    public int updateSeatStatus(Long ticketId, SeatStatus from, SeatStatus to) {
+        return store.updateSeatStatus(ticketId, from, to);
+    }
+
+    @Override
+    public <S extends BookedSeat> S save(S booking) {
+        store.saveBooking(booking);
+        return booking;
+    }
+
+    @Override
+    public <S extends BookedSeat> List<S> saveAll(Iterable<S> bookings) {
+        return store.inTransaction(() -> {
+            List<S> saved = new ArrayList<>();
+            for (S booking : bookings) {
+                saved.add(save(booking));
+            }
+            return saved;
+        });
+    }
+
+    @Override
+    public long findMaxId() {
+        throw unsupported("findMaxId");
+    }
+
+    private static SeatHold seatHold(BookedSeat booking) {
+        return new SeatHold() {
+            @Override
+            public Long getTicketId() {
+                return booking.getTicketId();
+            }
+
+            @Override
+            public Date getHoldExpiresAt() {
+                return booking.getHoldExpiresAt();
+            }
+        };
+    }
+}
@@ -0,0 +1,62 @@
+package com.skp.bookshow.journal;
+
+import com.skp.bookshow.model.Show;
+import com.skp.bookshow.model.projection.ShowSummary;
+import com.skp.bookshow.model.response.ScheduledShow;
+import com.skp.bookshow.repository.ShowRepo;
+import org.springframework.data.domain.Pageable;
+
+import java.util.Date;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+/**
+ * Shows of the booking path served from a {@link JournalStore}. The show listings and inventory metrics read the
+ * JPA projection, they may lag behind the store by the commits not written to the tables yet.
+ */
+class JournaledShowRepo extends UnsupportedJpaRepository<Show, Long> implements ShowRepo {
+    private final JournalStore store;
+    private final ShowRepo projection;
+
+    JournaledShowRepo(JournalStore store, ShowRepo projection) {
+        this.store = store;
+        this.projection = projection;
+    }
+
+    @Override
+    public Optional<Show> findById(Long id) {
+        return store.findShow(id);
+    }
+
+    @Override
+    public List<Show> findAll() {
+        return store.findShows();
+    }
+
+    @Override
+    public List<ScheduledShow> findScheduledShows() {
+        return store.findShows().stream().map(ScheduledShow::of).collect(Collectors.toList());
+    }
+
+    @Override
+    public <S extends Show> S save(S show) {
+        store.saveShow(show);
+        return show;
+    }
+
+    @Override
+    public List<ShowSummary> findByIdGreaterThanOrderByIdAsc(Long id, Pageable pageable) {
+        return projection.findByIdGreaterThanOrderByIdAsc(id, pageable);
+    }
+
+    @Override
+    public List<ShowSummary> findByShowTimeAfter(Date showTime) {
+        return projection.findByShowTimeAfter(showTime);
+    }
+
+    @Override
+    public long findMaxId() {
+        throw unsupported("findMaxId");
+    }
+}
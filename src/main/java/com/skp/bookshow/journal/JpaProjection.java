@@ -0,0 +1,173 @@
+package com.skp.bookshow.journal;
+
+import com.skp.bookshow.model.BookedSeat;
+import com.skp.bookshow.model.Show;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.ReplicationMode;
+import org.hibernate.Session;
+import org.springframework.transaction.support.TransactionOperations;
+
+import javax.persistence.EntityManager;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongConsumer;
+
+/**
+ * Copies what the {@link JournalStore} commits into the JPA tables on a thread of its own, so listings and
+ * reports that query the database keep working while bookings never wait on it. Whatever is waiting when the
+ * thread gets to it is written in one transaction, and a show changed several times in between is written once.
+ * <p>
+ * Entities keep the ids the store gave them. A show already in the table only gets its changed seats written.
+ * The entities handed over are the stored ones, they are copied before Hibernate gets to see them. Commits are
+ * enqueued in journal order and only written once the journal holds them on disk, so the tables never run ahead of
+ * what a restart recovers, and a later commit of a show or booking always replaces an earlier one.
+ * <p>
+ * Commits that could not be written are kept and written again with those queued after them, backing off while
+ * the database keeps failing. The commits not yet written and the failed attempts are exposed as metrics.
+ */
+@Slf4j
+final class JpaProjection implements AutoCloseable {
+    static final String LAG = "bookshow.journal.projection.lag";
+    static final String FAILURES = "bookshow.journal.projection.failures";
+    private static final long MIN_BACKOFF_MS = 100;
+    private static final long MAX_BACKOFF_MS = TimeUnit.SECONDS.toMillis(30);
+
+    private final EntityManager entityManager;
+    private final TransactionOperations transactionOperations;
+    private final LongConsumer awaitDurable;
+    private final BlockingQueue<Commit> pending = new LinkedBlockingQueue<>();
+    /** Commits enqueued and not written yet, queued or held for a retry. */
+    private final AtomicLong lag = new AtomicLong();
+    private final Counter failures;
+    private final Thread worker;
+    private volatile boolean closed;
+
+    /**
+     * @param awaitDurable waits until the journal holds a position on disk
+     */
+    JpaProjection(EntityManager entityManager, TransactionOperations transactionOperations, LongConsumer awaitDurable,
+                  MeterRegistry meterRegistry) {
+        this.entityManager = entityManager;
+        this.transactionOperations = transactionOperations;
+        this.awaitDurable = awaitDurable;
+        this.failures = meterRegistry.counter(FAILURES);
+        meterRegistry.gauge(LAG, lag);
+        this.worker = new Thread(this::run, "booking-journal-projection");
+        this.worker.setDaemon(true);
+        this.worker.start();
+    }
+
+    /**
+     * @param position journal position the commit ends at, 0 for entities already durable
+     */
+    void enqueue(long position, List<Object> committed) {
+        lag.incrementAndGet();
+        pending.add(new Commit(position, committed));
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        try {
+            worker.join(TimeUnit.SECONDS.toMillis(10));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void run() {
+        List<Commit> batches = new ArrayList<>();
+        long backoffMs = 0;
+        while (!closed || !pending.isEmpty() || !batches.isEmpty()) {
+            try {
+                if (batches.isEmpty()) {
+                    Commit first = pending.poll(100, TimeUnit.MILLISECONDS);
+                    if (first == null) continue;
+                    batches.add(first);
+                } else if (!closed) {
+                    Thread.sleep(backoffMs);
+                }
+                pending.drainTo(batches);
+                var latest = new LinkedHashMap<Object, Object>();
+                long position = 0;
+                for (Commit batch : batches) {
+                    for (Object entity : batch.entities) {
+                        latest.put(key(entity), entity);
+                    }
+                    position = Math.max(position, batch.position);
+                }
+                if (position > 0) awaitDurable.accept(position);
+                transactionOperations.executeWithoutResult(status -> latest.values().forEach(this::write));
+                lag.addAndGet(-batches.size());
+                batches.clear();
+                backoffMs = 0;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                failures.increment();
+                if (closed) {
+                    log.error("Could not project {} journal commits to the database, dropping them on close", batches.size(), e);
+                    lag.addAndGet(-batches.size());
+                    batches.clear();
+                    continue;
+                }
+                backoffMs = Math.min(Math.max(backoffMs * 2, MIN_BACKOFF_MS), MAX_BACKOFF_MS);
+                log.error("Could not project {} journal commits to the database, retrying in {} ms", batches.size(), backoffMs, e);
+            }
+        }
+    }
+
+    private void write(Object entity) {
+        if (entity instanceof Show) {
+            Show show = JournalStore.copy((Show) entity);
+            Show row = entityManager.find(Show.class, show.getId());
+            if (row == null) {
+                show.setVersion(0L);
+                show.snapshotSeats();
+                session().replicate(show, ReplicationMode.OVERWRITE);
+                return;
+            }
+            row.setShowTime(show.getShowTime());
+            row.setMovieId(show.getMovieId());
+            row.setCancellationWindow(show.getCancellationWindow());
+            System.arraycopy(show.getSeatStates(), 0, row.getSeatStates(), 0, show.getSeatStates().length);
+            row.recordSeatChanges();
+        } else {
+            BookedSeat booking = JournalStore.copy((BookedSeat) entity);
+            BookedSeat row = entityManager.find(BookedSeat.class, booking.getTicketId());
+            if (row == null) {
+                session().replicate(booking, ReplicationMode.OVERWRITE);
+                return;
+            }
+            row.setSeatStatus(booking.getSeatStatus());
+            row.setHoldExpiresAt(booking.getHoldExpiresAt());
+        }
+    }
+
+    private Session session() {
+        return entityManager.unwrap(Session.class);
+    }
+
+    private static Object key(Object entity) {
+        return entity instanceof Show ? List.of(Show.class, ((Show) entity).getId())
+                : List.of(BookedSeat.class, ((BookedSeat) entity).getTicketId());
+    }
+
+    private static final class Commit {
+        final long position;
+        final List<Object> entities;
+
+        Commit(long position, List<Object> entities) {
+            this.position = position;
+            this.entities = entities;
+        }
+    }
+}
@@ -0,0 +1,173 @@
+package com.skp.bookshow.journal;
+
+import org.springframework.data.domain.Example;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.repository.query.FluentQuery;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Function;
+
+/**
+ * {@link JpaRepository} whose every method throws, the base of the journaled repositories. They override what the
+ * store serves, so a call nobody thought of fails instead of quietly reading the projection behind the store.
+ */
+abstract class UnsupportedJpaRepository<T, ID> implements JpaRepository<T, ID> {
+
+    @Override
+    public List<T> findAll() {
+        throw unsupported("findAll");
+    }
+
+    @Override
+    public List<T> findAll(Sort sort) {
+        throw unsupported("findAll");
+    }
+
+    @Override
+    public Page<T> findAll(Pageable pageable) {
+        throw unsupported("findAll");
+    }
+
+    @Override
+    public List<T> findAllById(Iterable<ID> ids) {
+        throw unsupported("findAllById");
+    }
+
+    @Override
+    public long count() {
+        throw unsupported("count");
+    }
+
+    @Override
+    public void deleteById(ID id) {
+        throw unsupported("deleteById");
+    }
+
+    @Override
+    public void delete(T entity) {
+        throw unsupported("delete");
+    }
+
+    @Override
+    public void deleteAllById(Iterable<? extends ID> ids) {
+        throw unsupported("deleteAllById");
+    }
+
+    @Override
+    public void deleteAll(Iterable<? extends T> entities) {
+        throw unsupported("deleteAll");
+    }
+
+    @Override
+    public void deleteAll() {
+        throw unsupported("deleteAll");
+    }
+
+    @Override
+    public <S extends T> S save(S entity) {
+        throw unsupported("save");
+    }
+
+    @Override
+    public <S extends T> List<S> saveAll(Iterable<S> entities) {
+        throw unsupported("saveAll");
+    }
+
+    @Override
+    public Optional<T> findById(ID id) {
+        throw unsupported("findById");
+    }
+
+    @Override
+    public boolean existsById(ID id) {
+        throw unsupported("existsById");
+    }
+
+    @Override
+    public void flush() {
+        throw unsupported("flush");
+    }
+
+    @Override
+    public <S extends T> S saveAndFlush(S entity) {
+        throw unsupported("saveAndFlush");
+    }
+
+    @Override
+    public <S extends T> List<S> saveAllAndFlush(Iterable<S> entities) {
+        throw unsupported("saveAllAndFlush");
+    }
+
+    @Override
+    public void deleteAllInBatch(Iterable<T> entities) {
+        throw unsupported("deleteAllInBatch");
+    }
+
+    @Override
+    public void deleteAllByIdInBatch(Iterable<ID> ids) {
+        throw unsupported("deleteAllByIdInBatch");
+    }
+
+    @Override
+    public void deleteAllInBatch() {
+        throw unsupported("deleteAllInBatch");
+    }
+
+    @Override
+    public T getOne(ID id) {
+        throw unsupported("getOne");
+    }
+
+    @Override
+    public T getById(ID id) {
+        throw unsupported("getById");
+    }
+
+    @Override
+    public T getReferenceById(ID id) {
+        throw unsupported("getReferenceById");
+    }
+
+    @Override
+    public <S extends T> Optional<S> findOne(Example<S> example) {
+        throw unsupported("findOne");
+    }
+
+    @Override
+    public <S extends T> List<S> findAll(Example<S> example) {
+        throw unsupported("findAll");
+    }
+
+    @Override
+    public <S extends T> List<S> findAll(Example<S> example, Sort sort) {
+        throw unsupported("findAll");
+    }
+
+    @Override
+    public <S extends T> Page<S> findAll(Example<S> example, Pageable pageable) {
+        throw unsupported("findAll");
+    }
+
+    @Override
+    public <S extends T> long count(Example<S> example) {
+        throw unsupported("count");
+    }
+
+    @Override
+    public <S extends T> boolean exists(Example<S> example) {
+        throw unsupported("exists");
+    }
+
+    @Override
+    public <S extends T, R> R findBy(Example<S> example, Function<FluentQuery.FetchableFluentQuery<S>, R> queryFunction) {
+        throw unsupported("findBy");
+    }
+
+    protected UnsupportedOperationException unsupported(String method) {
+        return new UnsupportedOperationException(getClass().getSimpleName() + "." + method + " is not served by journal storage");
+    }
+}
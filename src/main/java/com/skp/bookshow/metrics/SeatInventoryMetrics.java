@@ -0,0 +1,48 @@
+package com.skp.bookshow.metrics;
+
+import com.skp.bookshow.model.projection.ShowSummary;
+import com.skp.bookshow.repository.ShowRepo;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.MultiGauge;
+import io.micrometer.core.instrument.Tags;
+import org.springframework.context.event.ContextRefreshedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Publishes {@code bookshow.show.seats} gauges with the number of available, blocked and booked seats of every
+ * upcoming show. The counts are read from the database, so they include changes made by every instance, and
+ * shows drop out once they have started.
+ */
+@Component
+public class SeatInventoryMetrics {
+    static final String METRIC = "bookshow.show.seats";
+
+    private final ShowRepo showRepo;
+    private final MultiGauge seats;
+
+    public SeatInventoryMetrics(ShowRepo showRepo, MeterRegistry meterRegistry) {
+        this.showRepo = showRepo;
+        this.seats = MultiGauge.builder(METRIC)
+                .description("Seats of upcoming shows by state")
+                .register(meterRegistry);
+    }
+
+    @EventListener(ContextRefreshedEvent.class)
+    @Scheduled(fixedDelayString = "${bookshow.metrics.seat-gauge-refresh-ms:15000}")
+    public void refresh() {
+        List<MultiGauge.Row<?>> rows = new ArrayList<>();
+        for (ShowSummary show : showRepo.findByShowTimeAfter(new Date())) {
+            String showId = String.valueOf(show.getId());
+            rows.add(MultiGauge.Row.of(Tags.of("show", showId, "state", "available"), show.getAvailableSeatCount()));
+            rows.add(MultiGauge.Row.of(Tags.of("show", showId, "state", "blocked"), show.getBlockedSeatCount()));
+            rows.add(MultiGauge.Row.of(Tags.of("show", showId, "state", "booked"), show.getBookedSeatCount()));
+        }
+        seats.register(rows, true);
+    }
+}
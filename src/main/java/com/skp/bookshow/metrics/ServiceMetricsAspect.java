@@ -0,0 +1,55 @@
+package com.skp.bookshow.metrics;
+
+import com.skp.bookshow.exception.BookingAlreadyExist;
+import com.skp.bookshow.exception.BookingNotFound;
+import com.skp.bookshow.exception.BookingUnSuccessful;
+import com.skp.bookshow.exception.ShowNotFound;
+import com.skp.bookshow.service.SeatBookingService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.stereotype.Component;
+
+/**
+ * Times every call to the booking and show services as {@code bookshow.service}, tagged with the service, the
+ * method and the outcome of the call.
+ */
+@Aspect
+@Component
+public class ServiceMetricsAspect {
+    static final String METRIC = "bookshow.service";
+
+    private final MeterRegistry meterRegistry;
+
+    public ServiceMetricsAspect(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Around("execution(public * com.skp.bookshow.service.SeatBookingService+.*(..))"
+            + " || execution(public * com.skp.bookshow.service.ShowService+.*(..))")
+    public Object time(ProceedingJoinPoint call) throws Throwable {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = "success";
+        try {
+            return call.proceed();
+        } catch (Throwable e) {
+            outcome = outcomeOf(e);
+            throw e;
+        } finally {
+            sample.stop(Timer.builder(METRIC)
+                    .tag("service", call.getTarget() instanceof SeatBookingService ? "SeatBookingService" : "ShowService")
+                    .tag("method", call.getSignature().getName())
+                    .tag("outcome", outcome)
+                    .register(meterRegistry));
+        }
+    }
+
+    static String outcomeOf(Throwable e) {
+        if (e instanceof BookingAlreadyExist) return "already_exist";
+        if (e instanceof BookingUnSuccessful) return "unsuccessful";
+        if (e instanceof BookingNotFound || e instanceof ShowNotFound) return "not_found";
+        return "error";
+    }
+}
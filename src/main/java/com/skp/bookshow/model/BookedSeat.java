@@ -14,17 +14,27 @@ import java.util.List;
 @Builder
 @ToString
 @Entity
-@Table(name = "BookedSeat")
+@Table(name = "BookedSeat", indexes = {
+        @Index(name = "idx_booked_seat_status", columnList = "seatStatus"),
+        @Index(name = "idx_booked_seat_show_ticket", columnList = "showNumber, ticketId"),
+        @Index(name = "idx_booked_seat_show_status", columnList = "showNumber, seatStatus"),
+        @Index(name = "idx_booked_seat_phone_ticket", columnList = "phoneNumber, ticketId")
+})
 public class BookedSeat {
-    @GeneratedValue(strategy = GenerationType.SEQUENCE)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "ticket_id")
+    @SequenceGenerator(name = "ticket_id", sequenceName = "ticket_id_seq", allocationSize = 100)
     @Id
     Long ticketId;
     Long phoneNumber;
     @Column
     @ElementCollection(targetClass=String.class)
+    @CollectionTable(name = "BookedSeat_bookedSeat", joinColumns = @JoinColumn(name = "BookedSeat_ticketId"),
+            indexes = @Index(name = "idx_booked_seat_seats_ticket", columnList = "BookedSeat_ticketId"))
     List<String> bookedSeat;
     @Enumerated(EnumType.STRING)
     SeatStatus seatStatus;
     Long showNumber;
+    @Builder.Default
     Date bookingTime = Date.from(Instant.now());
+    Date holdExpiresAt;
 }
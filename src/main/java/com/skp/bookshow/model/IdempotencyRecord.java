@@ -0,0 +1,32 @@
+package com.skp.bookshow.model;
+
+import lombok.*;
+
+import javax.persistence.*;
+import java.util.Date;
+
+/**
+ * Response stored for an {@code Idempotency-Key}, kept when idempotent responses are persisted.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@ToString
+@Builder
+@Table(name = "IdempotencyRecord", indexes = @Index(name = "idx_idempotency_created_at", columnList = "createdAt"))
+@Entity
+public class IdempotencyRecord {
+    /** {@link #status} of a record whose request is still running. */
+    public static final int IN_FLIGHT = 0;
+
+    @Id
+    private String idempotencyKey;
+    /** SHA-256 of the request, base64 encoded. */
+    private String fingerprint;
+    private int status;
+    private String contentType;
+    @Lob
+    @ToString.Exclude
+    private byte[] body;
+    private Date createdAt;
+}
@@ -15,7 +15,8 @@ import java.util.List;
 @Entity
 public class Movie implements Serializable {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "movie_id")
+    @SequenceGenerator(name = "movie_id", sequenceName = "movie_id_seq", allocationSize = 100)
     private Long id;
     private String title;
     private String descriptions;
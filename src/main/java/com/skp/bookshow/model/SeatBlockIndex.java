@@ -0,0 +1,153 @@
+package com.skp.bookshow.model;
+
+import com.skp.bookshow.model.enums.SeatState;
+
+import java.util.Arrays;
+
+/**
+ * Segment tree per row over the free seats of a {@link SeatMap}. Every node keeps the free run at its start, the
+ * free run at its end and the longest free run inside it, so the best block of adjacent free seats is found in
+ * O(rows + log seatsPerRow) and each seat change is applied in O(log seatsPerRow).
+ * <p>
+ * Not thread safe, callers synchronize.
+ */
+public final class SeatBlockIndex {
+    private static final byte AVAILABLE = SeatState.AVAILABLE.code();
+
+    private final int numberOfRows;
+    private final int numberOfSeatsPerRows;
+    private final int size;
+    private final byte[] states;
+    private final int[][] prefix;
+    private final int[][] suffix;
+    private final int[][] longest;
+
+    public SeatBlockIndex(SeatMap seatMap) {
+        this.numberOfRows = seatMap.getNumberOfRows();
+        this.numberOfSeatsPerRows = seatMap.getNumberOfSeatsPerRows();
+        this.size = Integer.highestOneBit(Math.max(1, numberOfSeatsPerRows * 2 - 1));
+        this.states = seatMap.states().clone();
+        this.prefix = new int[numberOfRows][2 * size];
+        this.suffix = new int[numberOfRows][2 * size];
+        this.longest = new int[numberOfRows][2 * size];
+        for (int row = 0; row < numberOfRows; row++) {
+            for (int seat = 0; seat < numberOfSeatsPerRows; seat++) {
+                int free = states[row * numberOfSeatsPerRows + seat] == AVAILABLE ? 1 : 0;
+                prefix[row][size + seat] = suffix[row][size + seat] = longest[row][size + seat] = free;
+            }
+            for (int node = size - 1; node > 0; node--) {
+                combine(row, node);
+            }
+        }
+    }
+
+    /**
+     * Applies the state of {@code seats} in {@code current}, in O(log seatsPerRow) per seat.
+     */
+    public void apply(int[] seats, byte[] current) {
+        for (int i : seats) {
+            if (states[i] == current[i]) continue;
+            states[i] = current[i];
+            update(i / numberOfSeatsPerRows, i % numberOfSeatsPerRows, current[i] == AVAILABLE);
+        }
+    }
+
+    /**
+     * Catches up with {@code current} by comparing every seat, for an index that missed changes. Only the seats
+     * that differ are re-indexed.
+     */
+    public void sync(byte[] current) {
+        for (int i = 0; i < states.length; i++) {
+            int mismatch = Arrays.mismatch(states, i, states.length, current, i, current.length);
+            if (mismatch < 0) break;
+            i += mismatch;
+            states[i] = current[i];
+            update(i / numberOfSeatsPerRows, i % numberOfSeatsPerRows, current[i] == AVAILABLE);
+        }
+    }
+
+    /**
+     * Best block of {@code count} adjacent free seats: in the row closest to the middle of the house that has
+     * room, preferring the row behind over the row in front, the block closest to the middle of that row.
+     *
+     * @return seat indexes of the block from left to right, or null when no row has {@code count} adjacent free seats
+     */
+    public int[] best(int count) {
+        if (count < 1 || count > numberOfSeatsPerRows) return null;
+        int middle = (numberOfRows - 1) / 2;
+        for (int step = 0; step < 2 * numberOfRows; step++) {
+            int row = middle + (step % 2 == 1 ? (step + 1) / 2 : -step / 2);
+            if (row < 0 || row >= numberOfRows || longest[row][1] < count) continue;
+            int centred = (numberOfSeatsPerRows - count) / 2;
+            int right = firstFrom(row, 1, 0, size, count, centred, new int[1]);
+            int left = lastUpTo(row, 1, 0, size, count, centred + count, new int[1]);
+            int start = right < 0 || (left >= 0 && centred - left <= right - centred) ? left : right;
+            int[] seats = new int[count];
+            for (int i = 0; i < count; i++) {
+                seats[i] = row * numberOfSeatsPerRows + start + i;
+            }
+            return seats;
+        }
+        return null;
+    }
+
+    /**
+     * @return length of the longest run of free seats in {@code row}
+     */
+    public int longestRun(int row) {
+        return longest[row][1];
+    }
+
+    private void update(int row, int seat, boolean free) {
+        int node = size + seat;
+        prefix[row][node] = suffix[row][node] = longest[row][node] = free ? 1 : 0;
+        for (node >>= 1; node > 0; node >>= 1) {
+            combine(row, node);
+        }
+    }
+
+    private void combine(int row, int node) {
+        int[] pre = prefix[row], suf = suffix[row], max = longest[row];
+        int left = 2 * node, right = left + 1;
+        int half = size / Integer.highestOneBit(node) / 2;
+        pre[node] = pre[left] == half ? half + pre[right] : pre[left];
+        suf[node] = suf[right] == half ? half + suf[left] : suf[right];
+        max[node] = Math.max(Math.max(max[left], max[right]), suf[left] + pre[right]);
+    }
+
+    /**
+     * Leftmost start at or after {@code from} of {@code count} free seats, searching the seats [lo, hi) of
+     * {@code node}. {@code run} carries the free seats at or after {@code from} that end right before {@code lo}.
+     */
+    private int firstFrom(int row, int node, int lo, int hi, int count, int from, int[] run) {
+        if (hi <= from) return -1;
+        if (lo >= from) {
+            if (run[0] + prefix[row][node] >= count) return lo - run[0];
+            if (longest[row][node] < count) {
+                run[0] = prefix[row][node] == hi - lo ? run[0] + hi - lo : suffix[row][node];
+                return -1;
+            }
+        }
+        int mid = (lo + hi) >>> 1;
+        int start = firstFrom(row, 2 * node, lo, mid, count, from, run);
+        return start >= 0 ? start : firstFrom(row, 2 * node + 1, mid, hi, count, from, run);
+    }
+
+    /**
+     * Rightmost start of {@code count} free seats ending at or before {@code to}, the mirror of {@link #firstFrom}.
+     * {@code run} carries the free seats before {@code to} that start right after {@code hi}.
+     */
+    private int lastUpTo(int row, int node, int lo, int hi, int count, int to, int[] run) {
+        if (lo >= to) return -1;
+        if (hi <= to) {
+            if (run[0] + suffix[row][node] >= count) return hi + run[0] - count;
+            if (longest[row][node] < count) {
+                run[0] = suffix[row][node] == hi - lo ? run[0] + hi - lo : prefix[row][node];
+                return -1;
+            }
+        }
+        int mid = (lo + hi) >>> 1;
+        int start = lastUpTo(row, 2 * node + 1, mid, hi, count, to, run);
+        return start >= 0 ? start : lastUpTo(row, 2 * node, lo, mid, count, to, run);
+    }
+}
@@ -0,0 +1,73 @@
+package com.skp.bookshow.model;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+/**
+ * Immutable table of the seat labels of one layout, shared by every show with that layout. Rows are named like
+ * spreadsheet columns, A to Z followed by AA, AB and so on, seats are numbered from 1 within their row.
+ */
+public final class SeatLabels {
+    private static final Cache<Long, SeatLabels> LAYOUTS = Caffeine.newBuilder().maximumSize(1024).build();
+
+    private final int numberOfRows;
+    private final int numberOfSeatsPerRows;
+    private final String[] labels;
+
+    private SeatLabels(int numberOfRows, int numberOfSeatsPerRows) {
+        this.numberOfRows = numberOfRows;
+        this.numberOfSeatsPerRows = numberOfSeatsPerRows;
+        this.labels = new String[numberOfRows * numberOfSeatsPerRows];
+        for (int row = 0, index = 0; row < numberOfRows; row++) {
+            String rowName = rowName(row);
+            for (int seat = 1; seat <= numberOfSeatsPerRows; seat++) {
+                labels[index++] = rowName + seat;
+            }
+        }
+    }
+
+    public static SeatLabels of(int numberOfRows, int numberOfSeatsPerRows) {
+        long layout = (long) numberOfRows << 32 | numberOfSeatsPerRows;
+        return LAYOUTS.get(layout, l -> new SeatLabels(numberOfRows, numberOfSeatsPerRows));
+    }
+
+    public String label(int index) {
+        return labels[index];
+    }
+
+    /**
+     * @return index of the seat with the given label, or -1 when the label is not part of this layout
+     */
+    public int indexOf(String label) {
+        if (label == null) return -1;
+        int length = label.length();
+        int row = 0;
+        int i = 0;
+        for (; i < length && row <= numberOfRows; i++) {
+            char c = label.charAt(i);
+            if (c < 'A' || c > 'Z') break;
+            row = row * 26 + (c - 'A' + 1);
+        }
+        if (i == 0 || i == length || row > numberOfRows) return -1;
+        int seat = 0;
+        for (; i < length; i++) {
+            char c = label.charAt(i);
+            if (c < '0' || c > '9' || seat > numberOfSeatsPerRows) return -1;
+            seat = seat * 10 + (c - '0');
+        }
+        if (seat < 1 || seat > numberOfSeatsPerRows) return -1;
+        return (row - 1) * numberOfSeatsPerRows + seat - 1;
+    }
+
+    /**
+     * @return name of the zero based row, "A" for the first and "AA" for the 27th
+     */
+    static String rowName(int row) {
+        char[] name = new char[8];
+        int start = name.length;
+        for (int n = row + 1; n > 0; n = (n - 1) / 26) {
+            name[--start] = (char) ('A' + (n - 1) % 26);
+        }
+        return new String(name, start, name.length - start);
+    }
+}
@@ -0,0 +1,164 @@
+package com.skp.bookshow.model;
+
+import com.skp.bookshow.model.enums.SeatState;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Seat inventory of a show stored as one state byte per seat, indexed by {@code row * numberOfSeatsPerRows + seat}.
+ * Seat labels like "A1" are never stored with the seats, they are resolved through the {@link SeatLabels} of the
+ * layout only at the API boundary.
+ */
+public final class SeatMap {
+    private final int numberOfRows;
+    private final int numberOfSeatsPerRows;
+    private final byte[] states;
+    private SeatLabels labels;
+
+    public SeatMap(int numberOfRows, int numberOfSeatsPerRows, byte[] states) {
+        if (states.length != numberOfRows * numberOfSeatsPerRows) {
+            throw new IllegalArgumentException("Seat states do not match layout " + numberOfRows + "x" + numberOfSeatsPerRows);
+        }
+        this.numberOfRows = numberOfRows;
+        this.numberOfSeatsPerRows = numberOfSeatsPerRows;
+        this.states = states;
+    }
+
+    public static SeatMap empty(int numberOfRows, int numberOfSeatsPerRows) {
+        return new SeatMap(numberOfRows, numberOfSeatsPerRows, new byte[numberOfRows * numberOfSeatsPerRows]);
+    }
+
+    public int size() {
+        return states.length;
+    }
+
+    public int getNumberOfRows() {
+        return numberOfRows;
+    }
+
+    public int getNumberOfSeatsPerRows() {
+        return numberOfSeatsPerRows;
+    }
+
+    /**
+     * @return index of the seat with the given label, or -1 when the label is not part of this layout
+     */
+    public int indexOf(String label) {
+        return labels().indexOf(label);
+    }
+
+    /**
+     * @return indexes of the given labels, or null when a label is unknown or repeated
+     */
+    public int[] indexesOf(List<String> labels) {
+        if (labels == null || labels.isEmpty()) return null;
+        int[] indexes = new int[labels.size()];
+        for (int i = 0; i < indexes.length; i++) {
+            int index = indexOf(labels.get(i));
+            if (index < 0) return null;
+            for (int j = 0; j < i; j++) {
+                if (indexes[j] == index) return null;
+            }
+            indexes[i] = index;
+        }
+        return indexes;
+    }
+
+    public String label(int index) {
+        return labels().label(index);
+    }
+
+    public List<String> labels(int[] indexes) {
+        List<String> labels = new ArrayList<>(indexes.length);
+        for (int index : indexes) {
+            labels.add(label(index));
+        }
+        return labels;
+    }
+
+    public boolean allIn(int[] indexes, SeatState state) {
+        byte code = state.code();
+        for (int index : indexes) {
+            if (states[index] != code) return false;
+        }
+        return true;
+    }
+
+    public void set(int[] indexes, SeatState state) {
+        byte code = state.code();
+        for (int index : indexes) {
+            states[index] = code;
+        }
+    }
+
+    /**
+     * Moves the seats currently in {@code from} to {@code to}, seats in any other state are left untouched.
+     *
+     * @return number of seats moved
+     */
+    public int move(int[] indexes, SeatState from, SeatState to) {
+        byte fromCode = from.code();
+        byte toCode = to.code();
+        int moved = 0;
+        for (int index : indexes) {
+            if (states[index] == fromCode) {
+                states[index] = toCode;
+                moved++;
+            }
+        }
+        return moved;
+    }
+
+    /**
+     * @return number of seats in each state, indexed by {@link SeatState#code()}
+     */
+    public int[] counts() {
+        int[] counts = new int[SeatState.values().length];
+        for (byte b : states) {
+            counts[b]++;
+        }
+        return counts;
+    }
+
+    public List<String> labels(SeatState state) {
+        byte code = state.code();
+        List<String> labels = new ArrayList<>();
+        for (int i = 0; i < states.length; i++) {
+            if (states[i] == code) labels.add(label(i));
+        }
+        return labels;
+    }
+
+    public byte[] states() {
+        return states;
+    }
+
+    /**
+     * @return the states packed four seats to a byte, seat {@code i} in the two bits starting at bit
+     * {@code 2 * (i % 4)} of byte {@code i / 4}
+     */
+    public byte[] packed() {
+        byte[] packed = new byte[(states.length + 3) / 4];
+        for (int i = 0; i < states.length; i++) {
+            packed[i >> 2] |= states[i] << ((i & 3) << 1);
+        }
+        return packed;
+    }
+
+    /**
+     * @param offset position of the first packed byte in {@code packed}
+     */
+    public static SeatMap unpack(int numberOfRows, int numberOfSeatsPerRows, byte[] packed, int offset) {
+        byte[] states = new byte[numberOfRows * numberOfSeatsPerRows];
+        for (int i = 0; i < states.length; i++) {
+            states[i] = (byte) ((packed[offset + (i >> 2)] >> ((i & 3) << 1)) & 3);
+        }
+        return new SeatMap(numberOfRows, numberOfSeatsPerRows, states);
+    }
+
+    private SeatLabels labels() {
+        if (labels == null) labels = SeatLabels.of(numberOfRows, numberOfSeatsPerRows);
+        return labels;
+    }
+}
@@ -1,24 +1,39 @@
 package com.skp.bookshow.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.skp.bookshow.model.enums.SeatState;
 import lombok.*;
+import org.hibernate.annotations.DynamicUpdate;
 
 import javax.persistence.*;
 import java.io.Serializable;
-import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Date;
-import java.util.List;
-import java.util.Set;
+import java.util.HashMap;
+import java.util.Map;
 
+/**
+ * The seats of a show are persisted as a {@link #seatSnapshot snapshot} of the seat map plus the
+ * {@link #seatChanges seats that differ from it}, one row per seat updated in place. A booking therefore writes
+ * only the seats it touched, the snapshot is rewritten only once the changes outgrow a fraction of the show.
+ */
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 @ToString
 @Builder
-@Table(name = "Show")
+@DynamicUpdate
+@Table(name = "Show", indexes = {
+        @Index(name = "idx_show_show_time", columnList = "showTime"),
+        @Index(name = "idx_show_movie_show_time", columnList = "movieId, showTime")})
 @Entity
 public class Show implements Serializable {
+    private static final int MIN_SEAT_CHANGES = 32;
+    private static final int SEAT_CHANGES_DIVISOR = 8;
+
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "show_id")
+    @SequenceGenerator(name = "show_id", sequenceName = "show_id_seq", allocationSize = 100)
     private Long id;
     private Date showTime;
     private long movieId;
@@ -26,16 +41,102 @@ public class Show implements Serializable {
     private int numberOfSeatsPerRows;
     private int cancellationWindow;
 
-    @Column
-    @ElementCollection(targetClass=String.class)
-    private List<String> availableSeats = new ArrayList<String>();
+    @Version
+    private Long version;
+
+    /**
+     * Current seat states, built from the snapshot and the changes when the show is loaded.
+     */
+    @Transient
+    @JsonIgnore
+    @ToString.Exclude
+    private byte[] seatStates;
+
+    @Lob
+    @JsonIgnore
+    @ToString.Exclude
+    private byte[] seatSnapshot;
+
+    @ElementCollection(fetch = FetchType.EAGER)
+    @CollectionTable(name = "ShowSeatChange", joinColumns = @JoinColumn(name = "showId"))
+    @MapKeyColumn(name = "seatIndex")
+    @Column(name = "state")
+    @JsonIgnore
+    @ToString.Exclude
+    @Builder.Default
+    private Map<Integer, Byte> seatChanges = new HashMap<>();
+
+    private int availableSeatCount;
+    private int blockedSeatCount;
+    private int bookedSeatCount;
+
+    /**
+     * @return seat map backed by {@link #seatStates}, changes made through it are persisted with the show once
+     * {@link #recordSeatChanges()} is called
+     */
+    public SeatMap seatMap() {
+        return new SeatMap(numberOfRows, numberOfSeatsPerRows, getSeatStates());
+    }
+
+    public byte[] getSeatStates() {
+        if (seatStates == null) {
+            if (seatSnapshot == null) {
+                seatStates = SeatMap.empty(numberOfRows, numberOfSeatsPerRows).states();
+            } else {
+                seatStates = seatSnapshot.clone();
+                seatChanges.forEach((index, state) -> seatStates[index] = state);
+            }
+        }
+        return seatStates;
+    }
 
-    @Column
-    @ElementCollection(targetClass=String.class)
-    private List<String> bookedSeats = new ArrayList<String>();
+    /**
+     * Brings {@link #seatChanges} and the seat counts in line with the seat map, so only seats changed since the
+     * show was loaded are written. Once more than an eighth of the seats differ from the snapshot, the snapshot is
+     * rewritten instead and the changes dropped, which keeps both the replay on load and the amortized write per
+     * seat small. Shows that were never saved have no snapshot yet, they get one when persisted.
+     */
+    public void recordSeatChanges() {
+        countSeats();
+        if (seatSnapshot == null || seatStates == null) return;
+        int limit = Math.max(MIN_SEAT_CHANGES, seatStates.length / SEAT_CHANGES_DIVISOR);
+        int[] changed = new int[limit + 1];
+        int count = 0;
+        for (int i = 0; i < seatStates.length && count <= limit; i++) {
+            int mismatch = Arrays.mismatch(seatStates, i, seatStates.length, seatSnapshot, i, seatSnapshot.length);
+            if (mismatch < 0) break;
+            i += mismatch;
+            changed[count++] = i;
+        }
+        if (count > limit) {
+            seatSnapshot = seatStates.clone();
+            seatChanges.clear();
+            return;
+        }
+        seatChanges.keySet().removeIf(index -> seatStates[index] == seatSnapshot[index]);
+        for (int c = 0; c < count; c++) {
+            Byte state = seatStates[changed[c]];
+            if (!state.equals(seatChanges.get(changed[c]))) {
+                seatChanges.put(changed[c], state);
+            }
+        }
+    }
 
-    @Column
-    @ElementCollection(targetClass=String.class)
-    private List<String> blockedSeats = new ArrayList<String>();
+    @PrePersist
+    public void snapshotSeats() {
+        if (seatSnapshot == null) {
+            seatSnapshot = getSeatStates().clone();
+        }
+        countSeats();
+    }
 
+    /**
+     * Keeps the seat counts in step with the seat map, so listings can read them without loading the seats.
+     */
+    public void countSeats() {
+        int[] counts = seatMap().counts();
+        availableSeatCount = counts[SeatState.AVAILABLE.code()];
+        blockedSeatCount = counts[SeatState.BLOCKED.code()];
+        bookedSeatCount = counts[SeatState.BOOKED.code()];
+    }
 }
@@ -0,0 +1,15 @@
+package com.skp.bookshow.model.enums;
+
+public enum SeatState {
+    AVAILABLE, BLOCKED, BOOKED;
+
+    private static final SeatState[] VALUES = values();
+
+    public byte code() {
+        return (byte) ordinal();
+    }
+
+    public static SeatState of(byte code) {
+        return VALUES[code];
+    }
+}
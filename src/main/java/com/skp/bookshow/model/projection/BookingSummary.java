@@ -0,0 +1,22 @@
+package com.skp.bookshow.model.projection;
+
+import com.skp.bookshow.model.enums.SeatStatus;
+
+import java.util.Date;
+
+/**
+ * Booking without its seats, for listings.
+ */
+public interface BookingSummary {
+    Long getTicketId();
+
+    Long getPhoneNumber();
+
+    Long getShowNumber();
+
+    SeatStatus getSeatStatus();
+
+    Date getBookingTime();
+
+    Date getHoldExpiresAt();
+}
@@ -0,0 +1,9 @@
+package com.skp.bookshow.model.projection;
+
+import java.util.Date;
+
+public interface SeatHold {
+    Long getTicketId();
+
+    Date getHoldExpiresAt();
+}
@@ -0,0 +1,26 @@
+package com.skp.bookshow.model.projection;
+
+import java.util.Date;
+
+/**
+ * Show without its seat map, for listings.
+ */
+public interface ShowSummary {
+    Long getId();
+
+    Date getShowTime();
+
+    long getMovieId();
+
+    int getNumberOfRows();
+
+    int getNumberOfSeatsPerRows();
+
+    int getCancellationWindow();
+
+    int getAvailableSeatCount();
+
+    int getBlockedSeatCount();
+
+    int getBookedSeatCount();
+}
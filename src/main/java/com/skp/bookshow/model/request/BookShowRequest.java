@@ -13,5 +13,9 @@ import java.util.List;
 public class BookShowRequest implements Serializable {
     private Long phoneNumber;
     private List<String> blockedSeat;
+    /**
+     * Number of adjacent seats to pick when {@link #blockedSeat} is not given.
+     */
+    private Integer numberOfSeats;
     private Long showNumber;
 }
@@ -0,0 +1,15 @@
+package com.skp.bookshow.model.request;
+
+import lombok.*;
+
+import java.io.Serializable;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@ToString(exclude = "password")
+@Builder
+public class LoginRequest implements Serializable {
+    private Long phone;
+    private String password;
+}
@@ -0,0 +1,27 @@
+package com.skp.bookshow.model.response;
+
+import com.skp.bookshow.model.BookedSeat;
+import lombok.*;
+
+import java.io.Serializable;
+
+/**
+ * Outcome of one request of a bulk booking, either the booking made or the reason it failed.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@ToString
+@Builder
+public class BulkBookingResult implements Serializable {
+    BookedSeat bookedSeat;
+    String error;
+
+    public static BulkBookingResult booked(BookedSeat bookedSeat) {
+        return new BulkBookingResult(bookedSeat, null);
+    }
+
+    public static BulkBookingResult failed(String error) {
+        return new BulkBookingResult(null, error);
+    }
+}
@@ -0,0 +1,41 @@
+package com.skp.bookshow.model.response;
+
+import lombok.*;
+
+import java.io.Serializable;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * One page of a keyset paginated listing. The next page is requested with {@link #nextCursor} as the
+ * {@code after} parameter, it is null on the last page.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@ToString
+@Builder
+public class CursorPage<T> implements Serializable {
+    public static final int MAX_LIMIT = 500;
+
+    List<T> items;
+    Long nextCursor;
+
+    /**
+     * @return the limit to request, capped to {@link #MAX_LIMIT}
+     */
+    public static int limit(int requested) {
+        return Math.max(1, Math.min(requested, MAX_LIMIT));
+    }
+
+    /**
+     * @param fetched up to {@code limit + 1} rows, the extra row only tells that there is a next page
+     */
+    public static <T> CursorPage<T> of(List<T> fetched, int limit, Function<T, Long> cursor) {
+        if (fetched.size() <= limit) {
+            return new CursorPage<>(fetched, null);
+        }
+        List<T> items = fetched.subList(0, limit);
+        return new CursorPage<>(items, cursor.apply(items.get(limit - 1)));
+    }
+}
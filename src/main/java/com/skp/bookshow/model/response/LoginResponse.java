@@ -0,0 +1,17 @@
+package com.skp.bookshow.model.response;
+
+import lombok.*;
+
+import java.io.Serializable;
+
+/**
+ * Session token to send as {@code Authorization: Bearer <token>} with admin requests.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@ToString
+@Builder
+public class LoginResponse implements Serializable {
+    String token;
+}
@@ -0,0 +1,36 @@
+package com.skp.bookshow.model.response;
+
+import com.skp.bookshow.model.Show;
+import lombok.*;
+
+import java.io.Serializable;
+import java.util.Date;
+
+/**
+ * Show as listed in the schedule, only the fields that do not change once the show is created. Seat availability
+ * is read from {@code GET /show/{id}}.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@ToString
+@Builder
+public class ScheduledShow implements Serializable {
+    Long id;
+    Date showTime;
+    long movieId;
+    int numberOfRows;
+    int numberOfSeatsPerRows;
+    int cancellationWindow;
+
+    public static ScheduledShow of(Show show) {
+        return ScheduledShow.builder()
+                .id(show.getId())
+                .showTime(show.getShowTime())
+                .movieId(show.getMovieId())
+                .numberOfRows(show.getNumberOfRows())
+                .numberOfSeatsPerRows(show.getNumberOfSeatsPerRows())
+                .cancellationWindow(show.getCancellationWindow())
+                .build();
+    }
+}
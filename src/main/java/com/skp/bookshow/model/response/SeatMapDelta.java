@@ -0,0 +1,22 @@
+package com.skp.bookshow.model.response;
+
+import lombok.*;
+
+import java.io.Serializable;
+import java.util.List;
+
+/**
+ * Seats of a show that changed state in one saved change, listed by their new state.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@ToString
+@Builder
+public class SeatMapDelta implements Serializable {
+    Long showNumber;
+    Long version;
+    List<String> bookedSeat;
+    List<String> availableSeat;
+    List<String> blockedSeat;
+}
@@ -1,17 +1,69 @@
 package com.skp.bookshow.repository;
 
 import com.skp.bookshow.model.BookedSeat;
+import com.skp.bookshow.model.enums.SeatStatus;
+import com.skp.bookshow.model.projection.BookingSummary;
+import com.skp.bookshow.model.projection.SeatHold;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import javax.persistence.QueryHint;
+
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
+import static org.hibernate.jpa.QueryHints.HINT_PASS_DISTINCT_THROUGH;
+
 @Repository
 public interface BookingRepo extends JpaRepository<BookedSeat, Long> {
-    Optional<BookedSeat> findByPhoneNumber(Long aLong);
+    boolean existsByPhoneNumber(Long phoneNumber);
+
+    /**
+     * @return the latest booking made with the phone number
+     */
+    @Query("select distinct b from BookedSeat b left join fetch b.bookedSeat where b.ticketId = "
+            + "(select max(l.ticketId) from BookedSeat l where l.phoneNumber = :phoneNumber)")
+    Optional<BookedSeat> findLatestByPhoneNumber(@Param("phoneNumber") Long phoneNumber);
 
-    List<BookedSeat> findByShowNumber(Long showNumber);
+    @Query("select distinct b from BookedSeat b left join fetch b.bookedSeat where b.showNumber = :showNumber")
+    @QueryHints(@QueryHint(name = HINT_PASS_DISTINCT_THROUGH, value = "false"))
+    List<BookedSeat> findByShowNumber(@Param("showNumber") Long showNumber);
 
+    List<BookingSummary> findByShowNumberAndTicketIdGreaterThanOrderByTicketIdAsc(Long showNumber, Long ticketId, Pageable pageable);
+
+    @EntityGraph(attributePaths = "bookedSeat")
     Optional<BookedSeat> findByTicketId(Long ticketId);
+
+    @Query("select distinct b.phoneNumber from BookedSeat b where b.phoneNumber in :phoneNumbers")
+    List<Long> findExistingPhoneNumbers(@Param("phoneNumbers") Collection<Long> phoneNumbers);
+
+    List<SeatHold> findBySeatStatus(SeatStatus seatStatus);
+
+    @Query("select distinct b from BookedSeat b left join fetch b.bookedSeat where b.ticketId in :ticketIds")
+    @QueryHints(@QueryHint(name = HINT_PASS_DISTINCT_THROUGH, value = "false"))
+    List<BookedSeat> findByTicketIdIn(@Param("ticketIds") Collection<Long> ticketIds);
+
+    /**
+     * Moves the booking to {@code to} only if it is still in {@code from}.
+     *
+     * @return 1 when the status was changed, 0 when the booking was changed by someone else first
+     */
+    @Modifying
+    @Transactional
+    @Query("update BookedSeat b set b.seatStatus = :to where b.ticketId = :ticketId and b.seatStatus = :from")
+    int updateSeatStatus(@Param("ticketId") Long ticketId, @Param("from") SeatStatus from, @Param("to") SeatStatus to);
+
+    /**
+     * @return the highest ticket id in the table, 0 when it is empty
+     */
+    @Query("select coalesce(max(b.ticketId), 0) from BookedSeat b")
+    long findMaxId();
 }
@@ -0,0 +1,35 @@
+package com.skp.bookshow.repository;
+
+import com.skp.bookshow.model.IdempotencyRecord;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Date;
+
+@Repository
+public interface IdempotencyRecordRepo extends JpaRepository<IdempotencyRecord, String> {
+    /**
+     * Inserts the record of a request that starts running.
+     *
+     * @throws org.springframework.dao.DataIntegrityViolationException when a record with the key exists
+     */
+    @Modifying
+    @Transactional
+    @Query(value = "insert into idempotency_record(idempotency_key, fingerprint, status, created_at) "
+            + "values (:key, :fingerprint, 0, :createdAt)", nativeQuery = true)
+    void insertInFlight(@Param("key") String key, @Param("fingerprint") String fingerprint, @Param("createdAt") Date createdAt);
+
+    @Modifying
+    @Transactional
+    @Query("delete from IdempotencyRecord r where r.idempotencyKey = :key and r.status = 0")
+    int deleteInFlight(@Param("key") String key);
+
+    @Modifying
+    @Transactional
+    @Query("delete from IdempotencyRecord r where r.createdAt < :before")
+    int deleteCreatedBefore(@Param("before") Date before);
+}
@@ -1,9 +1,45 @@
 package com.skp.bookshow.repository;
 
 import com.skp.bookshow.model.Show;
+import com.skp.bookshow.model.projection.ShowSummary;
+import com.skp.bookshow.model.response.ScheduledShow;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
+import javax.persistence.QueryHint;
+
+import java.util.Date;
+import java.util.List;
+
+import static org.hibernate.jpa.QueryHints.HINT_PASS_DISTINCT_THROUGH;
+
 @Repository
 public interface ShowRepo extends JpaRepository<Show, Long> {
+    /**
+     * All shows with their seat changes fetched in the same statement.
+     */
+    @Override
+    @Query("select distinct s from Show s left join fetch s.seatChanges")
+    @QueryHints(@QueryHint(name = HINT_PASS_DISTINCT_THROUGH, value = "false"))
+    List<Show> findAll();
+
+    List<ShowSummary> findByIdGreaterThanOrderByIdAsc(Long id, Pageable pageable);
+
+    List<ShowSummary> findByShowTimeAfter(Date showTime);
+
+    /**
+     * Every show as listed in the schedule, without the seat map.
+     */
+    @Query("select new com.skp.bookshow.model.response.ScheduledShow(s.id, s.showTime, s.movieId, s.numberOfRows, "
+            + "s.numberOfSeatsPerRows, s.cancellationWindow) from Show s")
+    List<ScheduledShow> findScheduledShows();
+
+    /**
+     * @return the highest show id in the table, 0 when it is empty
+     */
+    @Query("select coalesce(max(s.id), 0) from Show s")
+    long findMaxId();
 }
@@ -0,0 +1,47 @@
+package com.skp.bookshow.scheduler;
+
+import com.skp.bookshow.model.BookedSeat;
+import com.skp.bookshow.service.SeatBookingService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Releases the seats of holds that were not confirmed within the show's cancellation window. Created at startup
+ * even with lazy initialization, nothing else refers to it.
+ */
+@Component
+@Lazy(false)
+@Slf4j
+public class SeatHoldExpiryJob {
+    @Autowired
+    private SeatHoldTimer seatHoldTimer;
+
+    @Autowired
+    private SeatBookingService seatBookingService;
+
+    @Value("${bookshow.hold-expiry.batch-size:500}")
+    private int batchSize;
+
+    @Scheduled(fixedDelayString = "${bookshow.hold-expiry.tick-ms:1000}")
+    public void releaseExpiredHolds() {
+        long now = System.currentTimeMillis();
+        List<Long> expired = seatHoldTimer.expired(now);
+        for (int from = 0; from < expired.size(); from += batchSize) {
+            List<Long> batch = expired.subList(from, Math.min(from + batchSize, expired.size()));
+            try {
+                List<BookedSeat> released = seatBookingService.releaseExpiredHolds(batch);
+                log.info("Released {} of {} expired seat holds", released.size(), batch.size());
+            } catch (RuntimeException e) {
+                log.error("Failed to release {} expired seat holds, retrying on next tick", batch.size(), e);
+                batch.forEach(ticketId -> seatHoldTimer.schedule(ticketId, new Date(now)));
+            }
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package com.skp.bookshow.scheduler;
+
+import com.skp.bookshow.model.enums.SeatStatus;
+import com.skp.bookshow.model.projection.SeatHold;
+import com.skp.bookshow.repository.BookingRepo;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.ContextRefreshedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Keeps the expiry time of every seat hold in a {@link TimingWheel}, so expired holds are found without
+ * querying the bookings. Entries are not removed when a hold is confirmed or canceled, the release itself
+ * skips bookings that are no longer blocked.
+ */
+@Component
+@Slf4j
+public class SeatHoldTimer {
+    private static final int WHEEL_SIZE = 64;
+    private static final int LEVELS = 4;
+
+    @Autowired
+    private BookingRepo bookingRepo;
+
+    private final TimingWheel<Long> wheel;
+
+    public SeatHoldTimer(@Value("${bookshow.hold-expiry.tick-ms:1000}") long tickMs) {
+        this.wheel = new TimingWheel<>(tickMs, WHEEL_SIZE, LEVELS, System.currentTimeMillis());
+    }
+
+    @EventListener(ContextRefreshedEvent.class)
+    public void rebuild() {
+        List<SeatHold> holds = bookingRepo.findBySeatStatus(SeatStatus.BLOCKED);
+        for (SeatHold hold : holds) {
+            schedule(hold.getTicketId(), hold.getHoldExpiresAt());
+        }
+        log.info("Scheduled expiry of {} seat holds", holds.size());
+    }
+
+    public synchronized void schedule(Long ticketId, Date holdExpiresAt) {
+        if (ticketId == null || holdExpiresAt == null) return;
+        wheel.add(ticketId, holdExpiresAt.getTime());
+    }
+
+    /**
+     * @return ticket ids of the holds that expired up to {@code now}, each returned once
+     */
+    public synchronized List<Long> expired(long now) {
+        return wheel.advance(now);
+    }
+
+    public synchronized int size() {
+        return wheel.size();
+    }
+}
@@ -0,0 +1,124 @@
+package com.skp.bookshow.scheduler;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Hierarchical timing wheel. Level 0 has {@code wheelSize} buckets of one tick each and every level above has
+ * buckets spanning a full turn of the level below, so a few small levels cover long delays. Adding an entry is
+ * O(1) and entries move down one level whenever the level above them turns over, until they expire from level 0.
+ * <p>
+ * Not thread safe, callers synchronize.
+ */
+public final class TimingWheel<T> {
+    private final long tickMs;
+    private final int wheelSize;
+    private final long[] spans;
+    private final List<Entry<T>>[][] buckets;
+    private final List<T> due = new ArrayList<>();
+    private long currentTick;
+    private int size;
+
+    @SuppressWarnings("unchecked")
+    public TimingWheel(long tickMs, int wheelSize, int levels, long startMs) {
+        if (tickMs <= 0 || wheelSize < 2 || levels < 1) {
+            throw new IllegalArgumentException("Invalid timing wheel " + tickMs + "ms x " + wheelSize + " x " + levels);
+        }
+        this.tickMs = tickMs;
+        this.wheelSize = wheelSize;
+        this.spans = new long[levels];
+        this.buckets = new List[levels][wheelSize];
+        long span = 1;
+        for (int level = 0; level < levels; level++) {
+            spans[level] = span;
+            span *= wheelSize;
+            for (int slot = 0; slot < wheelSize; slot++) {
+                buckets[level][slot] = new ArrayList<>();
+            }
+        }
+        this.currentTick = Math.floorDiv(startMs, tickMs);
+    }
+
+    /**
+     * Schedules {@code item} to be returned by the first {@link #advance(long)} at or after {@code expiresAtMs}.
+     */
+    public void add(T item, long expiresAtMs) {
+        long expirationTick = -Math.floorDiv(-expiresAtMs, tickMs);
+        place(new Entry<>(item, expirationTick));
+    }
+
+    /**
+     * Moves the wheel forward to {@code nowMs}.
+     *
+     * @return items whose expiration time has passed, in no particular order
+     */
+    public List<T> advance(long nowMs) {
+        long targetTick = Math.floorDiv(nowMs, tickMs);
+        while (currentTick < targetTick) {
+            if (size == 0) {
+                currentTick = targetTick;
+                break;
+            }
+            tick();
+        }
+        List<T> expired = new ArrayList<>(due);
+        due.clear();
+        return expired;
+    }
+
+    /**
+     * @return number of items still waiting to expire
+     */
+    public int size() {
+        return size + due.size();
+    }
+
+    private void tick() {
+        currentTick++;
+        for (int level = spans.length - 1; level > 0; level--) {
+            if (currentTick % spans[level] == 0) {
+                cascade(level, (int) ((currentTick / spans[level]) % wheelSize));
+            }
+        }
+        List<Entry<T>> bucket = buckets[0][(int) (currentTick % wheelSize)];
+        for (Entry<T> entry : bucket) {
+            due.add(entry.item);
+        }
+        size -= bucket.size();
+        bucket.clear();
+    }
+
+    private void cascade(int level, int slot) {
+        List<Entry<T>> bucket = buckets[level][slot];
+        if (bucket.isEmpty()) return;
+        buckets[level][slot] = new ArrayList<>();
+        size -= bucket.size();
+        for (Entry<T> entry : bucket) {
+            place(entry);
+        }
+    }
+
+    private void place(Entry<T> entry) {
+        long delay = entry.expirationTick - currentTick;
+        if (delay <= 0) {
+            due.add(entry.item);
+            return;
+        }
+        int level = 0;
+        while (level < spans.length - 1 && delay >= spans[level] * wheelSize) {
+            level++;
+        }
+        buckets[level][(int) ((entry.expirationTick / spans[level]) % wheelSize)].add(entry);
+        size++;
+    }
+
+    private static final class Entry<T> {
+        private final T item;
+        private final long expirationTick;
+
+        private Entry(T item, long expirationTick) {
+            this.item = item;
+            this.expirationTick = expirationTick;
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package com.skp.bookshow.security;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.SecretKeyFactory;
+import javax.crypto.spec.PBEKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.Base64;
+
+/**
+ * Salted PBKDF2-HMAC-SHA256 password hashes, stored as {@code pbkdf2-sha256$iterations$salt$hash}. Each hash keeps
+ * the iterations it was made with, so raising {@code bookshow.security.hash-iterations} leaves stored hashes
+ * valid and {@link #needsRehash} tells which ones to replace at the next login.
+ */
+@Component
+public class PasswordHasher {
+    private static final String ALGORITHM = "pbkdf2-sha256";
+    private static final int SALT_BYTES = 16;
+    private static final int HASH_BITS = 256;
+
+    private final int iterations;
+    private final SecureRandom random = new SecureRandom();
+    private volatile String dummyHash;
+
+    public PasswordHasher(@Value("${bookshow.security.hash-iterations:210000}") int iterations) {
+        this.iterations = iterations;
+    }
+
+    public String hash(String password) {
+        byte[] salt = new byte[SALT_BYTES];
+        random.nextBytes(salt);
+        Base64.Encoder base64 = Base64.getEncoder().withoutPadding();
+        return ALGORITHM + "$" + iterations + "$" + base64.encodeToString(salt) + "$"
+                + base64.encodeToString(pbkdf2(password, salt, iterations));
+    }
+
+    /**
+     * Compares in constant time. Stored values that are not hashes are compared as plain text, for accounts
+     * created before passwords were hashed.
+     */
+    public boolean matches(String password, String stored) {
+        if (password == null || stored == null) return false;
+        String[] parts = stored.split("\\$");
+        if (!isHash(parts)) {
+            return MessageDigest.isEqual(password.getBytes(StandardCharsets.UTF_8), stored.getBytes(StandardCharsets.UTF_8));
+        }
+        Base64.Decoder base64 = Base64.getDecoder();
+        byte[] expected = base64.decode(parts[3]);
+        return MessageDigest.isEqual(expected, pbkdf2(password, base64.decode(parts[2]), Integer.parseInt(parts[1])));
+    }
+
+    /**
+     * @return hash of a random password made with the configured iterations, matched against when there is no
+     * stored hash to check, so the check takes as long as for an existing account
+     */
+    public String dummyHash() {
+        var result = dummyHash;
+        if (result == null) {
+            byte[] password = new byte[SALT_BYTES];
+            random.nextBytes(password);
+            result = hash(Base64.getEncoder().encodeToString(password));
+            dummyHash = result;
+        }
+        return result;
+    }
+
+    /**
+     * @return whether {@code stored} is plain text or was hashed with other iterations than configured now
+     */
+    public boolean needsRehash(String stored) {
+        String[] parts = stored.split("\\$");
+        return !isHash(parts) || Integer.parseInt(parts[1]) != iterations;
+    }
+
+    private static boolean isHash(String[] parts) {
+        return parts.length == 4 && parts[0].equals(ALGORITHM) && !parts[1].isEmpty() && parts[1].chars().allMatch(Character::isDigit);
+    }
+
+    private static byte[] pbkdf2(String password, byte[] salt, int iterations) {
+        var spec = new PBEKeySpec(password.toCharArray(), salt, iterations, HASH_BITS);
+        try {
+            return SecretKeyFactory.getInstance("PBKDF2WithHmacSHA256").generateSecret(spec).getEncoded();
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("PBKDF2WithHmacSHA256 is not available", e);
+        } finally {
+            spec.clearPassword();
+        }
+    }
+}
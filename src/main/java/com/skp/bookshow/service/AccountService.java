@@ -4,9 +4,23 @@ import com.skp.bookshow.exception.AccountNotFound;
 import com.skp.bookshow.model.Account;
 import org.springframework.stereotype.Component;
 
+import java.util.Optional;
+
 @Component
 public interface AccountService {
     Account createAccount(Account account);
 
     Boolean login(Long id, String password) throws AccountNotFound;
+
+    /**
+     * @return session token for later requests of the account, or null when the password is wrong
+     */
+    String authenticate(Long id, String password) throws AccountNotFound;
+
+    /**
+     * @return account the token was issued to, while its session lasts
+     */
+    Optional<Account> verify(String token);
+
+    void logout(String token);
 }
@@ -1,6 +1,7 @@
 package com.skp.bookshow.service;
 
 import com.skp.bookshow.model.Movie;
+import com.skp.bookshow.model.response.CursorPage;
 import org.springframework.stereotype.Component;
 
 import java.util.List;
@@ -11,4 +12,11 @@ public interface MovieService {
     Movie create(Movie movie);
 
     List<Movie> findAll();
+
+    CursorPage<Movie> findPage(Long after, int limit);
+
+    /**
+     * @param query words that each have to start a word of the title or description
+     */
+    CursorPage<Movie> search(String query, Long after, int limit);
 }
@@ -6,13 +6,28 @@ import com.skp.bookshow.exception.BookingUnSuccessful;
 import com.skp.bookshow.exception.ShowNotFound;
 import com.skp.bookshow.model.BookedSeat;
 import com.skp.bookshow.model.enums.SeatStatus;
+import com.skp.bookshow.model.projection.BookingSummary;
 import com.skp.bookshow.model.request.BookShowRequest;
+import com.skp.bookshow.model.response.BulkBookingResult;
+import com.skp.bookshow.model.response.CursorPage;
 
 import java.util.List;
 
 public interface SeatBookingService {
+    /**
+     * Holds the seats named in the request, or when it names none the best block of
+     * {@link BookShowRequest#getNumberOfSeats() adjacent seats} that is still free.
+     */
     BookedSeat bookSeat(BookShowRequest bookShowRequest) throws BookingAlreadyExist, BookingUnSuccessful;
 
+    /**
+     * Books every request independently, requests for the same show are applied together.
+     *
+     * @return one result per request, in request order
+     * @throws BookingUnSuccessful when there are too many requests
+     */
+    List<BulkBookingResult> bookSeats(List<BookShowRequest> bookShowRequests) throws BookingUnSuccessful;
+
     BookedSeat updateBooking(BookShowRequest bookedSeat, SeatStatus seatStatus) throws BookingUnSuccessful, BookingNotFound;
 
     BookedSeat findBooking(Long phoneNumber) throws BookingNotFound;
@@ -21,5 +36,17 @@ public interface SeatBookingService {
 
     List<BookedSeat> findAllBookingForShow(Long showId);
 
+    /**
+     * @return bookings of the show with a ticket id greater than {@code after}, ordered by ticket id
+     */
+    CursorPage<BookingSummary> findBookingPageForShow(Long showId, Long after, int limit);
+
     BookedSeat cancelBookingTicketById(Long bookingId) throws BookingNotFound, ShowNotFound;
+
+    /**
+     * Cancels the given bookings that are still blocked past their hold expiry and frees their seats.
+     *
+     * @return the bookings that were released
+     */
+    List<BookedSeat> releaseExpiredHolds(List<Long> ticketIds);
 }
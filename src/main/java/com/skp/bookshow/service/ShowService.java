@@ -1,11 +1,18 @@
 package com.skp.bookshow.service;
 
+import com.skp.bookshow.cache.SeatMapFormat;
+import com.skp.bookshow.cache.SerializedSeatMap;
 import com.skp.bookshow.exception.ShowNotFound;
 import com.skp.bookshow.model.Show;
+import com.skp.bookshow.model.projection.ShowSummary;
+import com.skp.bookshow.model.response.CursorPage;
+import com.skp.bookshow.model.response.ScheduledShow;
 import com.skp.bookshow.model.request.ShowRequest;
 import com.skp.bookshow.model.response.ShowDetailsForGuestResponse;
+import com.skp.bookshow.stream.SeatEventEmitter;
 import org.springframework.stereotype.Component;
 
+import java.util.Date;
 import java.util.List;
 
 @Component
@@ -15,5 +22,29 @@ public interface ShowService {
 
     List<Show> findAll();
 
+    /**
+     * @return shows with an id greater than {@code after}, ordered by id
+     */
+    CursorPage<ShowSummary> findPage(Long after, int limit);
+
+    /**
+     * @param movieId only shows of this movie, or null for every movie
+     * @param from    first show time included, or null
+     * @param to      last show time included, or null
+     * @return shows ordered by show time, continued after the show with id {@code after}
+     */
+    CursorPage<ScheduledShow> findSchedule(Long movieId, Date from, Date to, Long after, int limit);
+
     ShowDetailsForGuestResponse findById(Long showId) throws ShowNotFound;
+
+    /**
+     * @return the seat map of the show already serialized in the given format, the same bytes and entity tag until
+     * its seats change
+     */
+    SerializedSeatMap findSerializedById(Long showId, SeatMapFormat format, boolean acceptsGzip) throws ShowNotFound;
+
+    /**
+     * @return event stream sending the seat map of the show and then every change made to it
+     */
+    SeatEventEmitter streamById(Long showId) throws ShowNotFound;
 }
@@ -1,27 +1,61 @@
 package com.skp.bookshow.service.impl;
 
+import com.skp.bookshow.cache.SessionTokenCache;
 import com.skp.bookshow.exception.AccountNotFound;
 import com.skp.bookshow.model.Account;
 import com.skp.bookshow.repository.AccountRepo;
+import com.skp.bookshow.security.PasswordHasher;
 import com.skp.bookshow.service.AccountService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
+import java.util.Optional;
+
 @Service
 public class AccountServiceImpl implements AccountService {
     @Autowired
     private AccountRepo accountRepo;
 
+    @Autowired
+    private PasswordHasher passwordHasher;
+
+    @Autowired
+    private SessionTokenCache sessionTokenCache;
+
     @Override
     public Account createAccount(Account account) {
+        account.setPassword(passwordHasher.hash(account.getPassword()));
         return accountRepo.save(account);
     }
 
     @Override
     public Boolean login(Long id, String password) throws AccountNotFound {
-        var optionAccount = accountRepo.findById(id);
-        if(optionAccount.isPresent())
-           return optionAccount.get().getPassword().equals(password);
-        else throw new AccountNotFound("Account for given phone number: " + id);
+        return authenticate(id, password) != null;
+    }
+
+    /**
+     * Passwords still stored in plain text, or hashed with other iterations than configured, are hashed anew
+     * once they matched.
+     */
+    @Override
+    public String authenticate(Long id, String password) throws AccountNotFound {
+        var account = accountRepo.findById(id)
+                .orElseThrow(() -> new AccountNotFound("Account for given phone number: " + id));
+        if (!passwordHasher.matches(password, account.getPassword())) return null;
+        if (passwordHasher.needsRehash(account.getPassword())) {
+            account.setPassword(passwordHasher.hash(password));
+            accountRepo.save(account);
+        }
+        return sessionTokenCache.issue(account);
+    }
+
+    @Override
+    public Optional<Account> verify(String token) {
+        return sessionTokenCache.verify(token);
+    }
+
+    @Override
+    public void logout(String token) {
+        sessionTokenCache.revoke(token);
     }
 }
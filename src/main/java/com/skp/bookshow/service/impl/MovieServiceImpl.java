@@ -1,6 +1,8 @@
 package com.skp.bookshow.service.impl;
 
+import com.skp.bookshow.cache.MovieCatalogue;
 import com.skp.bookshow.model.Movie;
+import com.skp.bookshow.model.response.CursorPage;
 import com.skp.bookshow.repository.MovieRepo;
 import com.skp.bookshow.service.MovieService;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -13,13 +15,31 @@ public class MovieServiceImpl implements MovieService {
     @Autowired
     private MovieRepo movieRepo;
 
+    @Autowired
+    private MovieCatalogue movieCatalogue;
+
     @Override
     public Movie create(Movie movie) {
-        return movieRepo.save(movie);
+        Movie saved = movieRepo.save(movie);
+        movieCatalogue.add(saved);
+        return saved;
     }
 
+    /**
+     * Served from the catalogue, movies are only read from the database at startup.
+     */
     @Override
     public List<Movie> findAll() {
-        return movieRepo.findAll();
+        return movieCatalogue.findAll();
+    }
+
+    @Override
+    public CursorPage<Movie> findPage(Long after, int limit) {
+        return movieCatalogue.findPage(after, limit);
+    }
+
+    @Override
+    public CursorPage<Movie> search(String query, Long after, int limit) {
+        return movieCatalogue.search(query, after, limit);
     }
 }
@@ -0,0 +1,75 @@
+package com.skp.bookshow.service.impl;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.skp.bookshow.model.SeatBlockIndex;
+import com.skp.bookshow.model.Show;
+
+import java.util.Objects;
+
+/**
+ * Free seat indexes of the shows seats were recently picked for. Seats changed while a show is being changed are
+ * applied to its index as they change, and the index is marked with the version of the show the change commits.
+ * Only an index built for another version, because the show was changed elsewhere or a change was rolled back,
+ * is brought up to date by comparing every seat. Callers hold the lock of the show or run on its lane.
+ */
+final class SeatBlockIndexes {
+    private final Cache<Long, Entry> indexes;
+
+    SeatBlockIndexes(long maximumSize) {
+        this.indexes = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .build();
+    }
+
+    SeatBlockIndex forShow(Show show) {
+        Entry entry = indexes.get(show.getId(), id -> new Entry(new SeatBlockIndex(show.seatMap()), show.getVersion()));
+        if (!Objects.equals(entry.version, show.getVersion())) {
+            entry.index.sync(show.getSeatStates());
+            entry.version = show.getVersion();
+            entry.changed = false;
+        }
+        return entry.index;
+    }
+
+    /**
+     * Applies {@code seats} of the show as they are now, if it has an index.
+     */
+    void changed(Show show, int[] seats) {
+        Entry entry = indexes.getIfPresent(show.getId());
+        if (entry == null) return;
+        entry.index.apply(seats, show.getSeatStates());
+        entry.changed = true;
+    }
+
+    /**
+     * The changes made to the show since it was read at {@code loadedVersion} were committed.
+     */
+    void committed(Show show, Long loadedVersion) {
+        Entry entry = indexes.getIfPresent(show.getId());
+        if (entry != null && Objects.equals(entry.version, loadedVersion)) {
+            entry.version = show.getVersion();
+            entry.changed = false;
+        }
+    }
+
+    /**
+     * The changes made to the show were not committed, an index that applied them is dropped.
+     */
+    void rolledBack(Show show) {
+        Entry entry = indexes.getIfPresent(show.getId());
+        if (entry != null && entry.changed) indexes.invalidate(show.getId());
+    }
+
+    private static final class Entry {
+        private final SeatBlockIndex index;
+        /** Version of the show the index reflects, plus the seats changed since when {@link #changed}. */
+        private Long version;
+        private boolean changed;
+
+        private Entry(SeatBlockIndex index, Long version) {
+            this.index = index;
+            this.version = version;
+        }
+    }
+}
@@ -1,63 +1,129 @@
 package com.skp.bookshow.service.impl;
 
+import com.skp.bookshow.cache.ShowAvailabilityCache;
 import com.skp.bookshow.exception.BookingAlreadyExist;
 import com.skp.bookshow.exception.BookingNotFound;
 import com.skp.bookshow.exception.BookingUnSuccessful;
 import com.skp.bookshow.exception.ShowNotFound;
 import com.skp.bookshow.model.BookedSeat;
+import com.skp.bookshow.model.SeatMap;
 import com.skp.bookshow.model.Show;
+import com.skp.bookshow.model.enums.SeatState;
 import com.skp.bookshow.model.enums.SeatStatus;
+import com.skp.bookshow.model.projection.BookingSummary;
 import com.skp.bookshow.model.request.BookShowRequest;
+import com.skp.bookshow.model.response.BulkBookingResult;
+import com.skp.bookshow.model.response.CursorPage;
 import com.skp.bookshow.repository.BookingRepo;
 import com.skp.bookshow.repository.ShowRepo;
+import com.skp.bookshow.scheduler.SeatHoldTimer;
 import com.skp.bookshow.service.SeatBookingService;
+import com.skp.bookshow.stream.ShowSeatStream;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionOperations;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
 
-import java.time.Instant;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.locks.Lock;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 @Slf4j
 public class SeatBookingImpl implements SeatBookingService {
+    private static final int MAX_SAVE_ATTEMPTS = 3;
+    private static final int MAX_BULK_BOOKINGS = 5000;
+    private static final String CONFLICTS = "bookshow.booking.conflicts";
+    private static final String LANE_BACKLOG = "bookshow.booking.lane.backlog";
+
+    private final ShowLocks showLocks = new ShowLocks(64);
+    private final SeatBlockIndexes seatBlockIndexes = new SeatBlockIndexes(256);
+
     @Autowired
     ShowRepo showRepo;
 
     @Autowired
     BookingRepo bookingRepo;
 
+    @Autowired
+    SeatHoldTimer seatHoldTimer;
+
+    @Autowired
+    ShowAvailabilityCache showAvailabilityCache;
+
+    @Autowired
+    ShowSeatStream showSeatStream;
+
+    @Autowired
+    MeterRegistry meterRegistry;
+
+    @Autowired
+    TransactionOperations transactionOperations;
+
+    /**
+     * Number of show lanes changes are applied on, 0 to apply them on the calling thread under a lock instead.
+     */
+    @Value("${bookshow.booking.lanes:0}")
+    int numberOfLanes;
+
+    @Value("${bookshow.booking.lane-batch-size:64}")
+    int laneBatchSize = 64;
+
+    private ShowLanes showLanes;
+
+    @PostConstruct
+    void startLanes() {
+        if (numberOfLanes > 0) {
+            showLanes = new ShowLanes(numberOfLanes, laneBatchSize * 16, laneBatchSize, this::applyChanges);
+            meterRegistry.gauge(LANE_BACKLOG, showLanes, ShowLanes::backlog);
+        }
+    }
+
+    @PreDestroy
+    void stopLanes() {
+        if (showLanes != null) showLanes.close();
+    }
+
     @Override
     public BookedSeat bookSeat(BookShowRequest bookShowRequest) throws BookingAlreadyExist, BookingUnSuccessful {
-        Optional<BookedSeat> booking = bookingRepo.findByPhoneNumber(bookShowRequest.getPhoneNumber());
-
-        if(booking.isPresent()) {
+        if(bookingRepo.existsByPhoneNumber(bookShowRequest.getPhoneNumber())) {
             throw new BookingAlreadyExist("Booking with phone number already exist: " + bookShowRequest.getPhoneNumber());
         } else {
-            var seat = BookedSeat.builder()
-                    .phoneNumber(bookShowRequest.getPhoneNumber())
-                    .showNumber(bookShowRequest.getShowNumber())
-                    .bookedSeat(bookShowRequest.getBlockedSeat())
-                    .seatStatus(SeatStatus.BLOCKED)
-                    .build();
-            var show =  showRepo.findById(bookShowRequest.getShowNumber()).map(s -> {
-                 List<String> blockedSeat = bookShowRequest.getBlockedSeat();
-                 if(s.getAvailableSeats().containsAll(blockedSeat)) {
-                     ArrayList<String> availableSeats = new ArrayList<>(s.getAvailableSeats());
-                     availableSeats.removeAll(blockedSeat);
-                     s.setAvailableSeats(availableSeats);
-                     ArrayList<String> blockedSeats = new ArrayList<>(s.getBlockedSeats());
-                     blockedSeats.addAll(blockedSeat);
-                     s.setBlockedSeats(blockedSeats);
-                     showRepo.save(s);
-                     return s;
-                 } else return null;
-             });
+            var saved = new ArrayList<BookedSeat>(1);
+            Optional<Show> show;
+            try {
+                show = updateShow(bookShowRequest.getShowNumber(), s -> {
+                    saved.clear();
+                    var seat = blockSeats(s, bookShowRequest);
+                    if (seat == null) return null;
+                    saveShow(s);
+                    saved.add(bookingRepo.save(seat));
+                    return s;
+                });
+            } catch (ObjectOptimisticLockingFailureException e) {
+                show = Optional.empty();
+            }
             if(show.isPresent()) {
-                return bookingRepo.save(seat);
+                var seat = saved.get(0);
+                seatHoldTimer.schedule(seat.getTicketId(), seat.getHoldExpiresAt());
+                return seat;
             } else {
                 throw new BookingUnSuccessful("There was error while booking try again");
             }
@@ -66,33 +132,87 @@ public class SeatBookingImpl implements SeatBookingService {
     }
 
     @Override
-    public BookedSeat updateBooking(BookShowRequest bookShowRequest, SeatStatus seatStatus) throws BookingNotFound {
-       return  bookingRepo.findByPhoneNumber(bookShowRequest.getPhoneNumber())
-               .map(booking -> {
-                   booking.setSeatStatus(seatStatus);
-                   return showRepo.findById(bookShowRequest.getShowNumber()).map(s -> {
-                       var blockedSeat = bookShowRequest.getBlockedSeat();
-                       if (seatStatus.equals(SeatStatus.BOOKED)) {
-                           var cur = Date.from(Instant.now());
-                           if(cur.getTime() - booking.getBookingTime().getTime() < s.getCancellationWindow()) {
-                               updateShowForBooked(s, blockedSeat);
-                           } else {
-                               updateShowForCancel(s, blockedSeat);
-                           }
-                       }
-                       if (seatStatus.equals(SeatStatus.CANCELED)) {
-                           updateShowForCancel(s, blockedSeat);
-                       }
-                       bookingRepo.save(booking);
-                       showRepo.save(s);
-                       return booking;
-                   }).orElseThrow(() ->new RuntimeException("Error while processing"));
-               }).orElseThrow(() -> new BookingNotFound("Booking not found"));
+    public List<BulkBookingResult> bookSeats(List<BookShowRequest> bookShowRequests) throws BookingUnSuccessful {
+        if (bookShowRequests.size() > MAX_BULK_BOOKINGS) {
+            throw new BookingUnSuccessful("At most " + MAX_BULK_BOOKINGS + " bookings can be made at once");
+        }
+        var results = new BulkBookingResult[bookShowRequests.size()];
+        Set<Long> phoneNumbers = new HashSet<>(bookingRepo.findExistingPhoneNumbers(bookShowRequests.stream()
+                .map(BookShowRequest::getPhoneNumber)
+                .collect(Collectors.toSet())));
+        Map<Long, List<Integer>> requestsByShow = new LinkedHashMap<>();
+        for (int i = 0; i < results.length; i++) {
+            var request = bookShowRequests.get(i);
+            if (!phoneNumbers.add(request.getPhoneNumber())) {
+                results[i] = BulkBookingResult.failed("Booking with phone number already exist: " + request.getPhoneNumber());
+            } else {
+                requestsByShow.computeIfAbsent(request.getShowNumber(), showId -> new ArrayList<>()).add(i);
+            }
+        }
+        requestsByShow.forEach((showId, indexes) -> bookShow(showId, indexes, bookShowRequests, results));
+        return Arrays.asList(results);
+    }
+
+    /**
+     * Books the requests at {@code indexes}, all for the same show, with one show save and one batch of booking
+     * inserts in a single transaction.
+     */
+    private void bookShow(Long showId, List<Integer> indexes, List<BookShowRequest> requests, BulkBookingResult[] results) {
+        var outcome = new HashMap<Integer, BulkBookingResult>();
+        String failure = null;
+        try {
+            var show = updateShow(showId, s -> {
+                outcome.clear();
+                var seats = new ArrayList<BookedSeat>();
+                var booked = new ArrayList<Integer>();
+                for (Integer index : indexes) {
+                    var seat = blockSeats(s, requests.get(index));
+                    if (seat == null) {
+                        outcome.put(index, BulkBookingResult.failed("There was error while booking try again"));
+                    } else {
+                        seats.add(seat);
+                        booked.add(index);
+                    }
+                }
+                if (!seats.isEmpty()) {
+                    saveShow(s);
+                    var saved = bookingRepo.saveAll(seats);
+                    for (int i = 0; i < booked.size(); i++) {
+                        outcome.put(booked.get(i), BulkBookingResult.booked(saved.get(i)));
+                    }
+                }
+                return s;
+            });
+            if (show.isEmpty()) failure = "Show not found with given id: " + showId;
+        } catch (ObjectOptimisticLockingFailureException e) {
+            failure = "There was error while booking try again";
+        }
+        for (Integer index : indexes) {
+            var result = failure == null ? outcome.get(index) : BulkBookingResult.failed(failure);
+            if (result.getBookedSeat() != null) {
+                seatHoldTimer.schedule(result.getBookedSeat().getTicketId(), result.getBookedSeat().getHoldExpiresAt());
+            }
+            results[index] = result;
+        }
+    }
+
+    @Override
+    public BookedSeat updateBooking(BookShowRequest bookShowRequest, SeatStatus seatStatus) throws BookingUnSuccessful, BookingNotFound {
+        var booking = bookingRepo.findLatestByPhoneNumber(bookShowRequest.getPhoneNumber())
+                .orElseThrow(() -> new BookingNotFound("Booking not found"));
+        var status = seatStatus;
+        if (status.equals(SeatStatus.BOOKED) && isHoldExpired(booking, System.currentTimeMillis())) {
+            status = SeatStatus.CANCELED;
+        }
+        if (!changeStatus(booking, status)) {
+            throw new BookingUnSuccessful("Booking can not be changed from " + booking.getSeatStatus() + " to " + status);
+        }
+        return booking;
     }
 
     @Override
     public BookedSeat findBooking(Long phoneNumber) throws BookingNotFound {
-        return bookingRepo.findByPhoneNumber(phoneNumber)
+        return bookingRepo.findLatestByPhoneNumber(phoneNumber)
                 .orElseThrow(() ->
                 new BookingNotFound("No booking found for the given phone number: "+ phoneNumber.toString()));
     }
@@ -109,42 +229,224 @@ public class SeatBookingImpl implements SeatBookingService {
         return bookingRepo.findByShowNumber(showId);
     }
 
+    @Override
+    public CursorPage<BookingSummary> findBookingPageForShow(Long showId, Long after, int limit) {
+        int pageSize = CursorPage.limit(limit);
+        var bookings = bookingRepo.findByShowNumberAndTicketIdGreaterThanOrderByTicketIdAsc(
+                showId, after == null ? 0L : after, PageRequest.of(0, pageSize + 1));
+        return CursorPage.of(bookings, pageSize, BookingSummary::getTicketId);
+    }
+
     @Override
     public BookedSeat cancelBookingTicketById(Long ticketId) throws BookingNotFound, ShowNotFound {
         var booking = findBookingByTicketId(ticketId);
-        booking.setSeatStatus(SeatStatus.CANCELED);
-        bookingRepo.save(booking);
-        var show =  showRepo.findById(booking.getShowNumber()).map(s -> {
-            var blockedSeat = booking.getBookedSeat();
-            updateShowForCancel(s, blockedSeat);
-            showRepo.save(s);
+        if (booking.getSeatStatus().equals(SeatStatus.CANCELED)) return booking;
+        try {
+            if (!changeStatus(booking, SeatStatus.CANCELED)) {
+                // confirmed or canceled in the meantime, cancel again from the current status
+                return cancelBookingTicketById(ticketId);
+            }
+        } catch (IllegalStateException e) {
+            throw new ShowNotFound("something went wrong show could not be found");
+        }
+        return booking;
+    }
+
+    @Override
+    public List<BookedSeat> releaseExpiredHolds(List<Long> ticketIds) {
+        long now = System.currentTimeMillis();
+        Map<Long, List<BookedSeat>> expiredByShow = new HashMap<>();
+        for (BookedSeat booking : bookingRepo.findByTicketIdIn(ticketIds)) {
+            if (booking.getSeatStatus().equals(SeatStatus.BLOCKED) && isHoldExpired(booking, now)) {
+                expiredByShow.computeIfAbsent(booking.getShowNumber(), showId -> new ArrayList<>()).add(booking);
+            }
+        }
+        List<BookedSeat> released = new ArrayList<>();
+        expiredByShow.forEach((showId, bookings) -> {
+            var canceled = new ArrayList<BookedSeat>(bookings.size());
+            try {
+                updateShow(showId, s -> {
+                    canceled.clear();
+                    for (BookedSeat booking : bookings) {
+                        if (bookingRepo.updateSeatStatus(booking.getTicketId(), SeatStatus.BLOCKED, SeatStatus.CANCELED) == 1) {
+                            moveSeats(s, booking.getBookedSeat(), SeatState.BLOCKED, SeatState.AVAILABLE);
+                            canceled.add(booking);
+                        }
+                    }
+                    if (canceled.isEmpty()) return null;
+                    saveShow(s);
+                    return s;
+                });
+            } catch (RuntimeException e) {
+                log.error("Failed to release {} expired seat holds of show {}, retrying on next tick", bookings.size(), showId, e);
+                bookings.forEach(booking -> seatHoldTimer.schedule(booking.getTicketId(), new Date(now)));
+                return;
+            }
+            canceled.forEach(booking -> booking.setSeatStatus(SeatStatus.CANCELED));
+            released.addAll(canceled);
+        });
+        return released;
+    }
+
+    /**
+     * Moves the booking to {@code to} and its seats along with it, in the transaction that saves the show. The
+     * booking status is changed with a conditional update, so of a confirmation, a cancellation and the hold expiry
+     * racing on the same booking only one wins and the seats are moved exactly once, and a failure to move the
+     * seats leaves the status as it was.
+     *
+     * @return false when the transition is not allowed or the booking was changed concurrently
+     * @throws IllegalStateException when the show of the booking no longer exists
+     */
+    private boolean changeStatus(BookedSeat booking, SeatStatus to) {
+        SeatStatus from = booking.getSeatStatus();
+        boolean allowed = to.equals(SeatStatus.BOOKED) ? from.equals(SeatStatus.BLOCKED)
+                : to.equals(SeatStatus.CANCELED) && !from.equals(SeatStatus.CANCELED);
+        if (!allowed) {
+            return false;
+        }
+        SeatState heldAs = from.equals(SeatStatus.BOOKED) ? SeatState.BOOKED : SeatState.BLOCKED;
+        SeatState releasedAs = to.equals(SeatStatus.BOOKED) ? SeatState.BOOKED : SeatState.AVAILABLE;
+        var showFound = new boolean[1];
+        Optional<Show> show = updateShow(booking.getShowNumber(), s -> {
+            showFound[0] = true;
+            if (bookingRepo.updateSeatStatus(booking.getTicketId(), from, to) == 0) return null;
+            moveSeats(s, booking.getBookedSeat(), heldAs, releasedAs);
+            saveShow(s);
             return s;
         });
-        if(!show.isPresent()) throw new ShowNotFound("something went wrong show could not be found");
-        return booking;
+        if (!showFound[0]) {
+            throw new IllegalStateException("Error while processing");
+        }
+        if (show.isEmpty()) {
+            countConflict("booking_status");
+            return false;
+        }
+        booking.setSeatStatus(to);
+        return true;
+    }
+
+    /**
+     * Blocks the requested seats on {@code s} if they are all available. Requests that name no seats but a
+     * {@link BookShowRequest#getNumberOfSeats() number of seats} get the best block of adjacent free seats.
+     *
+     * @return the new booking holding the seats, or null when a seat is unknown or taken
+     */
+    private BookedSeat blockSeats(Show s, BookShowRequest request) {
+        SeatMap seatMap = s.seatMap();
+        List<String> labels = request.getBlockedSeat();
+        int[] blockedSeat;
+        if ((labels == null || labels.isEmpty()) && request.getNumberOfSeats() != null) {
+            blockedSeat = seatBlockIndexes.forShow(s).best(request.getNumberOfSeats());
+            if (blockedSeat == null) return null;
+        } else {
+            blockedSeat = seatMap.indexesOf(labels);
+            if (blockedSeat == null || !seatMap.allIn(blockedSeat, SeatState.AVAILABLE)) {
+                return null;
+            }
+        }
+        seatMap.set(blockedSeat, SeatState.BLOCKED);
+        seatBlockIndexes.changed(s, blockedSeat);
+        var seat = BookedSeat.builder()
+                .phoneNumber(request.getPhoneNumber())
+                .showNumber(request.getShowNumber())
+                .bookedSeat(seatMap.labels(blockedSeat))
+                .seatStatus(SeatStatus.BLOCKED)
+                .build();
+        seat.setHoldExpiresAt(new Date(seat.getBookingTime().getTime() + s.getCancellationWindow()));
+        return seat;
+    }
+
+    private boolean isHoldExpired(BookedSeat booking, long now) {
+        return booking.getHoldExpiresAt() != null && now >= booking.getHoldExpiresAt().getTime();
+    }
+
+    /**
+     * Applies {@code change} to the latest state of the show, one change to a show at a time. With show lanes on
+     * the change is queued to the lane of the show and applied in a batch with the changes queued next to it,
+     * otherwise it is applied on the calling thread holding the show's lock.
+     *
+     * @param change mutates and saves the show, returns null when the change cannot be applied
+     */
+    private Optional<Show> updateShow(Long showId, Function<Show, Show> change) {
+        if (showLanes != null) {
+            return showLanes.submit(showId, change);
+        }
+        Lock lock = showLocks.forShow(showId);
+        lock.lock();
+        try {
+            return applyChanges(showId, List.of(change)).get(0);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Applies {@code changes} in order to the latest state of the show, loaded once. The caller keeps other
+     * changes to the show on this instance out, the {@link Show#getVersion() version} check on save catches
+     * writes from other instances, in which case the show is re-read and the changes applied again. Each attempt
+     * runs in its own transaction, so whatever the changes save is written together with the show. The cached
+     * availability of the show is refreshed and the changed seats are streamed once the changes are committed.
+     *
+     * @return the result of each change, empty when it could not be applied or the show does not exist
+     */
+    private List<Optional<Show>> applyChanges(Long showId, List<Function<Show, Show>> changes) {
+        for (int attempt = 1; ; attempt++) {
+            var loaded = new Show[1];
+            boolean committed = false;
+            try {
+                var before = new byte[1][];
+                var loadedVersion = new Long[1];
+                var results = new ArrayList<Optional<Show>>(changes.size());
+                Optional<Show> changed = transactionOperations.execute(status -> showRepo.findById(showId).map(s -> {
+                    before[0] = s.seatMap().states().clone();
+                    loaded[0] = s;
+                    loadedVersion[0] = s.getVersion();
+                    Show last = null;
+                    for (Function<Show, Show> change : changes) {
+                        Show result = change.apply(s);
+                        results.add(Optional.ofNullable(result));
+                        if (result != null) last = result;
+                    }
+                    return last;
+                }));
+                changed.ifPresent(s -> {
+                    seatBlockIndexes.committed(s, loadedVersion[0]);
+                    showAvailabilityCache.update(s);
+                    showSeatStream.publish(s, before[0]);
+                });
+                committed = changed.isPresent();
+                while (results.size() < changes.size()) {
+                    results.add(Optional.empty());
+                }
+                return results;
+            } catch (ObjectOptimisticLockingFailureException e) {
+                countConflict("show_version");
+                if (attempt >= MAX_SAVE_ATTEMPTS) throw e;
+                log.warn("Show {} was changed concurrently, retrying {}/{}", showId, attempt, MAX_SAVE_ATTEMPTS);
+            } finally {
+                if (!committed && loaded[0] != null) seatBlockIndexes.rolledBack(loaded[0]);
+            }
+        }
+    }
+
+    private void saveShow(Show s) {
+        s.recordSeatChanges();
+        showRepo.save(s);
+    }
+
+    private void countConflict(String kind) {
+        meterRegistry.counter(CONFLICTS, "kind", kind).increment();
+    }
+
+    private void moveSeats(Show s, List<String> labels, SeatState from, SeatState to) {
+        SeatMap seatMap = s.seatMap();
+        int[] seats = seatsOf(seatMap, labels);
+        seatMap.move(seats, from, to);
+        seatBlockIndexes.changed(s, seats);
     }
 
-    private void updateShowForCancel(Show s, List<String> blockedSeat) {
-        ArrayList<String> availableSeats = new ArrayList<>(s.getAvailableSeats());
-        availableSeats.addAll(blockedSeat);
-        s.setAvailableSeats(availableSeats);
-        ArrayList<String> blockedSeats = new ArrayList<>(s.getBlockedSeats());
-        blockedSeats.removeAll(blockedSeat);
-        s.setBlockedSeats(blockedSeats);
-        ArrayList<String> bookedSeats = new ArrayList<>(s.getBlockedSeats());
-        bookedSeats.removeAll(blockedSeat);
-        s.setBookedSeats(blockedSeats);
-    }
-
-    private void updateShowForBooked(Show s, List<String> blockedSeat) {
-        ArrayList<String> availableSeats = new ArrayList<>(s.getAvailableSeats());
-        availableSeats.removeAll(blockedSeat);
-        s.setAvailableSeats(availableSeats);
-        ArrayList<String> blockedSeats = new ArrayList<>(s.getBlockedSeats());
-        blockedSeats.removeAll(blockedSeat);
-        s.setBlockedSeats(blockedSeats);
-        ArrayList<String> bookedSeats = new ArrayList<>(s.getBlockedSeats());
-        bookedSeats.addAll(blockedSeat);
-        s.setBookedSeats(blockedSeats);
+    private int[] seatsOf(SeatMap seatMap, List<String> labels) {
+        int[] seats = seatMap.indexesOf(labels);
+        return seats == null ? new int[0] : seats;
     }
 }
@@ -0,0 +1,190 @@
+package com.skp.bookshow.service.impl;
+
+import com.skp.bookshow.model.Show;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Function;
+
+/**
+ * Fixed set of single-threaded lanes shared by all shows, every change to a show runs on the lane the show
+ * hashes to. A lane takes whatever changes are queued when it gets to them and hands the changes of each show
+ * to {@link Batch} together, so a busy show is loaded and saved once for many bookings and never contended.
+ * Different shows mostly land on different lanes and proceed in parallel.
+ */
+final class ShowLanes implements AutoCloseable {
+    private final Lane[] lanes;
+    private final int maxBatch;
+    private final Batch batch;
+    private volatile boolean closed;
+
+    /**
+     * Applies the changes of one show in order.
+     */
+    interface Batch {
+        /**
+         * @return the result of each change, in the same order
+         */
+        List<Optional<Show>> apply(Long showId, List<Function<Show, Show>> changes);
+    }
+
+    ShowLanes(int numberOfLanes, int capacity, int maxBatch, Batch batch) {
+        if (Integer.bitCount(numberOfLanes) != 1) {
+            throw new IllegalArgumentException("Number of lanes must be a power of two: " + numberOfLanes);
+        }
+        this.maxBatch = maxBatch;
+        this.batch = batch;
+        this.lanes = new Lane[numberOfLanes];
+        for (int i = 0; i < numberOfLanes; i++) {
+            lanes[i] = new Lane("show-lane-" + i, capacity);
+        }
+    }
+
+    /**
+     * Runs {@code change} on the lane of the show and waits for it, rethrowing what it threw. Changes submitted
+     * from the lane itself run right away.
+     */
+    Optional<Show> submit(Long showId, Function<Show, Show> change) {
+        Lane lane = forShow(showId);
+        if (Thread.currentThread() == lane.thread) {
+            return batch.apply(showId, List.of(change)).get(0);
+        }
+        if (closed) throw new IllegalStateException("Show lanes are closed");
+        var command = new Command(showId, change);
+        try {
+            lane.queue.put(command);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while queueing a change of show " + showId, e);
+        }
+        if (closed) lane.failQueued();
+        try {
+            return command.result.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) throw (RuntimeException) e.getCause();
+            if (e.getCause() instanceof Error) throw (Error) e.getCause();
+            throw e;
+        }
+    }
+
+    /**
+     * @return changes queued on all lanes and not yet taken up
+     */
+    int backlog() {
+        int backlog = 0;
+        for (Lane lane : lanes) {
+            backlog += lane.queue.size();
+        }
+        return backlog;
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        for (Lane lane : lanes) {
+            lane.thread.interrupt();
+        }
+        for (Lane lane : lanes) {
+            try {
+                lane.thread.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            lane.failQueued();
+        }
+    }
+
+    private Lane forShow(Long showId) {
+        int hash = Objects.hashCode(showId);
+        hash ^= hash >>> 16;
+        return lanes[hash & (lanes.length - 1)];
+    }
+
+    private final class Lane {
+        private final BlockingQueue<Command> queue;
+        private final Thread thread;
+
+        Lane(String name, int capacity) {
+            this.queue = new ArrayBlockingQueue<>(capacity);
+            this.thread = new Thread(this::run, name);
+            this.thread.setDaemon(true);
+            this.thread.start();
+        }
+
+        private void run() {
+            List<Command> commands = new ArrayList<>(maxBatch);
+            try {
+                while (true) {
+                    commands.add(queue.take());
+                    queue.drainTo(commands, maxBatch - 1);
+                    Map<Long, List<Command>> byShow = new LinkedHashMap<>();
+                    for (Command command : commands) {
+                        byShow.computeIfAbsent(command.showId, showId -> new ArrayList<>()).add(command);
+                    }
+                    byShow.forEach(this::apply);
+                    commands.clear();
+                }
+            } catch (InterruptedException e) {
+                commands.forEach(this::fail);
+                failQueued();
+            }
+        }
+
+        private void failQueued() {
+            for (Command command = queue.poll(); command != null; command = queue.poll()) {
+                fail(command);
+            }
+        }
+
+        private void fail(Command command) {
+            command.result.completeExceptionally(new IllegalStateException("Show lanes are closed"));
+        }
+
+        /**
+         * Applies the changes as one batch. When the batch fails each change is applied on its own, so a change
+         * that cannot be applied fails only its own caller.
+         */
+        private void apply(Long showId, List<Command> commands) {
+            List<Function<Show, Show>> changes = new ArrayList<>(commands.size());
+            commands.forEach(command -> changes.add(command.change));
+            try {
+                List<Optional<Show>> results = batch.apply(showId, changes);
+                for (int i = 0; i < commands.size(); i++) {
+                    commands.get(i).result.complete(results.get(i));
+                }
+                return;
+            } catch (RuntimeException | Error e) {
+                if (commands.size() == 1) {
+                    commands.get(0).result.completeExceptionally(e);
+                    return;
+                }
+            }
+            for (Command command : commands) {
+                try {
+                    command.result.complete(batch.apply(showId, List.of(command.change)).get(0));
+                } catch (RuntimeException | Error e) {
+                    command.result.completeExceptionally(e);
+                }
+            }
+        }
+    }
+
+    private static final class Command {
+        private final Long showId;
+        private final Function<Show, Show> change;
+        private final CompletableFuture<Optional<Show>> result = new CompletableFuture<>();
+
+        Command(Long showId, Function<Show, Show> change) {
+            this.showId = showId;
+            this.change = change;
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package com.skp.bookshow.service.impl;
+
+import java.util.Objects;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Fixed set of lock stripes shared by all shows. Changes to one show are serialized while
+ * different shows mostly land on different stripes and proceed in parallel.
+ */
+final class ShowLocks {
+    private final ReentrantLock[] stripes;
+
+    ShowLocks(int numberOfStripes) {
+        if (Integer.bitCount(numberOfStripes) != 1) {
+            throw new IllegalArgumentException("Number of stripes must be a power of two: " + numberOfStripes);
+        }
+        stripes = new ReentrantLock[numberOfStripes];
+        for (int i = 0; i < numberOfStripes; i++) {
+            stripes[i] = new ReentrantLock();
+        }
+    }
+
+    Lock forShow(Long showId) {
+        int hash = Objects.hashCode(showId);
+        hash ^= hash >>> 16;
+        return stripes[hash & (stripes.length - 1)];
+    }
+}
@@ -1,16 +1,28 @@
 package com.skp.bookshow.service.impl;
 
+import com.skp.bookshow.cache.SeatMapFormat;
+import com.skp.bookshow.cache.SerializedSeatMap;
+import com.skp.bookshow.cache.ShowAvailability;
+import com.skp.bookshow.cache.ShowAvailabilityCache;
+import com.skp.bookshow.cache.ShowSchedule;
 import com.skp.bookshow.exception.ShowNotFound;
+import com.skp.bookshow.model.SeatMap;
 import com.skp.bookshow.model.Show;
+import com.skp.bookshow.model.projection.ShowSummary;
 import com.skp.bookshow.model.request.ShowRequest;
+import com.skp.bookshow.model.response.CursorPage;
+import com.skp.bookshow.model.response.ScheduledShow;
 import com.skp.bookshow.model.response.ShowDetailsForGuestResponse;
 import com.skp.bookshow.repository.MovieRepo;
 import com.skp.bookshow.repository.ShowRepo;
 import com.skp.bookshow.service.ShowService;
+import com.skp.bookshow.stream.SeatEventEmitter;
+import com.skp.bookshow.stream.ShowSeatStream;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 
-import java.util.ArrayList;
+import java.util.Date;
 import java.util.List;
 
 @Service
@@ -21,10 +33,20 @@ public class ShowServiceImpl implements ShowService {
     @Autowired
     private MovieRepo movieRepo;
 
+    @Autowired
+    private ShowAvailabilityCache showAvailabilityCache;
+
+    @Autowired
+    private ShowSeatStream showSeatStream;
+
+    @Autowired
+    private ShowSchedule showSchedule;
+
     @Override
     public Show createShow(ShowRequest showRequest) {
-        Show show = constructShow(showRequest);
-        return showRepo.save(show);
+        Show show = showRepo.save(constructShow(showRequest));
+        showSchedule.add(show);
+        return show;
     }
 
     @Override
@@ -32,44 +54,56 @@ public class ShowServiceImpl implements ShowService {
         return showRepo.findAll();
     }
 
+    @Override
+    public CursorPage<ShowSummary> findPage(Long after, int limit) {
+        int pageSize = CursorPage.limit(limit);
+        var shows = showRepo.findByIdGreaterThanOrderByIdAsc(after == null ? 0L : after, PageRequest.of(0, pageSize + 1));
+        return CursorPage.of(shows, pageSize, ShowSummary::getId);
+    }
+
+    @Override
+    public CursorPage<ScheduledShow> findSchedule(Long movieId, Date from, Date to, Long after, int limit) {
+        return showSchedule.find(movieId, from, to, after, limit);
+    }
+
     @Override
     public ShowDetailsForGuestResponse findById(Long showId) throws ShowNotFound {
-        return showRepo.findById(showId)
-                .map(s ->
-                ShowDetailsForGuestResponse.builder()
-                        .showNumber(s.getId())
-                        .availableSeat(s.getAvailableSeats())
-                        .blockedSeat(s.getBlockedSeats())
-                        .bookedSeat(s.getBookedSeats())
-                        .build())
-                .orElseThrow(() -> new ShowNotFound("Show not found with given id: " + showId));
+        return findAvailability(showId).details();
+    }
+
+    @Override
+    public SerializedSeatMap findSerializedById(Long showId, SeatMapFormat format, boolean acceptsGzip) throws ShowNotFound {
+        return showAvailabilityCache.serialize(findAvailability(showId), format, acceptsGzip);
+    }
 
+    @Override
+    public SeatEventEmitter streamById(Long showId) throws ShowNotFound {
+        findAvailability(showId);
+        return showSeatStream.subscribe(showId, () -> showAvailabilityCache.get(showId, showRepo::findById)
+                .orElseThrow(() -> new IllegalStateException("Show " + showId + " was removed")));
+    }
+
+    private ShowAvailability findAvailability(Long showId) throws ShowNotFound {
+        return showAvailabilityCache.get(showId, showRepo::findById)
+                .orElseThrow(() -> new ShowNotFound("Show not found with given id: " + showId));
     }
 
     public Show constructShow(ShowRequest showRequest) {
 
-        List<String> availableSeats = createSeats(showRequest.getNumberOfRows(), showRequest.getNumberOfSeatsPerRows());
+        SeatMap seatMap = createSeats(showRequest.getNumberOfRows(), showRequest.getNumberOfSeatsPerRows());
 
         return Show.builder()
                 .showTime(showRequest.getShowTime())
                 .cancellationWindow(showRequest.getCancellationWindow())
                 .numberOfRows(showRequest.getNumberOfRows())
                 .numberOfSeatsPerRows(showRequest.getNumberOfSeatsPerRows())
-                .availableSeats(availableSeats)
-                .bookedSeats(List.of())
-                .blockedSeats(List.of())
+                .seatStates(seatMap.states())
+                .availableSeatCount(seatMap.size())
                 .movieId(showRequest.getMovieId())
                 .build();
     }
 
-    private List<String> createSeats(int numberOfRows, int numberOfSeatsPerRows) {
-        List<String> seats = new ArrayList<>();
-        for(int i =0; i < numberOfRows; i++) {
-            for(int j =1; j <= numberOfSeatsPerRows; j++) {
-                String seat = (char) (65 + i) + String.valueOf(j);
-                seats.add(seat);
-            }
-        }
-        return seats;
+    private SeatMap createSeats(int numberOfRows, int numberOfSeatsPerRows) {
+        return SeatMap.empty(numberOfRows, numberOfSeatsPerRows);
     }
 }
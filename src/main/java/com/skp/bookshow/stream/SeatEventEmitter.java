@@ -0,0 +1,39 @@
+package com.skp.bookshow.stream;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.Set;
+
+/**
+ * Server-sent event stream of a show's seats. Events are built once with {@link SseEmitter#event()} and what
+ * that built is written to every subscriber as is, an {@link SseEmitter} would take a builder per subscriber.
+ */
+public class SeatEventEmitter extends ResponseBodyEmitter {
+
+    public SeatEventEmitter(long timeoutMs) {
+        super(timeoutMs);
+    }
+
+    @Override
+    protected void extendResponse(ServerHttpResponse outputMessage) {
+        super.extendResponse(outputMessage);
+        HttpHeaders headers = outputMessage.getHeaders();
+        if (headers.getContentType() == null) {
+            headers.setContentType(MediaType.TEXT_EVENT_STREAM);
+        }
+    }
+
+    /**
+     * @param event what {@link SseEmitter.SseEventBuilder#build()} returned
+     */
+    synchronized void send(Set<DataWithMediaType> event) throws IOException {
+        for (DataWithMediaType data : event) {
+            send(data.getData(), data.getMediaType());
+        }
+    }
+}
@@ -0,0 +1,295 @@
+package com.skp.bookshow.stream;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.skp.bookshow.cache.ShowAvailability;
+import com.skp.bookshow.cache.ShowAvailabilityCache;
+import com.skp.bookshow.model.SeatMap;
+import com.skp.bookshow.model.Show;
+import com.skp.bookshow.model.enums.SeatState;
+import com.skp.bookshow.model.response.SeatMapDelta;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter.DataWithMediaType;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Pushes seat map changes to the server-sent event subscribers of a show. A change is serialized once into an
+ * event which is queued in the show's buffer and written to every subscriber by a dispatcher thread, so saving
+ * a change never waits on a client. New subscribers first get a snapshot of the whole show, then the deltas newer
+ * than it. The snapshot goes through the show's buffer like the deltas, deltas queued before it are skipped. A
+ * subscriber joins the show before its snapshot is read, so every change saved meanwhile is seen to be newer.
+ * <p>
+ * When a show's buffer overflows because its subscribers are too slow, they are disconnected and get a fresh
+ * snapshot when they reconnect. Only changes saved on this instance are streamed.
+ */
+@Component
+@Slf4j
+public class ShowSeatStream {
+    private static final int MAX_SNAPSHOT_ATTEMPTS = 3;
+
+    private final Map<Long, Topic> topics = new ConcurrentHashMap<>();
+    private final ExecutorService dispatcher;
+    private final ShowAvailabilityCache showAvailabilityCache;
+    private final ObjectMapper objectMapper;
+    private final int bufferSize;
+    private final long timeoutMs;
+
+    public ShowSeatStream(@Value("${bookshow.show-stream.buffer-size:256}") int bufferSize,
+                          @Value("${bookshow.show-stream.timeout-ms:1800000}") long timeoutMs,
+                          @Value("${bookshow.show-stream.dispatch-threads:2}") int dispatchThreads,
+                          ShowAvailabilityCache showAvailabilityCache,
+                          ObjectMapper objectMapper) {
+        this.bufferSize = bufferSize;
+        this.timeoutMs = timeoutMs;
+        this.showAvailabilityCache = showAvailabilityCache;
+        this.objectMapper = objectMapper;
+        this.dispatcher = Executors.newFixedThreadPool(dispatchThreads, r -> {
+            Thread thread = new Thread(r, "show-seat-stream");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * @param snapshot reads the current availability of the show, it is read again when a newer change was
+     *                 published meanwhile, so no change falls between the snapshot and the first delta
+     */
+    public SeatEventEmitter subscribe(Long showId, Supplier<ShowAvailability> snapshot) {
+        SeatEventEmitter emitter = newEmitter();
+        topics.compute(showId, (id, current) -> {
+            Topic t = current == null ? new Topic() : current;
+            t.joining++;
+            return t;
+        });
+        try {
+            return admit(showId, emitter, snapshot);
+        } finally {
+            topics.computeIfPresent(showId, (id, t) -> {
+                t.joining--;
+                return t.isIdle() ? null : t;
+            });
+        }
+    }
+
+    public boolean isWatched(Long showId) {
+        return topics.containsKey(showId);
+    }
+
+    /**
+     * Publishes the seats of {@code show} that differ from {@code before}, does nothing when nobody watches it.
+     */
+    public void publish(Show show, byte[] before) {
+        if (!isWatched(show.getId())) return;
+        long version = versionOf(show.getVersion());
+        SeatMap seatMap = show.seatMap();
+        SeatMapDelta delta = SeatMapDelta.builder()
+                .showNumber(show.getId())
+                .version(version)
+                .availableSeat(new ArrayList<>())
+                .blockedSeat(new ArrayList<>())
+                .bookedSeat(new ArrayList<>())
+                .build();
+        byte[] after = seatMap.states();
+        for (int i = 0; i < after.length; i++) {
+            if (after[i] != before[i]) {
+                changedSeats(delta, SeatState.of(after[i])).add(seatMap.label(i));
+            }
+        }
+        Event event;
+        try {
+            event = new Event(null, version, SseEmitter.event()
+                    .id(String.valueOf(version))
+                    .name("delta")
+                    .data(objectMapper.writeValueAsString(delta), MediaType.APPLICATION_JSON)
+                    .build());
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize seat changes of show " + show.getId(), e);
+        }
+        List<SeatEventEmitter> overflowed = new ArrayList<>();
+        Topic topic = topics.computeIfPresent(show.getId(), (id, t) -> {
+            t.lastVersion = Math.max(t.lastVersion, version);
+            if (t.pending.get() >= bufferSize) {
+                t.subscribers.forEach(subscriber -> overflowed.add(subscriber.emitter));
+                if (t.joining == 0) return null;
+                Topic joined = new Topic();
+                joined.joining = t.joining;
+                joined.lastVersion = t.lastVersion;
+                return joined;
+            }
+            t.enqueue(event);
+            return t;
+        });
+        if (!overflowed.isEmpty()) {
+            log.warn("Seat stream buffer of show {} overflowed, disconnecting {} subscribers", show.getId(), overflowed.size());
+            overflowed.forEach(SeatEventEmitter::complete);
+        } else if (topic != null) {
+            schedule(topic);
+        }
+    }
+
+    public int subscriberCount(Long showId) {
+        Topic topic = topics.get(showId);
+        return topic == null ? 0 : topic.subscribers.size();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        dispatcher.shutdownNow();
+        topics.values().forEach(t -> t.subscribers.forEach(subscriber -> subscriber.emitter.complete()));
+        topics.clear();
+    }
+
+    SeatEventEmitter newEmitter() {
+        return new SeatEventEmitter(timeoutMs);
+    }
+
+    private SeatEventEmitter admit(Long showId, SeatEventEmitter emitter, Supplier<ShowAvailability> snapshot) {
+        for (int attempt = 1; ; attempt++) {
+            ShowAvailability availability = snapshot.get();
+            long version = versionOf(availability.getVersion());
+            Subscriber subscriber = new Subscriber(emitter, version);
+            Event event = new Event(subscriber, version, SseEmitter.event()
+                    .id(String.valueOf(version))
+                    .name("snapshot")
+                    .data(showAvailabilityCache.json(availability), MediaType.APPLICATION_JSON)
+                    .build());
+            boolean lastAttempt = attempt >= MAX_SNAPSHOT_ATTEMPTS;
+            AtomicBoolean subscribed = new AtomicBoolean();
+            Topic topic = topics.compute(showId, (id, current) -> {
+                Topic t = current == null ? new Topic() : current;
+                if (lastAttempt || version >= t.lastVersion) {
+                    t.subscribers.add(subscriber);
+                    t.enqueue(event);
+                    subscribed.set(true);
+                }
+                return t;
+            });
+            if (subscribed.get()) {
+                emitter.onCompletion(() -> unsubscribe(showId, emitter));
+                emitter.onTimeout(() -> unsubscribe(showId, emitter));
+                emitter.onError(e -> unsubscribe(showId, emitter));
+                schedule(topic);
+                return emitter;
+            }
+        }
+    }
+
+    private void unsubscribe(Long showId, SeatEventEmitter emitter) {
+        topics.computeIfPresent(showId, (id, t) -> {
+            t.subscribers.removeIf(subscriber -> subscriber.emitter == emitter);
+            return t.isIdle() ? null : t;
+        });
+    }
+
+    private void schedule(Topic topic) {
+        if (topic.draining.compareAndSet(false, true)) {
+            dispatcher.execute(() -> drain(topic));
+        }
+    }
+
+    private void drain(Topic topic) {
+        do {
+            Event event;
+            while ((event = topic.events.poll()) != null) {
+                topic.pending.decrementAndGet();
+                if (event.target != null) {
+                    send(event.target.emitter, event.data);
+                    event.target.snapshotSent = true;
+                } else {
+                    for (Subscriber subscriber : topic.subscribers) {
+                        if (subscriber.snapshotSent && event.version > subscriber.snapshotVersion) {
+                            send(subscriber.emitter, event.data);
+                        }
+                    }
+                }
+            }
+            topic.draining.set(false);
+        } while (!topic.events.isEmpty() && topic.draining.compareAndSet(false, true));
+    }
+
+    private void send(SeatEventEmitter emitter, Set<DataWithMediaType> data) {
+        try {
+            emitter.send(data);
+        } catch (IOException | IllegalStateException e) {
+            emitter.completeWithError(e);
+        }
+    }
+
+    private static List<String> changedSeats(SeatMapDelta delta, SeatState state) {
+        switch (state) {
+            case BLOCKED:
+                return delta.getBlockedSeat();
+            case BOOKED:
+                return delta.getBookedSeat();
+            default:
+                return delta.getAvailableSeat();
+        }
+    }
+
+    private static long versionOf(Long version) {
+        return version == null ? 0 : version;
+    }
+
+    private static final class Topic {
+        private final List<Subscriber> subscribers = new CopyOnWriteArrayList<>();
+        private final Queue<Event> events = new ConcurrentLinkedQueue<>();
+        private final AtomicInteger pending = new AtomicInteger();
+        private final AtomicBoolean draining = new AtomicBoolean();
+        private long lastVersion = Long.MIN_VALUE;
+        /** Subscribers reading their snapshot, only changed inside {@code topics.compute}. */
+        private int joining;
+
+        private void enqueue(Event event) {
+            pending.incrementAndGet();
+            events.add(event);
+        }
+
+        private boolean isIdle() {
+            return subscribers.isEmpty() && joining == 0;
+        }
+    }
+
+    private static final class Subscriber {
+        private final SeatEventEmitter emitter;
+        private final long snapshotVersion;
+        /** Only read and written by the thread draining the topic. */
+        private boolean snapshotSent;
+
+        private Subscriber(SeatEventEmitter emitter, long snapshotVersion) {
+            this.emitter = emitter;
+            this.snapshotVersion = snapshotVersion;
+        }
+    }
+
+    private static final class Event {
+        /** Subscriber the snapshot is for, null for deltas sent to every subscriber. */
+        private final Subscriber target;
+        private final long version;
+        private final Set<DataWithMediaType> data;
+
+        private Event(Subscriber target, long version, Set<DataWithMediaType> data) {
+            this.target = target;
+            this.version = version;
+            this.data = data;
+        }
+    }
+}
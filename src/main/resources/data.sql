@@ -1,3 +1,4 @@
-INSERT INTO Account(phone, password, name, email, accountType) VALUES (123456, 'Amy','some admin', 'some@some.com', 'ADMIN');
-INSERT INTO Movie(DESCRIPTIONS, DURATION_IN_MINUTES, TITLE) VALUES ('some Movie1', 240, 'Movie title');
-INSERT INTO Movie(DESCRIPTIONS, DURATION_IN_MINUTES, TITLE) VALUES ('some Movie2', 240, 'Movie title2');
+INSERT INTO Account(phone, password, name, email, accountType) VALUES (123456, 'pbkdf2-sha256$210000$f3+bhWKusMhpg6lecPm5qA$STn6HEeovN8A+Stcfx4XDhNHsorfnzmKNyv6MtudaPk','some admin', 'some@some.com', 'ADMIN');
+INSERT INTO Movie(ID, DESCRIPTIONS, DURATION_IN_MINUTES, TITLE) VALUES (1, 'some Movie1', 240, 'Movie title');
+INSERT INTO Movie(ID, DESCRIPTIONS, DURATION_IN_MINUTES, TITLE) VALUES (2, 'some Movie2', 240, 'Movie title2');
+ALTER SEQUENCE movie_id_seq RESTART WITH 3;
@@ -0,0 +1,140 @@
+package com.skp.bookshow.cache;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.skp.bookshow.model.IdempotencyRecord;
+import com.skp.bookshow.repository.IdempotencyRecordRepo;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mockito;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.when;
+
+class IdempotencyStoreTest {
+    private final IdempotencyStore store = new IdempotencyStore(100, 60_000, false, new ObjectMapper(), null);
+
+    @Test
+    void execute_should_run_requests_without_key_every_time() {
+        AtomicInteger runs = new AtomicInteger();
+
+        store.execute("booking", null, "request", () -> ResponseEntity.ok(runs.incrementAndGet()));
+        store.execute("booking", " ", "request", () -> ResponseEntity.ok(runs.incrementAndGet()));
+
+        assertEquals(2, runs.get());
+    }
+
+    @Test
+    void execute_should_let_a_retry_wait_for_the_running_request() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger runs = new AtomicInteger();
+        var first = CompletableFuture.supplyAsync(() -> store.execute("booking", "key", "request", () -> {
+            started.countDown();
+            await(release);
+            return ResponseEntity.ok(runs.incrementAndGet());
+        }));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+
+        var retry = CompletableFuture.supplyAsync(() -> store.execute("booking", "key", "request",
+                () -> ResponseEntity.ok(runs.incrementAndGet())));
+        release.countDown();
+
+        assertEquals(1, first.get(5, TimeUnit.SECONDS).getBody());
+        assertEquals(1, retry.get(5, TimeUnit.SECONDS).getBody());
+        assertEquals(1, runs.get());
+    }
+
+    @Test
+    void execute_should_not_keep_server_errors() {
+        AtomicInteger runs = new AtomicInteger();
+
+        store.execute("booking", "key", "request", () -> new ResponseEntity<>(runs.incrementAndGet(), HttpStatus.INTERNAL_SERVER_ERROR));
+        var retry = store.execute("booking", "key", "request", () -> ResponseEntity.ok(runs.incrementAndGet()));
+
+        assertEquals(2, retry.getBody());
+    }
+
+    @Test
+    void execute_should_reject_a_different_request_with_the_same_hash_code() {
+        assertEquals("Aa".hashCode(), "BB".hashCode());
+
+        store.execute("booking", "key", "Aa", () -> ResponseEntity.ok(1));
+        var retry = store.execute("booking", "key", "BB", () -> ResponseEntity.ok(2));
+
+        assertEquals(HttpStatus.UNPROCESSABLE_ENTITY, retry.getStatusCode());
+    }
+
+    @Test
+    void execute_should_persist_and_replay_stored_responses() {
+        IdempotencyRecordRepo recordRepo = Mockito.mock(IdempotencyRecordRepo.class);
+        var persisted = new IdempotencyStore(100, 60_000, true, new ObjectMapper(), recordRepo);
+        Mockito.doThrow(new DataIntegrityViolationException("duplicate key"))
+                .when(recordRepo).insertInFlight(Mockito.eq("booking:old"), Mockito.any(), Mockito.any());
+        when(recordRepo.findById("booking:old")).thenReturn(Optional.of(IdempotencyRecord.builder()
+                .fingerprint(persisted.fingerprint("request"))
+                .status(200)
+                .contentType(MediaType.APPLICATION_JSON_VALUE)
+                .body("{\"ticketId\":1}".getBytes(StandardCharsets.UTF_8))
+                .build()));
+
+        persisted.execute("booking", "new", "request", () -> ResponseEntity.ok(Map.of("ticketId", 2)));
+        ResponseEntity<Object> replayed = persisted.execute("booking", "old", "request", () -> fail("must not run"));
+
+        Mockito.verify(recordRepo).insertInFlight(Mockito.eq("booking:new"), Mockito.eq(persisted.fingerprint("request")), Mockito.any());
+        var saved = ArgumentCaptor.forClass(IdempotencyRecord.class);
+        Mockito.verify(recordRepo).save(saved.capture());
+        assertEquals("booking:new", saved.getValue().getIdempotencyKey());
+        assertEquals("{\"ticketId\":2}", new String(saved.getValue().getBody(), StandardCharsets.UTF_8));
+        assertEquals(MediaType.APPLICATION_JSON, replayed.getHeaders().getContentType());
+        assertArrayEquals("{\"ticketId\":1}".getBytes(StandardCharsets.UTF_8), (byte[]) replayed.getBody());
+    }
+
+    @Test
+    void execute_should_answer_in_flight_when_another_instance_holds_the_key() {
+        IdempotencyRecordRepo recordRepo = Mockito.mock(IdempotencyRecordRepo.class);
+        var persisted = new IdempotencyStore(100, 60_000, true, new ObjectMapper(), recordRepo);
+        Mockito.doThrow(new DataIntegrityViolationException("duplicate key"))
+                .when(recordRepo).insertInFlight(Mockito.eq("booking:key"), Mockito.any(), Mockito.any());
+        when(recordRepo.findById("booking:key")).thenReturn(Optional.of(IdempotencyRecord.builder()
+                .fingerprint(persisted.fingerprint("request"))
+                .status(IdempotencyRecord.IN_FLIGHT)
+                .build()));
+
+        ResponseEntity<Object> response = persisted.execute("booking", "key", "request", () -> fail("must not run"));
+
+        assertEquals(HttpStatus.CONFLICT, response.getStatusCode());
+        Mockito.verify(recordRepo, Mockito.never()).save(Mockito.any());
+    }
+
+    @Test
+    void execute_should_release_the_key_when_the_request_fails() {
+        IdempotencyRecordRepo recordRepo = Mockito.mock(IdempotencyRecordRepo.class);
+        var persisted = new IdempotencyStore(100, 60_000, true, new ObjectMapper(), recordRepo);
+
+        assertThrows(IllegalStateException.class, () -> persisted.execute("booking", "key", "request", () -> {
+            throw new IllegalStateException("failed");
+        }));
+
+        Mockito.verify(recordRepo).deleteInFlight("booking:key");
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package com.skp.bookshow.cache;
+
+import com.skp.bookshow.model.Movie;
+import com.skp.bookshow.repository.MovieRepo;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class MovieCatalogueTest {
+
+    @Mock
+    private MovieRepo movieRepo;
+
+    @InjectMocks
+    private MovieCatalogue catalogue;
+
+    @BeforeEach
+    void load() {
+        when(movieRepo.findAll()).thenReturn(List.of(
+                movie(3L, "The Dark Knight", "Batman faces the Joker in Gotham"),
+                movie(1L, "Star Wars", "A farm boy joins the rebellion"),
+                movie(2L, "Star Trek: Beyond", "The Enterprise crew is stranded")));
+        catalogue.load();
+    }
+
+    @Test
+    void findPage_should_page_by_id() {
+        var first = catalogue.findPage(null, 2);
+        var second = catalogue.findPage(first.getNextCursor(), 2);
+
+        assertEquals(List.of(1L, 2L), ids(first.getItems()));
+        assertEquals(2L, first.getNextCursor());
+        assertEquals(List.of(3L), ids(second.getItems()));
+        assertNull(second.getNextCursor());
+    }
+
+    @Test
+    void search_should_match_every_word_as_prefix() {
+        assertEquals(List.of(1L, 2L), ids(catalogue.search("star", null, 50).getItems()));
+        assertEquals(List.of(2L), ids(catalogue.search("STAR tre", null, 50).getItems()));
+        assertEquals(List.of(3L), ids(catalogue.search("joker", null, 50).getItems()));
+        assertEquals(List.of(), ids(catalogue.search("star joker", null, 50).getItems()));
+        assertEquals(List.of(), ids(catalogue.search("alien", null, 50).getItems()));
+    }
+
+    @Test
+    void search_should_page_after_cursor() {
+        var first = catalogue.search("the", null, 1);
+        var second = catalogue.search("the", first.getNextCursor(), 1);
+
+        assertEquals(List.of(1L), ids(first.getItems()));
+        assertEquals(List.of(2L), ids(second.getItems()));
+        assertEquals(List.of(3L), ids(catalogue.search("the", second.getNextCursor(), 1).getItems()));
+    }
+
+    @Test
+    void search_without_words_should_find_every_movie() {
+        assertEquals(3, catalogue.search(" - ", null, 50).getItems().size());
+    }
+
+    @Test
+    void add_should_index_new_and_replaced_movies() {
+        catalogue.add(movie(4L, "Alien", "In space no one can hear you scream"));
+        catalogue.add(movie(1L, "Star Wars: A New Hope", "A farm boy joins the rebellion"));
+
+        assertEquals(List.of(4L), ids(catalogue.search("alien", null, 50).getItems()));
+        assertEquals(List.of(1L), ids(catalogue.search("hope", null, 50).getItems()));
+        assertEquals(4, catalogue.findAll().size());
+    }
+
+    @Test
+    void tokenize_should_split_on_non_word_characters() {
+        assertEquals(List.of("star", "trek", "beyond", "2016"), MovieCatalogue.tokenize("Star Trek: Beyond (2016)"));
+        assertEquals(List.of(), MovieCatalogue.tokenize(null));
+    }
+
+    private static Movie movie(Long id, String title, String descriptions) {
+        return Movie.builder().id(id).title(title).descriptions(descriptions).durationInMinutes(120).build();
+    }
+
+    private static List<Long> ids(List<Movie> movies) {
+        return movies.stream().map(Movie::getId).collect(Collectors.toList());
+    }
+}
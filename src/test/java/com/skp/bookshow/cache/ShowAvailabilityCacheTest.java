@@ -0,0 +1,129 @@
+package com.skp.bookshow.cache;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.skp.bookshow.model.SeatMap;
+import com.skp.bookshow.model.Show;
+import com.skp.bookshow.model.enums.SeatState;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ShowAvailabilityCacheTest {
+    private final ShowAvailabilityCache cache = new ShowAvailabilityCache(100, 60_000, new ObjectMapper());
+
+    @Test
+    void get_should_load_once_and_keep_a_snapshot() {
+        Show show = show(0L);
+        AtomicInteger loads = new AtomicInteger();
+
+        var first = cache.get(1L, id -> {
+            loads.incrementAndGet();
+            return Optional.of(show);
+        }).orElseThrow();
+        show.seatMap().set(new int[]{0}, SeatState.BOOKED);
+        var second = cache.get(1L, id -> Optional.of(show(5L))).orElseThrow();
+
+        assertSame(first, second);
+        assertEquals(1, loads.get());
+        assertEquals(List.of("A1", "A2"), second.details().getAvailableSeat());
+    }
+
+    @Test
+    void get_should_not_cache_missing_shows() {
+        assertTrue(cache.get(1L, id -> Optional.empty()).isEmpty());
+        assertTrue(cache.get(1L, id -> Optional.of(show(0L))).isPresent());
+    }
+
+    @Test
+    void update_should_replace_cached_snapshot_with_newer_version() {
+        cache.get(1L, id -> Optional.of(show(1L)));
+
+        Show newer = show(2L);
+        newer.seatMap().set(new int[]{1}, SeatState.BLOCKED);
+        cache.update(newer);
+        Show older = show(0L);
+        older.seatMap().set(new int[]{0}, SeatState.BOOKED);
+        cache.update(older);
+
+        var cached = cache.get(1L, id -> Optional.empty()).orElseThrow();
+        assertEquals(2L, cached.getVersion());
+        assertEquals(List.of("A2"), cached.details().getBlockedSeat());
+        assertEquals(List.of(), cached.details().getBookedSeat());
+    }
+
+    @Test
+    void update_should_not_add_shows_that_are_not_cached() {
+        cache.update(show(0L));
+
+        assertTrue(cache.get(1L, id -> Optional.empty()).isEmpty());
+    }
+
+    @Test
+    void serialize_should_pack_layout_and_two_bits_per_seat() {
+        Show show = show(3L);
+        show.seatMap().set(new int[]{1}, SeatState.BOOKED);
+        var availability = cache.get(1L, id -> Optional.of(show)).orElseThrow();
+
+        var packed = cache.serialize(availability, SeatMapFormat.PACKED, true);
+
+        ByteBuffer body = ByteBuffer.wrap(packed.getBody());
+        assertEquals(SeatMapFormat.PACKED_VERSION, body.get());
+        assertEquals(1L, body.getLong());
+        assertEquals(1, body.getInt());
+        assertEquals(2, body.getInt());
+        assertEquals(1, body.remaining());
+        assertEquals(SeatState.BOOKED.code(), SeatMap.unpack(1, 2, packed.getBody(), body.position()).states()[1]);
+        // too small to be worth compressing
+        assertFalse(packed.isGzipped());
+        assertEquals("\"1-3-packed\"", packed.getEtag());
+    }
+
+    @Test
+    void serialize_should_reuse_bodies_and_gzip_large_maps() throws IOException {
+        Show show = Show.builder()
+                .id(2L)
+                .version(7L)
+                .numberOfRows(100)
+                .numberOfSeatsPerRows(100)
+                .seatStates(SeatMap.empty(100, 100).states())
+                .build();
+        var availability = cache.get(2L, id -> Optional.of(show)).orElseThrow();
+
+        var json = cache.serialize(availability, SeatMapFormat.JSON, false);
+        var gzipped = cache.serialize(availability, SeatMapFormat.JSON, true);
+        var packed = cache.serialize(availability, SeatMapFormat.PACKED, true);
+
+        assertSame(json.getBody(), cache.serialize(availability, SeatMapFormat.JSON, false).getBody());
+        assertSame(gzipped.getBody(), cache.serialize(availability, SeatMapFormat.JSON, true).getBody());
+        assertTrue(gzipped.isGzipped());
+        assertArrayEquals(json.getBody(), new GZIPInputStream(new ByteArrayInputStream(gzipped.getBody())).readAllBytes());
+        assertEquals("\"2-7-json-gzip\"", gzipped.getEtag());
+        assertNotEquals(json.getEtag(), gzipped.getEtag());
+        assertTrue(packed.getBody().length < json.getBody().length / 10);
+    }
+
+    @Test
+    void serialize_should_not_tag_shows_without_version() {
+        var availability = cache.get(1L, id -> Optional.of(show(null))).orElseThrow();
+
+        assertNull(cache.serialize(availability, SeatMapFormat.JSON, false).getEtag());
+    }
+
+    private static Show show(Long version) {
+        return Show.builder()
+                .id(1L)
+                .version(version)
+                .numberOfRows(1)
+                .numberOfSeatsPerRows(2)
+                .seatStates(SeatMap.empty(1, 2).states())
+                .build();
+    }
+}
@@ -0,0 +1,110 @@
+package com.skp.bookshow.cache;
+
+import com.skp.bookshow.model.Show;
+import com.skp.bookshow.model.response.ScheduledShow;
+import com.skp.bookshow.repository.ShowRepo;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Instant;
+import java.util.Date;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ShowScheduleTest {
+    private static final Instant EVENING = Instant.parse("2026-10-18T18:00:00Z");
+
+    @Mock
+    private ShowRepo showRepo;
+
+    @InjectMocks
+    private ShowSchedule schedule;
+
+    @BeforeEach
+    void load() {
+        when(showRepo.findScheduledShows()).thenReturn(Stream.of(
+                show(1L, 7L, 17),
+                show(2L, 7L, 18),
+                show(3L, 8L, 18),
+                show(4L, 7L, 21),
+                show(5L, 7L, 23),
+                show(6L, 8L, 0)).map(ScheduledShow::of).collect(Collectors.toList()));
+        schedule.load();
+    }
+
+    @Test
+    void find_should_return_shows_of_movie_in_range_by_time() {
+        var page = schedule.find(7L, at(18), at(23), null, 50);
+
+        assertEquals(List.of(2L, 4L, 5L), ids(page.getItems()));
+        assertNull(page.getNextCursor());
+    }
+
+    @Test
+    void find_should_return_every_movie_without_movie_id() {
+        assertEquals(List.of(6L, 1L, 2L, 3L, 4L, 5L), ids(schedule.find(null, null, null, null, 50).getItems()));
+        assertEquals(List.of(2L, 3L), ids(schedule.find(null, at(18), at(18), null, 50).getItems()));
+    }
+
+    @Test
+    void find_should_continue_after_cursor() {
+        var first = schedule.find(null, at(18), null, null, 1);
+        var second = schedule.find(null, at(18), null, first.getNextCursor(), 2);
+        var third = schedule.find(null, at(18), null, second.getNextCursor(), 2);
+
+        assertEquals(List.of(2L), ids(first.getItems()));
+        assertEquals(List.of(3L, 4L), ids(second.getItems()));
+        assertEquals(List.of(5L), ids(third.getItems()));
+        assertNull(third.getNextCursor());
+    }
+
+    @Test
+    void find_should_ignore_cursor_before_range() {
+        assertEquals(List.of(4L, 5L), ids(schedule.find(7L, at(21), null, 1L, 50).getItems()));
+    }
+
+    @Test
+    void find_should_be_empty_for_unknown_movie_or_empty_range() {
+        assertTrue(schedule.find(9L, null, null, null, 50).getItems().isEmpty());
+        assertTrue(schedule.find(7L, at(23), at(18), null, 50).getItems().isEmpty());
+        assertTrue(schedule.find(7L, null, null, 5L, 50).getItems().isEmpty());
+    }
+
+    @Test
+    void add_should_schedule_new_show() {
+        schedule.add(show(7L, 9L, 20));
+        schedule.add(Show.builder().id(8L).movieId(9L).build());
+
+        List<ScheduledShow> shows = schedule.find(9L, null, null, null, 50).getItems();
+        assertEquals(List.of(7L), ids(shows));
+        assertEquals(at(20), shows.get(0).getShowTime());
+        assertEquals(9L, shows.get(0).getMovieId());
+    }
+
+    private static Show show(Long id, long movieId, int hour) {
+        return Show.builder()
+                .id(id)
+                .movieId(movieId)
+                .showTime(at(hour))
+                .numberOfRows(2)
+                .numberOfSeatsPerRows(2)
+                .build();
+    }
+
+    private static Date at(int hour) {
+        return Date.from(EVENING.plusSeconds((hour - 18) * 3600L));
+    }
+
+    private static List<Long> ids(List<ScheduledShow> shows) {
+        return shows.stream().map(ScheduledShow::getId).collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,46 @@
+package com.skp.bookshow.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+class VirtualThreadConfigTest {
+
+    @Test
+    void newVirtualThreadPerTaskExecutor_should_run_tasks_on_named_virtual_threads() throws Exception {
+        assumeTrue(Runtime.version().feature() >= 21, "virtual threads need Java 21");
+        var executor = VirtualThreadConfig.newVirtualThreadPerTaskExecutor("test-");
+
+        Thread thread = executor.submit(Thread::currentThread).get(5, TimeUnit.SECONDS);
+        executor.shutdown();
+
+        assertEquals(true, Thread.class.getMethod("isVirtual").invoke(thread));
+        assertEquals("test-0", thread.getName());
+    }
+
+    @Test
+    void requestExecutor_should_be_closed_with_the_context() {
+        assumeTrue(Runtime.version().feature() >= 21, "virtual threads need Java 21");
+        var executor = new AtomicReference<ExecutorService>();
+
+        new ApplicationContextRunner()
+                .withPropertyValues("bookshow.execution.virtual-threads=true")
+                .withUserConfiguration(VirtualThreadConfig.class)
+                .run(context -> executor.set(context.getBean("requestExecutor", ExecutorService.class)));
+
+        assertTrue(executor.get().isTerminated());
+    }
+
+    @Test
+    void newVirtualThreadPerTaskExecutor_should_fail_before_java_21() {
+        assumeTrue(Runtime.version().feature() < 21);
+
+        assertThrows(IllegalStateException.class, () -> VirtualThreadConfig.newVirtualThreadPerTaskExecutor("test-"));
+    }
+}
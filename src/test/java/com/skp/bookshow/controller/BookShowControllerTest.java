@@ -1,31 +1,55 @@
 package com.skp.bookshow.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.skp.bookshow.cache.IdempotencyStore;
+import com.skp.bookshow.cache.SeatMapFormat;
+import com.skp.bookshow.cache.SerializedSeatMap;
 import com.skp.bookshow.exception.*;
+import com.skp.bookshow.model.Account;
 import com.skp.bookshow.model.BookedSeat;
+import com.skp.bookshow.model.Movie;
 import com.skp.bookshow.model.Show;
+import com.skp.bookshow.model.enums.AccountType;
 import com.skp.bookshow.model.enums.SeatStatus;
+import com.skp.bookshow.model.projection.BookingSummary;
+import com.skp.bookshow.model.projection.ShowSummary;
 import com.skp.bookshow.model.request.BookShowRequest;
+import com.skp.bookshow.model.request.LoginRequest;
 import com.skp.bookshow.model.request.ShowRequest;
 import com.skp.bookshow.model.response.BookingResponse;
-import com.skp.bookshow.model.response.ShowDetailsForGuestResponse;
+import com.skp.bookshow.model.response.BulkBookingResult;
+import com.skp.bookshow.model.response.CursorPage;
+import com.skp.bookshow.model.response.LoginResponse;
+import com.skp.bookshow.model.response.ScheduledShow;
+import com.skp.bookshow.security.PasswordHasher;
 import com.skp.bookshow.service.AccountService;
+import com.skp.bookshow.service.MovieService;
 import com.skp.bookshow.service.SeatBookingService;
 import com.skp.bookshow.service.ShowService;
+import com.skp.bookshow.stream.SeatEventEmitter;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.Mockito;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 
 import java.time.Instant;
 import java.util.Date;
 import java.util.List;
+import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 
 @ExtendWith(MockitoExtension.class)
@@ -40,6 +64,15 @@ class BookShowControllerTest {
     @Mock
     AccountService accountService;
 
+    @Mock
+    MovieService movieService;
+
+    @Spy
+    IdempotencyStore idempotencyStore = new IdempotencyStore(100, 60_000, false, new ObjectMapper(), null);
+
+    @Spy
+    PasswordHasher passwordHasher = new PasswordHasher(1000);
+
     @InjectMocks
     BookShowController bookShowController = new BookShowController();
 
@@ -60,7 +93,7 @@ class BookShowControllerTest {
 
         when(seatBookingService.bookSeat(Mockito.any())).thenReturn(bookedSeat);
 
-        ResponseEntity<BookingResponse> responseEntity =  bookShowController.bookShow(bookShowRequest);
+        ResponseEntity<BookingResponse> responseEntity =  bookShowController.bookShow(bookShowRequest, null);
         assertEquals(HttpStatus.OK, responseEntity.getStatusCode());
         assertEquals(SeatStatus.BLOCKED, responseEntity.getBody().getBookedSeat().getSeatStatus());
         assertEquals("Please confirm the booking", responseEntity.getBody().getMessage());
@@ -77,7 +110,7 @@ class BookShowControllerTest {
 
         when(seatBookingService.bookSeat(Mockito.any())).thenThrow(new BookingAlreadyExist("Booking already exist"));
 
-        ResponseEntity<BookingResponse> responseEntity =  bookShowController.bookShow(bookShowRequest);
+        ResponseEntity<BookingResponse> responseEntity =  bookShowController.bookShow(bookShowRequest, null);
         assertEquals(HttpStatus.CONFLICT, responseEntity.getStatusCode());
         assertEquals("Booking already exist", responseEntity.getBody());
     }
@@ -91,7 +124,7 @@ class BookShowControllerTest {
                 .build();
 
         when(seatBookingService.bookSeat(Mockito.any())).thenThrow(new BookingUnSuccessful("Booking failed"));
-        ResponseEntity<BookingResponse> responseEntity =  bookShowController.bookShow(bookShowRequest);
+        ResponseEntity<BookingResponse> responseEntity =  bookShowController.bookShow(bookShowRequest, null);
         assertEquals(HttpStatus.OK, responseEntity.getStatusCode());
         assertEquals("Booking failed", responseEntity.getBody());
     }
@@ -111,7 +144,7 @@ class BookShowControllerTest {
                 .bookedSeat(List.of("A1"))
                 .build();
         when(seatBookingService.updateBooking(Mockito.any(), Mockito.any())).thenReturn(bookedSeat);
-        ResponseEntity<BookingResponse> responseEntity = bookShowController.confirmBooking(bookShowRequest, true);
+        ResponseEntity<BookingResponse> responseEntity = bookShowController.confirmBooking(bookShowRequest, true, null);
 
         assertEquals(HttpStatus.OK, responseEntity.getStatusCode());
         assertEquals(SeatStatus.BOOKED, responseEntity.getBody().getBookedSeat().getSeatStatus());
@@ -133,7 +166,7 @@ class BookShowControllerTest {
                 .bookedSeat(List.of("A1"))
                 .build();
         when(seatBookingService.updateBooking(Mockito.any(), Mockito.any())).thenReturn(bookedSeat);
-        ResponseEntity<BookingResponse> responseEntity = bookShowController.confirmBooking(bookShowRequest, false);
+        ResponseEntity<BookingResponse> responseEntity = bookShowController.confirmBooking(bookShowRequest, false, null);
 
         assertEquals(HttpStatus.OK, responseEntity.getStatusCode());
         assertEquals(SeatStatus.CANCELED, responseEntity.getBody().getBookedSeat().getSeatStatus());
@@ -149,7 +182,7 @@ class BookShowControllerTest {
                 .build();
 
         when(seatBookingService.updateBooking(Mockito.any(), Mockito.any())).thenThrow(new BookingNotFound("Booking not found"));
-        ResponseEntity<BookingResponse> responseEntity = bookShowController.confirmBooking(bookShowRequest, true);
+        ResponseEntity<BookingResponse> responseEntity = bookShowController.confirmBooking(bookShowRequest, true, null);
 
         assertEquals(HttpStatus.NOT_FOUND, responseEntity.getStatusCode());
         assertEquals("Booking not found", responseEntity.getBody());
@@ -165,7 +198,7 @@ class BookShowControllerTest {
                 .build();
 
         when(seatBookingService.updateBooking(Mockito.any(), Mockito.any())).thenThrow(new RuntimeException("Something went wrong"));
-        ResponseEntity<BookingResponse> responseEntity = bookShowController.confirmBooking(bookShowRequest, true);
+        ResponseEntity<BookingResponse> responseEntity = bookShowController.confirmBooking(bookShowRequest, true, null);
 
         assertEquals(HttpStatus.INTERNAL_SERVER_ERROR, responseEntity.getStatusCode());
         assertEquals("Something went wrong", responseEntity.getBody());
@@ -265,17 +298,14 @@ class BookShowControllerTest {
 
     @Test
     void findShowStatus_should_be_successful() {
-        BookedSeat bookedSeat = BookedSeat.builder()
-                .phoneNumber(1L)
-                .bookedSeat(List.of("A1"))
-                .seatStatus(SeatStatus.BLOCKED)
-                .ticketId(12L)
-                .showNumber(1L)
-                .build();
-        when(seatBookingService.findAllBookingForShow(Mockito.any())).thenReturn(List.of(bookedSeat));
-        ResponseEntity<List<BookedSeat>> responseEntity = bookShowController.findShowStatus(1L);
+        BookingSummary bookedSeat = Mockito.mock(BookingSummary.class);
+        when(accountService.verify("token")).thenReturn(Optional.of(Account.builder().accounttype(AccountType.ADMIN).build()));
+        when(seatBookingService.findBookingPageForShow(1L, 10L, 50))
+                .thenReturn(new CursorPage<>(List.of(bookedSeat), 12L));
+        ResponseEntity<CursorPage<BookingSummary>> responseEntity = bookShowController.findShowStatus("Bearer token", 1L, 10L, 50);
         assertEquals(HttpStatus.OK, responseEntity.getStatusCode());
-        assertEquals(1, responseEntity.getBody().size());
+        assertEquals(1, responseEntity.getBody().getItems().size());
+        assertEquals(12L, responseEntity.getBody().getNextCursor());
     }
 
     @Test
@@ -290,84 +320,285 @@ class BookShowControllerTest {
         Show show = Show.builder()
                 .id(1L)
                 .build();
+        when(accountService.verify("token")).thenReturn(Optional.of(Account.builder().accounttype(AccountType.ADMIN).build()));
         when(showService.createShow(Mockito.any())).thenReturn(show);
-        ResponseEntity<Show> responseEntity = bookShowController.createShow(showRequest);
+        ResponseEntity<Show> responseEntity = bookShowController.createShow("Bearer token", showRequest);
         assertEquals(HttpStatus.OK, responseEntity.getStatusCode());
         assertEquals(1, responseEntity.getBody().getId());
     }
 
+    @Test
+    void createShow_should_be_unauthorized_without_session() {
+        when(accountService.verify(null)).thenReturn(Optional.empty());
+        ResponseEntity<Show> responseEntity = bookShowController.createShow(null, ShowRequest.builder().build());
+        assertEquals(HttpStatus.UNAUTHORIZED, responseEntity.getStatusCode());
+        Mockito.verifyNoInteractions(showService);
+    }
+
+    @Test
+    void findShowStatus_should_be_forbidden_for_buyers() {
+        when(accountService.verify("token")).thenReturn(Optional.of(Account.builder().accounttype(AccountType.BUYER).build()));
+        ResponseEntity<CursorPage<BookingSummary>> responseEntity = bookShowController.findShowStatus("token", 1L, null, 50);
+        assertEquals(HttpStatus.FORBIDDEN, responseEntity.getStatusCode());
+        Mockito.verifyNoInteractions(seatBookingService);
+    }
+
     @Test
     void findShowBy_should_be_successful() throws ShowNotFound {
-        ShowDetailsForGuestResponse showDetailsForGuestResponse = ShowDetailsForGuestResponse.builder()
-                .bookedSeat(List.of())
-                .showNumber(1L)
-                .availableSeat(List.of("A1"))
-                .blockedSeat(List.of())
-                .build();
-        when(showService.findById(Mockito.anyLong())).thenReturn(showDetailsForGuestResponse);
-        ResponseEntity<ShowDetailsForGuestResponse> responseEntity = bookShowController.findShowBy(1L);
+        byte[] showDetails = "{\"showNumber\":1}".getBytes();
+        when(showService.findSerializedById(1L, SeatMapFormat.JSON, false))
+                .thenReturn(new SerializedSeatMap(SeatMapFormat.JSON, showDetails, false, "\"1-0-json\""));
+        ResponseEntity<byte[]> responseEntity = bookShowController.findShowBy(1L, null, null);
+        assertEquals(HttpStatus.OK, responseEntity.getStatusCode());
+        assertEquals(MediaType.APPLICATION_JSON, responseEntity.getHeaders().getContentType());
+        assertEquals("\"1-0-json\"", responseEntity.getHeaders().getETag());
+        assertNull(responseEntity.getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING));
+        assertArrayEquals(showDetails, responseEntity.getBody());
+    }
+
+    @Test
+    void findShowBy_should_serve_packed_gzip_when_accepted() throws ShowNotFound {
+        byte[] packed = {1, 2, 3};
+        when(showService.findSerializedById(1L, SeatMapFormat.PACKED, true))
+                .thenReturn(new SerializedSeatMap(SeatMapFormat.PACKED, packed, true, "\"1-4-packed-gzip\""));
+        ResponseEntity<byte[]> responseEntity = bookShowController.findShowBy(1L,
+                SeatMapFormat.PACKED_VALUE + ", application/json;q=0.5", "deflate, gzip;q=0.8");
+        assertEquals(HttpStatus.OK, responseEntity.getStatusCode());
+        assertEquals(SeatMapFormat.PACKED.mediaType(), responseEntity.getHeaders().getContentType());
+        assertEquals("gzip", responseEntity.getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING));
+        assertEquals(List.of(HttpHeaders.ACCEPT, HttpHeaders.ACCEPT_ENCODING), responseEntity.getHeaders().getVary());
+        assertArrayEquals(packed, responseEntity.getBody());
+    }
+
+    @Test
+    void findShowBy_should_not_gzip_when_declined() throws ShowNotFound {
+        when(showService.findSerializedById(1L, SeatMapFormat.JSON, false))
+                .thenReturn(new SerializedSeatMap(SeatMapFormat.JSON, new byte[0], false, null));
+        ResponseEntity<byte[]> responseEntity = bookShowController.findShowBy(1L, "text/html, */*", "gzip;q=0, br");
         assertEquals(HttpStatus.OK, responseEntity.getStatusCode());
-        assertEquals(1, responseEntity.getBody().getShowNumber());
+        assertNull(responseEntity.getHeaders().getETag());
+    }
+
+    @Test
+    void findShowBy_should_answer_unchanged_seat_map_with_not_modified() throws Exception {
+        byte[] showDetails = "{\"showNumber\":1}".getBytes();
+        when(showService.findSerializedById(1L, SeatMapFormat.JSON, false))
+                .thenReturn(new SerializedSeatMap(SeatMapFormat.JSON, showDetails, false, "\"1-0-json\""));
+        MockMvc mockMvc = MockMvcBuilders.standaloneSetup(bookShowController).build();
+
+        mockMvc.perform(get("/api/v1/show/1"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"1-0-json\""))
+                .andExpect(content().bytes(showDetails));
+        mockMvc.perform(get("/api/v1/show/1").header(HttpHeaders.IF_NONE_MATCH, "\"1-0-json\""))
+                .andExpect(status().isNotModified())
+                .andExpect(content().bytes(new byte[0]));
     }
 
     @Test
     void findShowBy_should_throw_exception() throws ShowNotFound {
-        when(showService.findById(Mockito.anyLong())).thenThrow(new ShowNotFound("Show not found"));
-        ResponseEntity<ShowDetailsForGuestResponse> responseEntity = bookShowController.findShowBy(1L);
+        when(showService.findSerializedById(Mockito.anyLong(), Mockito.any(), Mockito.anyBoolean())).thenThrow(new ShowNotFound("Show not found"));
+        ResponseEntity<?> responseEntity = bookShowController.findShowBy(1L, null, null);
         assertEquals(HttpStatus.NOT_FOUND, responseEntity.getStatusCode());
         assertEquals("Show not found", responseEntity.getBody());
     }
 
     @Test
     void findShowBy_should_throw_runtime_exception() throws ShowNotFound {
-        when(showService.findById(Mockito.anyLong())).thenThrow(new RuntimeException("Something went wrong"));
-        ResponseEntity<ShowDetailsForGuestResponse> responseEntity = bookShowController.findShowBy(1L);
+        when(showService.findSerializedById(Mockito.anyLong(), Mockito.any(), Mockito.anyBoolean())).thenThrow(new RuntimeException("Something went wrong"));
+        ResponseEntity<?> responseEntity = bookShowController.findShowBy(1L, null, null);
         assertEquals(HttpStatus.INTERNAL_SERVER_ERROR, responseEntity.getStatusCode());
         assertEquals("Something went wrong", responseEntity.getBody());
     }
 
+    @Test
+    void bookShow_should_replay_response_for_repeated_idempotency_key() throws BookingAlreadyExist, BookingUnSuccessful {
+        BookShowRequest bookShowRequest = BookShowRequest.builder()
+                .phoneNumber(1L)
+                .showNumber(2L)
+                .blockedSeat(List.of("A1"))
+                .build();
+        BookedSeat bookedSeat = BookedSeat.builder()
+                .ticketId(123L)
+                .seatStatus(SeatStatus.BLOCKED)
+                .build();
+        when(seatBookingService.bookSeat(Mockito.any())).thenReturn(bookedSeat);
+
+        ResponseEntity<BookingResponse> first = bookShowController.bookShow(bookShowRequest, "key-1");
+        ResponseEntity<BookingResponse> retry = bookShowController.bookShow(bookShowRequest, "key-1");
+        ResponseEntity<BookingResponse> reused = bookShowController.bookShow(BookShowRequest.builder().phoneNumber(2L).build(), "key-1");
+
+        assertSame(first, retry);
+        assertEquals(HttpStatus.UNPROCESSABLE_ENTITY, reused.getStatusCode());
+        Mockito.verify(seatBookingService, Mockito.times(1)).bookSeat(Mockito.any());
+    }
+
+    @Test
+    void confirmBooking_should_scope_idempotency_key_by_status() throws BookingUnSuccessful, BookingNotFound {
+        BookShowRequest bookShowRequest = BookShowRequest.builder().phoneNumber(1L).build();
+        when(seatBookingService.updateBooking(Mockito.any(), Mockito.any()))
+                .thenReturn(BookedSeat.builder().seatStatus(SeatStatus.BOOKED).build())
+                .thenReturn(BookedSeat.builder().seatStatus(SeatStatus.CANCELED).build());
+
+        bookShowController.confirmBooking(bookShowRequest, true, "key-1");
+        bookShowController.confirmBooking(bookShowRequest, true, "key-1");
+        ResponseEntity<BookingResponse> canceled = bookShowController.confirmBooking(bookShowRequest, false, "key-1");
+
+        assertEquals("Booking canceled", canceled.getBody().getMessage());
+        Mockito.verify(seatBookingService, Mockito.times(2)).updateBooking(Mockito.any(), Mockito.any());
+    }
+
+    @Test
+    void bookShows_should_return_a_response_per_request() throws BookingUnSuccessful {
+        BookedSeat bookedSeat = BookedSeat.builder()
+                .ticketId(1L)
+                .seatStatus(SeatStatus.BLOCKED)
+                .build();
+        when(seatBookingService.bookSeats(Mockito.any()))
+                .thenReturn(List.of(BulkBookingResult.booked(bookedSeat), BulkBookingResult.failed("Seat taken")));
+        ResponseEntity<List<BookingResponse>> responseEntity = bookShowController.bookShows(List.of(new BookShowRequest(), new BookShowRequest()));
+        assertEquals(HttpStatus.OK, responseEntity.getStatusCode());
+        assertEquals("Please confirm the booking", responseEntity.getBody().get(0).getMessage());
+        assertEquals(1L, responseEntity.getBody().get(0).getBookedSeat().getTicketId());
+        assertEquals("Seat taken", responseEntity.getBody().get(1).getMessage());
+        assertNull(responseEntity.getBody().get(1).getBookedSeat());
+    }
+
+    @Test
+    void bookShows_should_reject_too_many_requests() throws BookingUnSuccessful {
+        when(seatBookingService.bookSeats(Mockito.any())).thenThrow(new BookingUnSuccessful("Too many"));
+        ResponseEntity<List<BookingResponse>> responseEntity = bookShowController.bookShows(List.of());
+        assertEquals(HttpStatus.BAD_REQUEST, responseEntity.getStatusCode());
+        assertEquals("Too many", responseEntity.getBody());
+    }
+
+    @Test
+    void streamShow_should_be_successful() throws ShowNotFound {
+        SeatEventEmitter emitter = new SeatEventEmitter(60_000);
+        when(showService.streamById(Mockito.anyLong())).thenReturn(emitter);
+        ResponseEntity<SeatEventEmitter> responseEntity = bookShowController.streamShow(1L);
+        assertEquals(HttpStatus.OK, responseEntity.getStatusCode());
+        assertSame(emitter, responseEntity.getBody());
+    }
+
+    @Test
+    void streamShow_should_return_not_found() throws ShowNotFound {
+        when(showService.streamById(Mockito.anyLong())).thenThrow(new ShowNotFound("Show not found"));
+        ResponseEntity<SeatEventEmitter> responseEntity = bookShowController.streamShow(1L);
+        assertEquals(HttpStatus.NOT_FOUND, responseEntity.getStatusCode());
+        assertNull(responseEntity.getBody());
+    }
+
     @Test
     void findAllShows_for_empty_response() {
-        when(showService.findAll()).thenReturn(List.of());
-        ResponseEntity<List<Show>> responseEntity = bookShowController.findAllShows();
+        when(showService.findPage(null, 50)).thenReturn(new CursorPage<>(List.of(), null));
+        ResponseEntity<CursorPage<ShowSummary>> responseEntity = bookShowController.findAllShows(null, 50);
         assertEquals(HttpStatus.OK, responseEntity.getStatusCode());
-        assertTrue(responseEntity.getBody().isEmpty());
+        assertTrue(responseEntity.getBody().getItems().isEmpty());
+        assertNull(responseEntity.getBody().getNextCursor());
     }
 
     @Test
     void findAllShows_for_list_of_show_response() {
-        Show show = Show.builder()
-                .id(1L)
-                .availableSeats(List.of("A1"))
-                .blockedSeats(List.of())
-                .bookedSeats(List.of())
-                .build();
-        when(showService.findAll()).thenReturn(List.of(show));
-        ResponseEntity<List<Show>> responseEntity = bookShowController.findAllShows();
+        ShowSummary show = Mockito.mock(ShowSummary.class);
+        when(show.getId()).thenReturn(1L);
+        when(showService.findPage(null, 50)).thenReturn(new CursorPage<>(List.of(show), null));
+        ResponseEntity<CursorPage<ShowSummary>> responseEntity = bookShowController.findAllShows(null, 50);
         assertEquals(HttpStatus.OK, responseEntity.getStatusCode());
-        assertEquals(1, responseEntity.getBody().size());
-        assertEquals(1, responseEntity.getBody().get(0).getId());
+        assertEquals(1, responseEntity.getBody().getItems().size());
+        assertEquals(1, responseEntity.getBody().getItems().get(0).getId());
+    }
+
+    @Test
+    void findSchedule_should_pass_time_range() {
+        ScheduledShow show = ScheduledShow.builder().id(1L).movieId(7L).build();
+        Instant from = Instant.parse("2026-10-18T18:00:00Z");
+        Instant to = Instant.parse("2026-10-18T23:00:00Z");
+        when(showService.findSchedule(7L, Date.from(from), Date.from(to), null, 50)).thenReturn(new CursorPage<>(List.of(show), null));
+        ResponseEntity<CursorPage<ScheduledShow>> responseEntity = bookShowController.findScheduleForMovie(7L, from, to, null, 50);
+        assertEquals(HttpStatus.OK, responseEntity.getStatusCode());
+        assertEquals(List.of(show), responseEntity.getBody().getItems());
+    }
+
+    @Test
+    void findSchedule_should_allow_open_range() {
+        when(showService.findSchedule(null, null, null, 3L, 10)).thenReturn(new CursorPage<>(List.of(), null));
+        ResponseEntity<CursorPage<ScheduledShow>> responseEntity = bookShowController.findSchedule(null, null, 3L, 10);
+        assertEquals(HttpStatus.OK, responseEntity.getStatusCode());
+        assertTrue(responseEntity.getBody().getItems().isEmpty());
+    }
+
+    @Test
+    void findAllMovies_should_return_page() {
+        Movie movie = Movie.builder().id(1L).title("Movie title").build();
+        when(movieService.findPage(null, 50)).thenReturn(new CursorPage<>(List.of(movie), 1L));
+        ResponseEntity<CursorPage<Movie>> responseEntity = bookShowController.findAllMovies(null, 50);
+        assertEquals(HttpStatus.OK, responseEntity.getStatusCode());
+        assertEquals(List.of(movie), responseEntity.getBody().getItems());
+        assertEquals(1L, responseEntity.getBody().getNextCursor());
+    }
+
+    @Test
+    void searchMovies_should_return_matches() {
+        Movie movie = Movie.builder().id(2L).title("Movie title2").build();
+        when(movieService.search("title2", 1L, 10)).thenReturn(new CursorPage<>(List.of(movie), null));
+        ResponseEntity<CursorPage<Movie>> responseEntity = bookShowController.searchMovies("title2", 1L, 10);
+        assertEquals(HttpStatus.OK, responseEntity.getStatusCode());
+        assertEquals(List.of(movie), responseEntity.getBody().getItems());
     }
 
     @Test
     void login_should_be_successful() throws AccountNotFound {
-        when(accountService.login(Mockito.any(), Mockito.any())).thenReturn(true);
+        when(accountService.authenticate(Mockito.any(), Mockito.any())).thenReturn("token");
         var res = bookShowController.login(1L, "1234");
-        assertTrue(res);
+        assertEquals("token", res);
     }
 
     @Test
     void login_should_be_unsuccessful() throws AccountNotFound {
-        when(accountService.login(Mockito.any(), Mockito.any())).thenReturn(false);
+        when(accountService.authenticate(Mockito.any(), Mockito.any())).thenReturn(null);
         var res = bookShowController.login(1L, "1234");
-        assertFalse(res);
+        assertNull(res);
     }
 
     @Test
     void login_should_throw_exception() throws AccountNotFound {
-        when(accountService.login(Mockito.any(), Mockito.any())).thenThrow(new AccountNotFound("Account not found"));
+        when(accountService.authenticate(Mockito.any(), Mockito.any())).thenThrow(new AccountNotFound("Account not found"));
         var res = assertThrows(AccountNotFound.class, () -> bookShowController.login(1L, "1234"));
         assertEquals("Account not found", res.getMessage());
 
     }
+
+    @Test
+    void login_request_should_return_token() throws AccountNotFound {
+        when(accountService.authenticate(123456L, "secret")).thenReturn("token");
+        ResponseEntity<LoginResponse> responseEntity = bookShowController.login(new LoginRequest(123456L, "secret"));
+        assertEquals(HttpStatus.OK, responseEntity.getStatusCode());
+        assertEquals("token", responseEntity.getBody().getToken());
+    }
+
+    @Test
+    void logout_should_end_the_session_of_the_token() {
+        when(accountService.verify("token")).thenReturn(Optional.of(Account.builder().accounttype(AccountType.ADMIN).build()));
+        ResponseEntity<Void> responseEntity = bookShowController.logout("Bearer token");
+        assertEquals(HttpStatus.NO_CONTENT, responseEntity.getStatusCode());
+        Mockito.verify(accountService).logout("token");
+    }
+
+    @Test
+    void logout_should_be_unauthorized_without_session() {
+        when(accountService.verify("expired")).thenReturn(Optional.empty());
+        assertEquals(HttpStatus.UNAUTHORIZED, bookShowController.logout("Bearer expired").getStatusCode());
+        Mockito.verify(accountService, Mockito.never()).logout(Mockito.any());
+    }
+
+    @Test
+    void login_request_should_not_tell_unknown_accounts_from_wrong_passwords() throws AccountNotFound {
+        when(accountService.authenticate(1L, "secret")).thenThrow(new AccountNotFound("Account not found"));
+        when(accountService.authenticate(123456L, "wrong")).thenReturn(null);
+        assertEquals(HttpStatus.UNAUTHORIZED, bookShowController.login(new LoginRequest(1L, "secret")).getStatusCode());
+        assertEquals(HttpStatus.UNAUTHORIZED, bookShowController.login(new LoginRequest(123456L, "wrong")).getStatusCode());
+        // an unknown account still costs a password check
+        Mockito.verify(passwordHasher).matches("secret", passwordHasher.dummyHash());
+    }
 }
\ No newline at end of file
@@ -0,0 +1,76 @@
+package com.skp.bookshow.journal;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BookingJournalTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void replay_should_return_records_in_append_order_across_files() {
+        try (var journal = new BookingJournal(directory, 64, true)) {
+            for (int i = 0; i < 10; i++) {
+                journal.awaitDurable(journal.append(("record-" + i).getBytes(StandardCharsets.UTF_8)));
+            }
+        }
+
+        assertEquals(List.of("record-0", "record-1", "record-2", "record-3", "record-4",
+                "record-5", "record-6", "record-7", "record-8", "record-9"), replay(0));
+        assertTrue(journalFiles().size() > 1);
+    }
+
+    @Test
+    void replay_should_stop_at_torn_record() throws Exception {
+        try (var journal = new BookingJournal(directory, 1024, false)) {
+            journal.append("first".getBytes(StandardCharsets.UTF_8));
+            journal.append("second".getBytes(StandardCharsets.UTF_8));
+        }
+        try (var file = new RandomAccessFile(journalFiles().get(0).toFile(), "rw")) {
+            file.seek(8 + 5 + 8);
+            file.write('X');
+        }
+
+        assertEquals(List.of("first"), replay(0));
+    }
+
+    @Test
+    void roll_should_start_a_generation_that_replay_can_start_from() {
+        long generation;
+        try (var journal = new BookingJournal(directory, 1024, false)) {
+            journal.append("before".getBytes(StandardCharsets.UTF_8));
+            generation = journal.roll();
+            journal.append("after".getBytes(StandardCharsets.UTF_8));
+        }
+        BookingJournal.deleteBefore(directory, generation);
+
+        assertEquals(List.of("after"), replay(generation));
+        assertEquals(1, journalFiles().size());
+    }
+
+    private List<String> replay(long fromGeneration) {
+        List<String> records = new ArrayList<>();
+        BookingJournal.replay(directory, fromGeneration, payload -> records.add(new String(payload, StandardCharsets.UTF_8)));
+        return records;
+    }
+
+    private List<Path> journalFiles() {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.sorted().collect(Collectors.toList());
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
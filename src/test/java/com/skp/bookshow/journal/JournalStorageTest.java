@@ -0,0 +1,74 @@
+package com.skp.bookshow.journal;
+
+import com.skp.bookshow.model.BookedSeat;
+import com.skp.bookshow.model.Show;
+import com.skp.bookshow.model.enums.SeatStatus;
+import com.skp.bookshow.model.request.BookShowRequest;
+import com.skp.bookshow.model.request.ShowRequest;
+import com.skp.bookshow.service.SeatBookingService;
+import com.skp.bookshow.service.ShowService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.nio.file.Path;
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Boots the application on journal storage over tables that already hold a show and a booking.
+ */
+@SpringBootTest(properties = {
+        "bookshow.storage=journal",
+        "bookshow.journal.fsync=false",
+        "bookshow.journal.file-bytes=1048576",
+        "spring.datasource.url=jdbc:h2:mem:journal-storage",
+        "spring.sql.init.data-locations=classpath:data.sql,classpath:journal-storage-seed.sql"})
+class JournalStorageTest {
+
+    @TempDir
+    static Path directory;
+
+    @DynamicPropertySource
+    static void journalDirectory(DynamicPropertyRegistry registry) {
+        registry.add("bookshow.journal.directory", directory::toString);
+    }
+
+    @Autowired
+    ShowService showService;
+
+    @Autowired
+    SeatBookingService seatBookingService;
+
+    @Autowired
+    JournalStore journalStore;
+
+    @Test
+    void bookings_should_be_stored_in_the_journal_with_ids_above_those_in_the_tables() throws Exception {
+        Show show = showService.createShow(ShowRequest.builder()
+                .showTime(new Date())
+                .movieId(1L)
+                .numberOfRows(1)
+                .numberOfSeatsPerRows(2)
+                .cancellationWindow(60_000)
+                .build());
+        BookedSeat booking = seatBookingService.bookSeat(BookShowRequest.builder()
+                .showNumber(show.getId())
+                .phoneNumber(2L)
+                .blockedSeat(List.of("A1"))
+                .build());
+
+        assertEquals(501L, show.getId());
+        assertEquals(701L, booking.getTicketId());
+        assertEquals(SeatStatus.BLOCKED, journalStore.findBooking(701L).orElseThrow().getSeatStatus());
+
+        seatBookingService.cancelBookingTicketById(701L);
+
+        assertEquals(SeatStatus.CANCELED, journalStore.findBooking(701L).orElseThrow().getSeatStatus());
+    }
+}
@@ -0,0 +1,164 @@
+package com.skp.bookshow.journal;
+
+import com.skp.bookshow.model.BookedSeat;
+import com.skp.bookshow.model.SeatMap;
+import com.skp.bookshow.model.Show;
+import com.skp.bookshow.model.enums.SeatState;
+import com.skp.bookshow.model.enums.SeatStatus;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JournalStoreTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void store_should_recover_from_snapshot_and_journal_after_it() {
+        Long showId;
+        Long ticketId;
+        try (var store = new JournalStore(directory, 4096, false)) {
+            showId = store.saveShow(newShow()).getId();
+            book(store, showId, 0, 1);
+            store.snapshot();
+            ticketId = book(store, showId, 5);
+            store.updateSeatStatus(ticketId, SeatStatus.BLOCKED, SeatStatus.BOOKED);
+        }
+
+        try (var store = new JournalStore(directory, 4096, false)) {
+            Show show = store.findShow(showId).orElseThrow();
+            assertEquals(SeatState.BLOCKED.code(), show.seatMap().states()[0]);
+            assertEquals(SeatState.BLOCKED.code(), show.seatMap().states()[5]);
+            assertEquals(SeatState.AVAILABLE.code(), show.seatMap().states()[6]);
+            assertEquals(17, show.getAvailableSeatCount());
+            assertEquals(SeatStatus.BOOKED, store.findBooking(ticketId).orElseThrow().getSeatStatus());
+            assertEquals(2, store.findBookingsByShow(showId).size());
+            assertEquals(ticketId + 1, store.saveBooking(BookedSeat.builder().phoneNumber(3L).build()).getTicketId());
+        }
+    }
+
+    @Test
+    void inTransaction_should_drop_saves_when_work_fails() {
+        try (var store = new JournalStore(directory, 4096, false)) {
+            Long showId = store.saveShow(newShow()).getId();
+
+            assertThrows(IllegalStateException.class, () -> store.inTransaction(() -> {
+                store.saveBooking(BookedSeat.builder().phoneNumber(1L).showNumber(showId).build());
+                throw new IllegalStateException("failed");
+            }));
+
+            assertTrue(store.findBookingByPhoneNumber(1L).isEmpty());
+        }
+    }
+
+    @Test
+    void updateSeatStatus_in_transaction_should_be_dropped_when_work_fails() {
+        try (var store = new JournalStore(directory, 4096, false)) {
+            Long showId = store.saveShow(newShow()).getId();
+            Long ticketId = book(store, showId, 0);
+
+            assertThrows(IllegalStateException.class, () -> store.inTransaction(() -> {
+                assertEquals(1, store.updateSeatStatus(ticketId, SeatStatus.BLOCKED, SeatStatus.BOOKED));
+                assertEquals(0, store.updateSeatStatus(ticketId, SeatStatus.BLOCKED, SeatStatus.CANCELED));
+                throw new IllegalStateException("failed");
+            }));
+
+            assertEquals(SeatStatus.BLOCKED, store.findBooking(ticketId).orElseThrow().getSeatStatus());
+        }
+    }
+
+    @Test
+    void updateSeatStatus_in_transaction_should_fail_commit_when_status_changed_meanwhile() {
+        try (var store = new JournalStore(directory, 4096, false)) {
+            Long showId = store.saveShow(newShow()).getId();
+            Long ticketId = book(store, showId, 0);
+
+            assertThrows(ObjectOptimisticLockingFailureException.class, () -> store.inTransaction(() -> {
+                store.updateSeatStatus(ticketId, SeatStatus.BLOCKED, SeatStatus.BOOKED);
+                CompletableFuture.runAsync(() -> store.updateSeatStatus(ticketId, SeatStatus.BLOCKED, SeatStatus.CANCELED)).join();
+                return null;
+            }));
+
+            assertEquals(SeatStatus.CANCELED, store.findBooking(ticketId).orElseThrow().getSeatStatus());
+        }
+    }
+
+    @Test
+    void findBookingByPhoneNumber_should_return_latest_of_several_bookings() {
+        try (var store = new JournalStore(directory, 4096, false)) {
+            store.saveBooking(BookedSeat.builder().phoneNumber(7L).build());
+            Long second = store.saveBooking(BookedSeat.builder().phoneNumber(7L).build()).getTicketId();
+
+            assertEquals(second, store.findBookingByPhoneNumber(7L).orElseThrow().getTicketId());
+            assertEquals(List.of(7L), store.findExistingPhoneNumbers(List.of(7L, 8L)));
+        }
+    }
+
+    @Test
+    void saveShow_should_reject_stale_version() {
+        try (var store = new JournalStore(directory, 4096, false)) {
+            Long showId = store.saveShow(newShow()).getId();
+            Show first = store.findShow(showId).orElseThrow();
+            Show second = store.findShow(showId).orElseThrow();
+            store.saveShow(first);
+
+            assertThrows(ObjectOptimisticLockingFailureException.class, () -> store.saveShow(second));
+        }
+    }
+
+    @Test
+    void listeners_should_get_committed_entities_in_journal_order() {
+        try (var store = new JournalStore(directory, 4096, false)) {
+            List<Object> committed = new ArrayList<>();
+            List<Long> positions = new ArrayList<>();
+            store.addListener((position, entities) -> {
+                positions.add(position);
+                committed.addAll(entities);
+            });
+
+            Long showId = store.saveShow(newShow()).getId();
+            store.saveShow(store.findShow(showId).orElseThrow());
+
+            assertEquals(2, committed.size());
+            assertEquals(0L, ((Show) committed.get(0)).getVersion());
+            assertEquals(1L, ((Show) committed.get(1)).getVersion());
+            assertTrue(positions.get(0) < positions.get(1));
+        }
+    }
+
+    private static Long book(JournalStore store, Long showId, int... seats) {
+        return store.inTransaction(() -> {
+            Show show = store.findShow(showId).orElseThrow();
+            SeatMap seatMap = show.seatMap();
+            seatMap.set(seats, SeatState.BLOCKED);
+            store.saveShow(show);
+            List<String> labels = new ArrayList<>();
+            for (int seat : seats) {
+                labels.add(seatMap.label(seat));
+            }
+            return store.saveBooking(BookedSeat.builder()
+                    .phoneNumber((long) seats[0])
+                    .showNumber(showId)
+                    .bookedSeat(labels)
+                    .seatStatus(SeatStatus.BLOCKED)
+                    .build()).getTicketId();
+        });
+    }
+
+    private static Show newShow() {
+        return Show.builder()
+                .movieId(1)
+                .numberOfRows(2)
+                .numberOfSeatsPerRows(10)
+                .cancellationWindow(30)
+                .build();
+    }
+}
@@ -0,0 +1,58 @@
+package com.skp.bookshow.journal;
+
+import com.skp.bookshow.model.BookedSeat;
+import com.skp.bookshow.model.Show;
+import com.skp.bookshow.model.enums.SeatStatus;
+import com.skp.bookshow.repository.BookingRepo;
+import com.skp.bookshow.repository.ShowRepo;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mockito;
+import org.springframework.data.domain.Pageable;
+
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JournaledRepoTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void booking_path_should_be_served_from_the_store() {
+        var showProjection = Mockito.mock(ShowRepo.class);
+        var bookingProjection = Mockito.mock(BookingRepo.class);
+        try (var store = new JournalStore(directory, 4096, false)) {
+            var showRepo = new JournaledShowRepo(store, showProjection);
+            var bookingRepo = new JournaledBookingRepo(store, bookingProjection);
+
+            Long showId = showRepo.save(Show.builder().movieId(1).numberOfRows(1).numberOfSeatsPerRows(2).build()).getId();
+            Long ticketId = bookingRepo.save(BookedSeat.builder().showNumber(showId).phoneNumber(7L)
+                    .seatStatus(SeatStatus.BLOCKED).build()).getTicketId();
+
+            assertEquals(showId, showRepo.findById(showId).orElseThrow().getId());
+            assertEquals(1, bookingRepo.updateSeatStatus(ticketId, SeatStatus.BLOCKED, SeatStatus.BOOKED));
+            assertEquals(SeatStatus.BOOKED, bookingRepo.findLatestByPhoneNumber(7L).orElseThrow().getSeatStatus());
+            assertEquals(List.of(7L), bookingRepo.findExistingPhoneNumbers(List.of(7L, 8L)));
+            Mockito.verifyNoInteractions(showProjection, bookingProjection);
+        }
+    }
+
+    @Test
+    void methods_the_store_does_not_serve_should_fail_instead_of_reading_the_projection() {
+        var showProjection = Mockito.mock(ShowRepo.class);
+        var bookingProjection = Mockito.mock(BookingRepo.class);
+        try (var store = new JournalStore(directory, 4096, false)) {
+            var showRepo = new JournaledShowRepo(store, showProjection);
+            var bookingRepo = new JournaledBookingRepo(store, bookingProjection);
+
+            assertThrows(UnsupportedOperationException.class, () -> showRepo.findAll(Pageable.unpaged()));
+            assertThrows(UnsupportedOperationException.class, () -> showRepo.count());
+            assertThrows(UnsupportedOperationException.class, () -> bookingRepo.deleteById(1L));
+            assertThrows(UnsupportedOperationException.class, bookingRepo::findMaxId);
+            Mockito.verifyNoInteractions(showProjection, bookingProjection);
+        }
+    }
+}
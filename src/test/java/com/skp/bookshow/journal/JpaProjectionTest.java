@@ -0,0 +1,86 @@
+package com.skp.bookshow.journal;
+
+import com.skp.bookshow.model.BookedSeat;
+import com.skp.bookshow.model.enums.SeatStatus;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionOperations;
+
+import javax.persistence.EntityManager;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongConsumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.when;
+
+class JpaProjectionTest {
+
+    @Test
+    void failed_commits_should_be_written_again() throws Exception {
+        var meterRegistry = new SimpleMeterRegistry();
+        var entityManager = Mockito.mock(EntityManager.class);
+        var row = BookedSeat.builder().ticketId(1L).seatStatus(SeatStatus.BLOCKED).build();
+        when(entityManager.find(BookedSeat.class, 1L)).thenReturn(row);
+        var attempts = new AtomicInteger();
+        var transactionOperations = new TransactionOperations() {
+            @Override
+            public <T> T execute(TransactionCallback<T> action) {
+                if (attempts.incrementAndGet() <= 2) throw new DataAccessResourceFailureException("database down");
+                return action.doInTransaction(new SimpleTransactionStatus());
+            }
+        };
+
+        try (var projection = new JpaProjection(entityManager, transactionOperations, position -> { }, meterRegistry)) {
+            projection.enqueue(1, List.of(BookedSeat.builder().ticketId(1L).seatStatus(SeatStatus.BOOKED).build()));
+            for (int i = 0; i < 100 && meterRegistry.get(JpaProjection.LAG).gauge().value() > 0; i++) {
+                Thread.sleep(50);
+            }
+        }
+
+        assertEquals(SeatStatus.BOOKED, row.getSeatStatus());
+        assertEquals(3, attempts.get());
+        assertEquals(2.0, meterRegistry.get(JpaProjection.FAILURES).counter().count());
+        assertEquals(0.0, meterRegistry.get(JpaProjection.LAG).gauge().value());
+    }
+
+    @Test
+    void commits_should_be_written_once_durable_with_the_latest_winning() throws Exception {
+        var entityManager = Mockito.mock(EntityManager.class);
+        var row = BookedSeat.builder().ticketId(1L).seatStatus(SeatStatus.BLOCKED).build();
+        when(entityManager.find(BookedSeat.class, 1L)).thenReturn(row);
+        var durable = new CountDownLatch(1);
+        var awaited = new AtomicLong();
+        LongConsumer awaitDurable = position -> {
+            try {
+                durable.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            awaited.accumulateAndGet(position, Math::max);
+        };
+        var transactionOperations = new TransactionOperations() {
+            @Override
+            public <T> T execute(TransactionCallback<T> action) {
+                return action.doInTransaction(new SimpleTransactionStatus());
+            }
+        };
+
+        try (var projection = new JpaProjection(entityManager, transactionOperations, awaitDurable, new SimpleMeterRegistry())) {
+            projection.enqueue(10, List.of(BookedSeat.builder().ticketId(1L).seatStatus(SeatStatus.BOOKED).build()));
+            projection.enqueue(20, List.of(BookedSeat.builder().ticketId(1L).seatStatus(SeatStatus.CANCELED).build()));
+            Thread.sleep(200);
+            assertEquals(SeatStatus.BLOCKED, row.getSeatStatus());
+            durable.countDown();
+        }
+
+        assertEquals(SeatStatus.CANCELED, row.getSeatStatus());
+        assertEquals(20L, awaited.get());
+    }
+}
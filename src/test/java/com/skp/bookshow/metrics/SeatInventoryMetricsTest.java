@@ -0,0 +1,40 @@
+package com.skp.bookshow.metrics;
+
+import com.skp.bookshow.model.projection.ShowSummary;
+import com.skp.bookshow.repository.ShowRepo;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.when;
+
+class SeatInventoryMetricsTest {
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final ShowRepo showRepo = Mockito.mock(ShowRepo.class);
+
+    @Test
+    void refresh_should_publish_seat_counts_of_upcoming_shows() {
+        ShowSummary show = Mockito.mock(ShowSummary.class);
+        when(show.getId()).thenReturn(7L);
+        when(show.getAvailableSeatCount()).thenReturn(5);
+        when(show.getBlockedSeatCount()).thenReturn(2);
+        when(show.getBookedSeatCount()).thenReturn(3);
+        when(showRepo.findByShowTimeAfter(Mockito.any())).thenReturn(List.of(show)).thenReturn(List.of());
+        SeatInventoryMetrics metrics = new SeatInventoryMetrics(showRepo, meterRegistry);
+
+        metrics.refresh();
+        assertEquals(5, gauge("7", "available"));
+        assertEquals(2, gauge("7", "blocked"));
+        assertEquals(3, gauge("7", "booked"));
+
+        metrics.refresh();
+        assertTrue(meterRegistry.find(SeatInventoryMetrics.METRIC).gauges().isEmpty());
+    }
+
+    private double gauge(String show, String state) {
+        return meterRegistry.get(SeatInventoryMetrics.METRIC).tags("show", show, "state", state).gauge().value();
+    }
+}
@@ -0,0 +1,70 @@
+package com.skp.bookshow.metrics;
+
+import com.skp.bookshow.exception.BookingAlreadyExist;
+import com.skp.bookshow.exception.BookingNotFound;
+import com.skp.bookshow.exception.BookingUnSuccessful;
+import com.skp.bookshow.exception.ShowNotFound;
+import com.skp.bookshow.model.BookedSeat;
+import com.skp.bookshow.model.request.BookShowRequest;
+import com.skp.bookshow.service.SeatBookingService;
+import com.skp.bookshow.service.ShowService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.when;
+
+class ServiceMetricsAspectTest {
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    void it_should_time_calls_by_outcome() throws Exception {
+        SeatBookingService target = Mockito.mock(SeatBookingService.class);
+        when(target.bookSeat(Mockito.any()))
+                .thenReturn(new BookedSeat())
+                .thenThrow(new BookingAlreadyExist("exists"))
+                .thenThrow(new BookingUnSuccessful("taken"));
+        SeatBookingService seatBooking = proxy(target, SeatBookingService.class);
+
+        seatBooking.bookSeat(new BookShowRequest());
+        assertThrows(BookingAlreadyExist.class, () -> seatBooking.bookSeat(new BookShowRequest()));
+        assertThrows(BookingUnSuccessful.class, () -> seatBooking.bookSeat(new BookShowRequest()));
+
+        assertEquals(1, count("SeatBookingService", "bookSeat", "success"));
+        assertEquals(1, count("SeatBookingService", "bookSeat", "already_exist"));
+        assertEquals(1, count("SeatBookingService", "bookSeat", "unsuccessful"));
+    }
+
+    @Test
+    void it_should_tag_missing_shows_as_not_found() throws Exception {
+        ShowService target = Mockito.mock(ShowService.class);
+        when(target.findById(Mockito.any())).thenThrow(new ShowNotFound("missing"));
+        ShowService showService = proxy(target, ShowService.class);
+
+        assertThrows(ShowNotFound.class, () -> showService.findById(1L));
+
+        assertEquals(1, count("ShowService", "findById", "not_found"));
+    }
+
+    @Test
+    void outcomeOf_should_map_exceptions() {
+        assertEquals("not_found", ServiceMetricsAspect.outcomeOf(new BookingNotFound("missing")));
+        assertEquals("error", ServiceMetricsAspect.outcomeOf(new IllegalStateException()));
+    }
+
+    private <T> T proxy(T target, Class<T> type) {
+        AspectJProxyFactory factory = new AspectJProxyFactory(target);
+        factory.addInterface(type);
+        factory.addAspect(new ServiceMetricsAspect(meterRegistry));
+        return factory.getProxy();
+    }
+
+    private long count(String service, String method, String outcome) {
+        return meterRegistry.get(ServiceMetricsAspect.METRIC)
+                .tags("service", service, "method", method, "outcome", outcome)
+                .timer()
+                .count();
+    }
+}
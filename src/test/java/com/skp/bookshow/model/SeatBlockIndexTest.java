@@ -0,0 +1,100 @@
+package com.skp.bookshow.model;
+
+import com.skp.bookshow.model.enums.SeatState;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SeatBlockIndexTest {
+
+    @Test
+    void best_should_pick_middle_of_middle_row() {
+        SeatMap seatMap = SeatMap.empty(5, 10);
+
+        assertEquals(List.of("C4", "C5", "C6", "C7"), labels(seatMap, new SeatBlockIndex(seatMap).best(4)));
+    }
+
+    @Test
+    void best_should_move_to_closest_block_and_row_with_room() {
+        SeatMap seatMap = SeatMap.empty(3, 10);
+        seatMap.set(seatMap.indexesOf(List.of("B3", "B5", "B6", "B9")), SeatState.BOOKED);
+        SeatBlockIndex index = new SeatBlockIndex(seatMap);
+
+        assertEquals(List.of("B7", "B8"), labels(seatMap, index.best(2)));
+        assertEquals(List.of("C4", "C5", "C6"), labels(seatMap, index.best(3)));
+        assertNull(index.best(11));
+        assertNull(index.best(0));
+    }
+
+    @Test
+    void sync_should_apply_changed_seats() {
+        SeatMap seatMap = SeatMap.empty(1, 6);
+        SeatBlockIndex index = new SeatBlockIndex(seatMap);
+        seatMap.set(new int[]{2}, SeatState.BLOCKED);
+
+        index.sync(seatMap.states());
+
+        assertEquals(3, index.longestRun(0));
+        assertEquals(List.of("A4", "A5", "A6"), labels(seatMap, index.best(3)));
+        assertNull(index.best(4));
+    }
+
+    @Test
+    void apply_should_update_only_the_given_seats() {
+        SeatMap seatMap = SeatMap.empty(1, 6);
+        SeatBlockIndex index = new SeatBlockIndex(seatMap);
+        seatMap.set(new int[]{2, 4}, SeatState.BLOCKED);
+
+        index.apply(new int[]{2}, seatMap.states());
+
+        assertEquals(3, index.longestRun(0));
+        assertEquals(List.of("A4", "A5", "A6"), labels(seatMap, index.best(3)));
+    }
+
+    @Test
+    void best_should_match_a_linear_scan() {
+        Random random = new Random(7);
+        for (int width : new int[]{1, 2, 8, 37}) {
+            SeatMap seatMap = SeatMap.empty(1, width);
+            SeatBlockIndex index = new SeatBlockIndex(seatMap);
+            for (int round = 0; round < 500; round++) {
+                int seat = random.nextInt(seatMap.size());
+                seatMap.set(new int[]{seat}, random.nextBoolean() ? SeatState.AVAILABLE : SeatState.BLOCKED);
+                index.sync(seatMap.states());
+                int count = 1 + random.nextInt(Math.min(width, 5));
+                assertArrayEquals(scan(seatMap, count), index.best(count), width + " seats, round " + round);
+            }
+        }
+    }
+
+    private static int[] scan(SeatMap seatMap, int count) {
+        int width = seatMap.getNumberOfSeatsPerRows();
+        int centred = (width - count) / 2;
+        int best = -1;
+        for (int start = 0; start + count <= width; start++) {
+            boolean free = true;
+            for (int i = start; i < start + count; i++) {
+                free &= seatMap.states()[i] == SeatState.AVAILABLE.code();
+            }
+            if (free && (best < 0 || Math.abs(start - centred) < Math.abs(best - centred))) best = start;
+        }
+        if (best < 0) return null;
+        int[] seats = new int[count];
+        for (int i = 0; i < count; i++) {
+            seats[i] = best + i;
+        }
+        return seats;
+    }
+
+    private static List<String> labels(SeatMap seatMap, int[] seats) {
+        List<String> labels = new ArrayList<>();
+        for (int seat : seats) {
+            labels.add(seatMap.label(seat));
+        }
+        return labels;
+    }
+}
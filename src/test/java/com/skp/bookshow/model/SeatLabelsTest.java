@@ -0,0 +1,45 @@
+package com.skp.bookshow.model;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SeatLabelsTest {
+
+    @Test
+    void rowName_should_continue_with_two_letters_after_Z() {
+        assertEquals("A", SeatLabels.rowName(0));
+        assertEquals("Z", SeatLabels.rowName(25));
+        assertEquals("AA", SeatLabels.rowName(26));
+        assertEquals("AZ", SeatLabels.rowName(51));
+        assertEquals("BA", SeatLabels.rowName(52));
+        assertEquals("ZZ", SeatLabels.rowName(701));
+        assertEquals("AAA", SeatLabels.rowName(702));
+    }
+
+    @Test
+    void labels_should_round_trip_beyond_26_rows() {
+        SeatLabels labels = SeatLabels.of(30, 15);
+
+        assertEquals("AA1", labels.label(26 * 15));
+        assertEquals("AD15", labels.label(30 * 15 - 1));
+        for (int i = 0; i < 30 * 15; i++) {
+            assertEquals(i, labels.indexOf(labels.label(i)));
+        }
+        assertEquals(-1, labels.indexOf("AE1"));
+        assertEquals(-1, labels.indexOf("[1"));
+        assertEquals(-1, labels.indexOf("AA"));
+        assertEquals(-1, labels.indexOf("1"));
+        assertEquals(-1, labels.indexOf("ZZZZZZZZ1"));
+    }
+
+    @Test
+    void of_should_share_labels_between_shows_with_the_same_layout() {
+        SeatMap first = SeatMap.empty(40, 20);
+        SeatMap second = SeatMap.empty(40, 20);
+
+        assertSame(SeatLabels.of(40, 20), SeatLabels.of(40, 20));
+        assertSame(first.label(123), second.label(123));
+        assertNotSame(SeatLabels.of(40, 20), SeatLabels.of(20, 40));
+    }
+}
@@ -0,0 +1,65 @@
+package com.skp.bookshow.model;
+
+import com.skp.bookshow.model.enums.SeatState;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SeatMapTest {
+
+    @Test
+    void labels_should_round_trip_to_indexes() {
+        SeatMap seatMap = SeatMap.empty(3, 12);
+
+        assertEquals(0, seatMap.indexOf("A1"));
+        assertEquals(11, seatMap.indexOf("A12"));
+        assertEquals(35, seatMap.indexOf("C12"));
+        assertEquals("B10", seatMap.label(seatMap.indexOf("B10")));
+    }
+
+    @Test
+    void indexOf_should_reject_labels_outside_layout() {
+        SeatMap seatMap = SeatMap.empty(3, 12);
+
+        assertEquals(-1, seatMap.indexOf("D1"));
+        assertEquals(-1, seatMap.indexOf("A0"));
+        assertEquals(-1, seatMap.indexOf("A13"));
+        assertEquals(-1, seatMap.indexOf("A1x"));
+        assertEquals(-1, seatMap.indexOf("a1"));
+        assertEquals(-1, seatMap.indexOf(""));
+        assertNull(seatMap.indexesOf(List.of("A1", "A1")));
+        assertNull(seatMap.indexesOf(List.of("A1", "Z1")));
+    }
+
+    @Test
+    void move_should_only_change_seats_in_expected_state() {
+        SeatMap seatMap = SeatMap.empty(1, 4);
+        seatMap.set(new int[]{0, 1}, SeatState.BLOCKED);
+
+        int moved = seatMap.move(new int[]{0, 1, 2}, SeatState.BLOCKED, SeatState.BOOKED);
+
+        assertEquals(2, moved);
+        assertEquals(List.of("A1", "A2"), seatMap.labels(SeatState.BOOKED));
+        assertEquals(List.of("A3", "A4"), seatMap.labels(SeatState.AVAILABLE));
+        assertArrayEquals(new int[]{2, 0, 2}, seatMap.counts());
+    }
+
+    @Test
+    void packed_should_hold_four_seats_per_byte_and_unpack() {
+        SeatMap seatMap = SeatMap.empty(3, 3);
+        seatMap.set(new int[]{1, 4}, SeatState.BLOCKED);
+        seatMap.set(new int[]{3, 8}, SeatState.BOOKED);
+
+        byte[] packed = seatMap.packed();
+
+        assertEquals(3, packed.length);
+        assertEquals((byte) 0b10_00_01_00, packed[0]);
+        assertEquals((byte) 0b00_00_00_01, packed[1]);
+        assertEquals((byte) 0b00_00_00_10, packed[2]);
+        byte[] withHeader = new byte[packed.length + 2];
+        System.arraycopy(packed, 0, withHeader, 2, packed.length);
+        assertArrayEquals(seatMap.states(), SeatMap.unpack(3, 3, withHeader, 2).states());
+    }
+}
@@ -0,0 +1,80 @@
+package com.skp.bookshow.model;
+
+import com.skp.bookshow.model.enums.SeatState;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ShowTest {
+
+    @Test
+    void seatMap_should_replay_changes_over_snapshot() {
+        Show show = loaded(1, 4, Map.of(1, SeatState.BLOCKED.code(), 3, SeatState.BOOKED.code()));
+
+        assertEquals(SeatState.AVAILABLE.code(), show.seatMap().states()[0]);
+        assertEquals(SeatState.BLOCKED.code(), show.seatMap().states()[1]);
+        assertEquals(SeatState.BOOKED.code(), show.seatMap().states()[3]);
+    }
+
+    @Test
+    void recordSeatChanges_should_only_record_seats_that_differ_from_snapshot() {
+        Show show = loaded(10, 10, Map.of(5, SeatState.BLOCKED.code(), 6, SeatState.BLOCKED.code()));
+        byte[] snapshot = show.getSeatSnapshot();
+        SeatMap seatMap = show.seatMap();
+        seatMap.set(new int[]{5}, SeatState.BOOKED);
+        seatMap.set(new int[]{6}, SeatState.AVAILABLE);
+        seatMap.set(new int[]{42}, SeatState.BLOCKED);
+
+        show.recordSeatChanges();
+
+        assertEquals(Map.of(5, SeatState.BOOKED.code(), 42, SeatState.BLOCKED.code()), show.getSeatChanges());
+        assertSame(snapshot, show.getSeatSnapshot());
+        assertEquals(98, show.getAvailableSeatCount());
+        assertEquals(1, show.getBlockedSeatCount());
+        assertEquals(1, show.getBookedSeatCount());
+    }
+
+    @Test
+    void recordSeatChanges_should_rewrite_snapshot_once_changes_outgrow_the_show() {
+        Show show = loaded(10, 10, Map.of());
+        int[] seats = new int[33];
+        for (int i = 0; i < seats.length; i++) {
+            seats[i] = i * 3;
+        }
+        show.seatMap().set(seats, SeatState.BLOCKED);
+
+        show.recordSeatChanges();
+
+        assertTrue(show.getSeatChanges().isEmpty());
+        assertArrayEquals(show.getSeatStates(), show.getSeatSnapshot());
+        assertNotSame(show.getSeatStates(), show.getSeatSnapshot());
+    }
+
+    @Test
+    void snapshotSeats_should_copy_seats_of_new_show() {
+        Show show = Show.builder()
+                .numberOfRows(1)
+                .numberOfSeatsPerRows(2)
+                .seatStates(SeatMap.empty(1, 2).states())
+                .build();
+
+        show.snapshotSeats();
+        show.seatMap().set(new int[]{0}, SeatState.BLOCKED);
+
+        assertEquals(SeatState.AVAILABLE.code(), show.getSeatSnapshot()[0]);
+        assertEquals(2, show.getAvailableSeatCount());
+    }
+
+    private static Show loaded(int rows, int perRow, Map<Integer, Byte> changes) {
+        return Show.builder()
+                .id(1L)
+                .numberOfRows(rows)
+                .numberOfSeatsPerRows(perRow)
+                .seatSnapshot(SeatMap.empty(rows, perRow).states())
+                .seatChanges(new HashMap<>(changes))
+                .build();
+    }
+}
@@ -0,0 +1,72 @@
+package com.skp.bookshow.repository;
+
+import com.skp.bookshow.Application;
+import com.skp.bookshow.model.BookedSeat;
+import com.skp.bookshow.model.Show;
+import com.skp.bookshow.model.enums.SeatStatus;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.test.context.ContextConfiguration;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@ContextConfiguration(classes = Application.class)
+class IdAllocationTest {
+    @Autowired
+    ShowRepo showRepo;
+    @Autowired
+    BookingRepo bookingRepo;
+    @Autowired
+    EntityManager entityManager;
+    @Autowired
+    EntityManagerFactory entityManagerFactory;
+
+    Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    void saveAll_should_take_ticket_ids_from_reserved_blocks_and_batch_the_inserts() {
+        List<BookedSeat> bookings = new ArrayList<>();
+        for (int i = 0; i < 150; i++) {
+            bookings.add(BookedSeat.builder().showNumber(1L).phoneNumber((long) i).seatStatus(SeatStatus.BOOKED).build());
+        }
+
+        bookingRepo.saveAll(bookings);
+        entityManager.flush();
+
+        for (int i = 1; i < bookings.size(); i++) {
+            assertEquals(bookings.get(i - 1).getTicketId() + 1, bookings.get(i).getTicketId());
+        }
+        // two blocks of 100 reserved, then one batched insert
+        assertEquals(3, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void save_should_not_go_to_the_database_for_show_ids_within_a_block() {
+        showRepo.save(Show.builder().numberOfRows(1).numberOfSeatsPerRows(1).build());
+        long statements = statistics.getPrepareStatementCount();
+
+        for (int i = 0; i < 50; i++) {
+            showRepo.save(Show.builder().numberOfRows(1).numberOfSeatsPerRows(1).build());
+        }
+
+        assertEquals(statements, statistics.getPrepareStatementCount());
+        assertTrue(statements <= 1);
+    }
+}
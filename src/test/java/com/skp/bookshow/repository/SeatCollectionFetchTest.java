@@ -0,0 +1,100 @@
+package com.skp.bookshow.repository;
+
+import com.skp.bookshow.Application;
+import com.skp.bookshow.model.BookedSeat;
+import com.skp.bookshow.model.Show;
+import com.skp.bookshow.model.enums.SeatState;
+import com.skp.bookshow.model.enums.SeatStatus;
+import com.skp.bookshow.model.response.ScheduledShow;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.test.context.ContextConfiguration;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@ContextConfiguration(classes = Application.class)
+class SeatCollectionFetchTest {
+    private static final int SHOWS = 500;
+
+    @Autowired
+    ShowRepo showRepo;
+    @Autowired
+    BookingRepo bookingRepo;
+    @Autowired
+    EntityManager entityManager;
+    @Autowired
+    EntityManagerFactory entityManagerFactory;
+
+    Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @Test
+    void findAll_should_load_shows_with_their_seats_in_one_statement() {
+        for (int i = 0; i < SHOWS; i++) {
+            Show show = showRepo.save(Show.builder().numberOfRows(2).numberOfSeatsPerRows(5).build());
+            show.seatMap().set(new int[]{i % 10}, SeatState.BOOKED);
+            show.recordSeatChanges();
+        }
+        flushAndClear();
+
+        List<Show> shows = showRepo.findAll();
+
+        assertEquals(SHOWS, shows.size());
+        shows.forEach(show -> assertEquals(1, show.seatMap().counts()[SeatState.BOOKED.code()]));
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void findByShowNumber_should_load_bookings_with_their_seats_in_one_statement() {
+        for (int i = 0; i < SHOWS; i++) {
+            bookingRepo.save(BookedSeat.builder().showNumber(7L).phoneNumber((long) i)
+                    .seatStatus(SeatStatus.BOOKED).bookedSeat(List.of("A" + (i % 5 + 1), "B" + (i % 5 + 1))).build());
+        }
+        flushAndClear();
+
+        List<BookedSeat> bookings = bookingRepo.findByShowNumber(7L);
+
+        assertEquals(SHOWS, bookings.size());
+        bookings.forEach(booking -> assertEquals(2, booking.getBookedSeat().size()));
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void findScheduledShows_should_leave_the_seats_unread() {
+        for (int i = 0; i < SHOWS; i++) {
+            Show show = showRepo.save(Show.builder().movieId(i % 3).numberOfRows(2).numberOfSeatsPerRows(5).build());
+            show.seatMap().set(new int[]{i % 10}, SeatState.BOOKED);
+            show.recordSeatChanges();
+        }
+        flushAndClear();
+
+        List<ScheduledShow> shows = showRepo.findScheduledShows();
+
+        assertEquals(SHOWS, shows.size());
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertEquals(0, statistics.getEntityLoadCount());
+        assertEquals(0, statistics.getCollectionLoadCount());
+    }
+
+    /**
+     * Writes what was saved and starts the count afresh with nothing in the persistence context.
+     */
+    private void flushAndClear() {
+        entityManager.flush();
+        entityManager.clear();
+        statistics.clear();
+    }
+}
@@ -0,0 +1,65 @@
+package com.skp.bookshow.scheduler;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TimingWheelTest {
+
+    @Test
+    void advance_should_return_items_once_their_time_has_passed() {
+        TimingWheel<String> wheel = new TimingWheel<>(10, 4, 3, 0);
+        wheel.add("a", 25);
+        wheel.add("b", 40);
+
+        assertEquals(List.of(), wheel.advance(20));
+        assertEquals(List.of("a"), wheel.advance(30));
+        assertEquals(List.of("b"), wheel.advance(40));
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    void advance_should_expire_items_from_higher_levels_and_beyond_the_wheel_range() {
+        // 3 levels of 4 buckets cover 64 ticks, 1000 ticks has to wrap the top level several times
+        TimingWheel<Integer> wheel = new TimingWheel<>(1, 4, 3, 0);
+        List<Integer> deadlines = List.of(3, 17, 63, 64, 65, 250, 1000);
+        deadlines.forEach(deadline -> wheel.add(deadline, deadline));
+
+        List<Integer> expired = new ArrayList<>();
+        for (long now = 0; now <= 1000; now++) {
+            for (Integer deadline : wheel.advance(now)) {
+                assertEquals(now, deadline.longValue(), "expired at the wrong time");
+                expired.add(deadline);
+            }
+        }
+
+        assertEquals(deadlines, expired);
+    }
+
+    @Test
+    void advance_should_return_overdue_items_on_next_advance() {
+        TimingWheel<String> wheel = new TimingWheel<>(10, 4, 3, 1000);
+        wheel.add("late", 500);
+
+        assertEquals(1, wheel.size());
+        assertEquals(List.of("late"), wheel.advance(1000));
+    }
+
+    @Test
+    void advance_should_catch_up_after_a_long_pause() {
+        TimingWheel<Integer> wheel = new TimingWheel<>(10, 8, 2, 0);
+        Set<Integer> added = new HashSet<>();
+        for (int i = 1; i <= 500; i++) {
+            wheel.add(i, i * 37L);
+            added.add(i);
+        }
+
+        assertEquals(added, new HashSet<>(wheel.advance(500 * 37L)));
+        assertEquals(0, wheel.size());
+    }
+}
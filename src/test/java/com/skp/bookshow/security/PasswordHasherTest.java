@@ -0,0 +1,49 @@
+package com.skp.bookshow.security;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PasswordHasherTest {
+    private final PasswordHasher hasher = new PasswordHasher(1000);
+
+    @Test
+    void hash_should_match_only_its_password() {
+        String stored = hasher.hash("Amy");
+
+        assertTrue(stored.startsWith("pbkdf2-sha256$1000$"));
+        assertTrue(hasher.matches("Amy", stored));
+        assertFalse(hasher.matches("amy", stored));
+        assertFalse(hasher.matches(null, stored));
+    }
+
+    @Test
+    void dummyHash_should_be_made_once_with_the_configured_iterations() {
+        String dummy = hasher.dummyHash();
+
+        assertTrue(dummy.startsWith("pbkdf2-sha256$1000$"));
+        assertSame(dummy, hasher.dummyHash());
+        assertFalse(hasher.needsRehash(dummy));
+    }
+
+    @Test
+    void hash_should_be_salted() {
+        assertNotEquals(hasher.hash("Amy"), hasher.hash("Amy"));
+    }
+
+    @Test
+    void plain_text_should_match_and_need_rehash() {
+        assertTrue(hasher.matches("Amy", "Amy"));
+        assertFalse(hasher.matches("Am", "Amy"));
+        assertTrue(hasher.needsRehash("Amy"));
+    }
+
+    @Test
+    void hash_with_other_iterations_should_match_and_need_rehash() {
+        String stored = new PasswordHasher(2000).hash("Amy");
+
+        assertTrue(hasher.matches("Amy", stored));
+        assertTrue(hasher.needsRehash(stored));
+        assertFalse(hasher.needsRehash(hasher.hash("Amy")));
+    }
+}
@@ -1,9 +1,11 @@
 package com.skp.bookshow.service.impl;
 
+import com.skp.bookshow.cache.SessionTokenCache;
 import com.skp.bookshow.exception.AccountNotFound;
 import com.skp.bookshow.model.Account;
 import com.skp.bookshow.model.enums.AccountType;
 import com.skp.bookshow.repository.AccountRepo;
+import com.skp.bookshow.security.PasswordHasher;
 import com.skp.bookshow.service.AccountService;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
@@ -11,6 +13,7 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.Mockito;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.util.Optional;
@@ -24,6 +27,12 @@ class AccountServiceImplTest {
     @Mock
     private AccountRepo accountRepo;
 
+    @Spy
+    private PasswordHasher passwordHasher = new PasswordHasher(1000);
+
+    @Spy
+    private SessionTokenCache sessionTokenCache = new SessionTokenCache(100, 60000);
+
     @InjectMocks
     private AccountService accountService = new AccountServiceImpl();
 
@@ -42,6 +51,8 @@ class AccountServiceImplTest {
         var result = accountService.createAccount(account);
 
         Assertions.assertTrue(result.getPhone().equals(account.getPhone()));
+        Assertions.assertNotEquals("A123", result.getPassword());
+        Assertions.assertTrue(passwordHasher.matches("A123", result.getPassword()));
     }
 
     @Test
@@ -62,6 +73,45 @@ class AccountServiceImplTest {
         Assertions.assertTrue(result);
     }
 
+    @Test
+    public void login_should_rehash_plain_text_password() throws AccountNotFound {
+        Account account = Account.builder().phone(123456L).accounttype(AccountType.ADMIN).password("A123").build();
+        when(accountRepo.findById(123456L)).thenReturn(Optional.of(account));
+
+        Assertions.assertNotNull(accountService.authenticate(123456L, "A123"));
+
+        Mockito.verify(accountRepo).save(account);
+        Assertions.assertTrue(account.getPassword().startsWith("pbkdf2-sha256$1000$"));
+        Assertions.assertNotNull(accountService.authenticate(123456L, "A123"));
+        Mockito.verify(accountRepo, Mockito.times(1)).save(account);
+    }
+
+    @Test
+    public void login_should_fail_for_wrong_password() throws AccountNotFound {
+        Account account = Account.builder().phone(123456L).password(passwordHasher.hash("A123")).build();
+        when(accountRepo.findById(123456L)).thenReturn(Optional.of(account));
+
+        Assertions.assertNull(accountService.authenticate(123456L, "A124"));
+        Assertions.assertFalse(accountService.login(123456L, "A124"));
+        Mockito.verify(sessionTokenCache, Mockito.never()).issue(Mockito.any());
+    }
+
+    @Test
+    public void token_should_verify_until_logout() throws AccountNotFound {
+        Account account = Account.builder().phone(123456L).accounttype(AccountType.ADMIN).password(passwordHasher.hash("A123")).build();
+        when(accountRepo.findById(123456L)).thenReturn(Optional.of(account));
+
+        String token = accountService.authenticate(123456L, "A123");
+        var verified = accountService.verify(token);
+
+        Assertions.assertTrue(verified.isPresent());
+        Assertions.assertEquals(AccountType.ADMIN, verified.get().getAccounttype());
+        Assertions.assertNull(verified.get().getPassword());
+        accountService.logout(token);
+        Assertions.assertTrue(accountService.verify(token).isEmpty());
+        Assertions.assertTrue(accountService.verify("unknown").isEmpty());
+    }
+
     @Test
     public void login_should_be_exception() {
         Account account = new Account();
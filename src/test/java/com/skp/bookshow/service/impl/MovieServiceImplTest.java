@@ -1,6 +1,8 @@
 package com.skp.bookshow.service.impl;
 
+import com.skp.bookshow.cache.MovieCatalogue;
 import com.skp.bookshow.model.Movie;
+import com.skp.bookshow.model.response.CursorPage;
 import com.skp.bookshow.repository.MovieRepo;
 import com.skp.bookshow.service.MovieService;
 import org.junit.jupiter.api.Test;
@@ -21,6 +23,9 @@ class MovieServiceImplTest {
     @Mock
     MovieRepo movieRepo;
 
+    @Mock
+    MovieCatalogue movieCatalogue;
+
     @InjectMocks
     MovieService movieService = new MovieServiceImpl();
 
@@ -39,6 +44,7 @@ class MovieServiceImplTest {
 
         assertEquals(movie.getId(), result.getId());
         assertEquals(movie.getTitle(), result.getTitle());
+        Mockito.verify(movieCatalogue).add(movie);
     }
 
     @Test
@@ -56,10 +62,22 @@ class MovieServiceImplTest {
                 .durationInMinutes(240)
                 .build();
 
-        when(movieRepo.findAll()).thenReturn(List.of(movie, movie2));
+        when(movieCatalogue.findAll()).thenReturn(List.of(movie, movie2));
 
         var result = movieService.findAll();
 
         assertEquals(2, result.size());
+        Mockito.verifyNoInteractions(movieRepo);
+    }
+
+    @Test
+    void search_should_use_catalogue() {
+        Movie movie = Movie.builder().id(1L).title("some title").build();
+        when(movieCatalogue.search("some", null, 50)).thenReturn(new CursorPage<>(List.of(movie), null));
+
+        var result = movieService.search("some", null, 50);
+
+        assertEquals(List.of(movie), result.getItems());
+        Mockito.verifyNoInteractions(movieRepo);
     }
 }
\ No newline at end of file
@@ -0,0 +1,64 @@
+package com.skp.bookshow.service.impl;
+
+import com.skp.bookshow.model.SeatMap;
+import com.skp.bookshow.model.Show;
+import com.skp.bookshow.model.enums.SeatState;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SeatBlockIndexesTest {
+    private final SeatBlockIndexes indexes = new SeatBlockIndexes(16);
+
+    @Test
+    void committed_changes_should_be_applied_without_comparing_every_seat() {
+        Show show = show(0L);
+        indexes.forShow(show);
+
+        block(show, 0);
+        indexes.changed(show, new int[]{0});
+        show.setVersion(1L);
+        indexes.committed(show, 0L);
+        block(show, 3);
+
+        assertEquals(5, indexes.forShow(show).longestRun(0));
+    }
+
+    @Test
+    void index_of_another_version_should_catch_up_with_every_seat() {
+        Show show = show(0L);
+        indexes.forShow(show);
+
+        block(show, 3);
+        show.setVersion(1L);
+
+        assertEquals(3, indexes.forShow(show).longestRun(0));
+    }
+
+    @Test
+    void rolled_back_changes_should_drop_the_index() {
+        Show show = show(0L);
+        indexes.forShow(show);
+
+        block(show, 3);
+        indexes.changed(show, new int[]{3});
+        indexes.rolledBack(show);
+        show.seatMap().set(new int[]{3}, SeatState.AVAILABLE);
+
+        assertEquals(6, indexes.forShow(show).longestRun(0));
+    }
+
+    private static void block(Show show, int seat) {
+        show.seatMap().set(new int[]{seat}, SeatState.BLOCKED);
+    }
+
+    private static Show show(Long version) {
+        return Show.builder()
+                .id(1L)
+                .version(version)
+                .numberOfRows(1)
+                .numberOfSeatsPerRows(6)
+                .seatStates(SeatMap.empty(1, 6).states())
+                .build();
+    }
+}
@@ -0,0 +1,201 @@
+package com.skp.bookshow.service.impl;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.skp.bookshow.cache.ShowAvailabilityCache;
+import com.skp.bookshow.exception.BookingUnSuccessful;
+import com.skp.bookshow.model.BookedSeat;
+import com.skp.bookshow.model.SeatMap;
+import com.skp.bookshow.model.Show;
+import com.skp.bookshow.model.enums.SeatState;
+import com.skp.bookshow.model.request.BookShowRequest;
+import com.skp.bookshow.repository.BookingRepo;
+import com.skp.bookshow.repository.ShowRepo;
+import com.skp.bookshow.scheduler.SeatHoldTimer;
+import com.skp.bookshow.stream.ShowSeatStream;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.transaction.support.TransactionOperations;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.when;
+
+/**
+ * Hammers one small show from many threads and checks that no seat ends up in two bookings. The show
+ * repository behaves like the database: every read returns a copy and saves fail on a stale version.
+ */
+class SeatBookingImplConcurrencyTest {
+    private static final int ROWS = 10;
+    private static final int SEATS_PER_ROW = 10;
+    private static final int THREADS = 16;
+    private static final int REQUESTS_PER_THREAD = 200;
+
+    private final AtomicReference<Show> storedShow = new AtomicReference<>();
+    private final Queue<BookedSeat> savedBookings = new ConcurrentLinkedQueue<>();
+    private final AtomicLong ticketIds = new AtomicLong();
+
+    private ShowRepo showRepo;
+    private BookingRepo bookingRepo;
+
+    @BeforeEach
+    void setUp() {
+        storedShow.set(Show.builder()
+                .id(1L)
+                .version(0L)
+                .numberOfRows(ROWS)
+                .numberOfSeatsPerRows(SEATS_PER_ROW)
+                .seatStates(SeatMap.empty(ROWS, SEATS_PER_ROW).states())
+                .build());
+
+        showRepo = Mockito.mock(ShowRepo.class, Mockito.withSettings().stubOnly());
+        when(showRepo.findById(Mockito.any())).thenAnswer(i -> Optional.of(copy(storedShow.get())));
+        when(showRepo.save(Mockito.any())).thenAnswer(i -> {
+            Show show = i.getArgument(0);
+            Show saved = copy(show);
+            saved.setVersion(show.getVersion() + 1);
+            if (!storedShow.compareAndSet(current(show.getVersion()), saved)) {
+                throw new ObjectOptimisticLockingFailureException(Show.class, show.getId());
+            }
+            show.setVersion(saved.getVersion());
+            return saved;
+        });
+
+        bookingRepo = Mockito.mock(BookingRepo.class, Mockito.withSettings().stubOnly());
+        when(bookingRepo.existsByPhoneNumber(Mockito.any())).thenReturn(false);
+        when(bookingRepo.save(Mockito.any())).thenAnswer(i -> {
+            BookedSeat booking = i.getArgument(0);
+            booking.setTicketId(ticketIds.incrementAndGet());
+            savedBookings.add(booking);
+            return booking;
+        });
+    }
+
+    @Test
+    void bookSeat_should_never_sell_a_seat_twice_on_one_instance() throws Exception {
+        runConcurrently(List.of(seatBooking()));
+
+        assertNoSeatSoldTwice();
+    }
+
+    @Test
+    void bookSeat_should_never_sell_a_seat_twice_across_instances() throws Exception {
+        // separate instances do not share locks, only the version check on save keeps them apart
+        runConcurrently(List.of(seatBooking(), seatBooking(), seatBooking(), seatBooking()));
+
+        assertNoSeatSoldTwice();
+    }
+
+    @Test
+    void bookSeat_should_never_sell_a_seat_twice_on_show_lanes() throws Exception {
+        SeatBookingImpl seatBooking = seatBooking();
+        seatBooking.numberOfLanes = 4;
+        seatBooking.startLanes();
+        try {
+            runConcurrently(List.of(seatBooking));
+        } finally {
+            seatBooking.stopLanes();
+        }
+
+        assertNoSeatSoldTwice();
+    }
+
+    private void runConcurrently(List<SeatBookingImpl> instances) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicLong phoneNumbers = new AtomicLong();
+        List<Future<?>> workers = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            SeatBookingImpl seatBooking = instances.get(t % instances.size());
+            workers.add(executor.submit(() -> {
+                start.await();
+                for (int r = 0; r < REQUESTS_PER_THREAD; r++) {
+                    try {
+                        seatBooking.bookSeat(BookShowRequest.builder()
+                                .showNumber(1L)
+                                .phoneNumber(phoneNumbers.incrementAndGet())
+                                .blockedSeat(randomAdjacentSeats())
+                                .build());
+                    } catch (BookingUnSuccessful expected) {
+                        // seats already taken
+                    }
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> worker : workers) {
+            worker.get(1, TimeUnit.MINUTES);
+        }
+        executor.shutdown();
+    }
+
+    private void assertNoSeatSoldTwice() {
+        Set<String> sold = new HashSet<>();
+        for (BookedSeat booking : savedBookings) {
+            for (String seat : booking.getBookedSeat()) {
+                assertTrue(sold.add(seat), "Seat sold twice: " + seat);
+            }
+        }
+        List<String> blocked = storedShow.get().seatMap().labels(SeatState.BLOCKED);
+        assertEquals(sold, new HashSet<>(blocked));
+        assertFalse(sold.isEmpty());
+    }
+
+    private SeatBookingImpl seatBooking() {
+        SeatBookingImpl seatBooking = new SeatBookingImpl();
+        seatBooking.showRepo = showRepo;
+        seatBooking.bookingRepo = bookingRepo;
+        seatBooking.seatHoldTimer = new SeatHoldTimer(1000);
+        seatBooking.showAvailabilityCache = new ShowAvailabilityCache(100, 60_000, new ObjectMapper());
+        seatBooking.showSeatStream = Mockito.mock(ShowSeatStream.class, Mockito.withSettings().stubOnly());
+        seatBooking.meterRegistry = new SimpleMeterRegistry();
+        seatBooking.transactionOperations = TransactionOperations.withoutTransaction();
+        return seatBooking;
+    }
+
+    private Show current(Long expectedVersion) {
+        Show current = storedShow.get();
+        return current.getVersion().equals(expectedVersion) ? current : null;
+    }
+
+    private static List<String> randomAdjacentSeats() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int count = 1 + random.nextInt(4);
+        int row = random.nextInt(ROWS);
+        int first = random.nextInt(SEATS_PER_ROW - count + 1);
+        List<String> seats = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            seats.add((char) ('A' + row) + String.valueOf(first + i + 1));
+        }
+        return seats;
+    }
+
+    private static Show copy(Show show) {
+        return Show.builder()
+                .id(show.getId())
+                .version(show.getVersion())
+                .numberOfRows(show.getNumberOfRows())
+                .numberOfSeatsPerRows(show.getNumberOfSeatsPerRows())
+                .cancellationWindow(show.getCancellationWindow())
+                .seatStates(show.getSeatStates().clone())
+                .build();
+    }
+}
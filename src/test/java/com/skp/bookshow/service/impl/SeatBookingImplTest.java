@@ -1,24 +1,37 @@
 package com.skp.bookshow.service.impl;
 
+import com.skp.bookshow.cache.ShowAvailabilityCache;
 import com.skp.bookshow.exception.BookingAlreadyExist;
 import com.skp.bookshow.exception.BookingNotFound;
 import com.skp.bookshow.exception.BookingUnSuccessful;
 import com.skp.bookshow.exception.ShowNotFound;
 import com.skp.bookshow.model.BookedSeat;
+import com.skp.bookshow.model.SeatMap;
 import com.skp.bookshow.model.Show;
+import com.skp.bookshow.model.enums.SeatState;
 import com.skp.bookshow.model.enums.SeatStatus;
+import com.skp.bookshow.model.projection.BookingSummary;
 import com.skp.bookshow.model.request.BookShowRequest;
 import com.skp.bookshow.repository.BookingRepo;
 import com.skp.bookshow.repository.ShowRepo;
+import com.skp.bookshow.scheduler.SeatHoldTimer;
+import com.skp.bookshow.stream.ShowSeatStream;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.Mockito;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionOperations;
+import org.springframework.data.domain.PageRequest;
 
 import java.time.Instant;
+import java.util.Collections;
 import java.util.Date;
 import java.util.List;
 import java.util.Optional;
@@ -36,9 +49,26 @@ class SeatBookingImplTest {
     @Mock
     BookingRepo bookingRepo;
 
+    @Mock
+    SeatHoldTimer seatHoldTimer;
+
+    @Mock
+    ShowAvailabilityCache showAvailabilityCache;
+
+    @Mock
+    ShowSeatStream showSeatStream;
+
+    @Spy
+    MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
     @InjectMocks
     SeatBookingImpl seatBooking = new SeatBookingImpl();
 
+    @BeforeEach
+    void setUp() {
+        seatBooking.transactionOperations = TransactionOperations.withoutTransaction();
+    }
+
     @Test
     void bookSeat_should_be_successful() throws BookingAlreadyExist, BookingUnSuccessful {
         BookShowRequest bookShowRequest = BookShowRequest.builder()
@@ -46,12 +76,7 @@ class SeatBookingImplTest {
                 .showNumber(1L)
                 .phoneNumber(12345L)
                 .build();
-        Show show = Show.builder()
-                .id(1L)
-                .availableSeats(bookShowRequest.getBlockedSeat())
-                .blockedSeats(List.of())
-                .bookedSeats(List.of())
-                .build();
+        Show show = show(1, 2);
 
         BookedSeat bookedSeat = BookedSeat.builder()
                 .ticketId(1L)
@@ -60,13 +85,70 @@ class SeatBookingImplTest {
                 .bookedSeat(bookShowRequest.getBlockedSeat())
                 .build();
 
-        when(bookingRepo.findById(Mockito.any())).thenReturn(Optional.empty());
+        when(bookingRepo.existsByPhoneNumber(Mockito.any())).thenReturn(false);
         when(showRepo.findById(Mockito.any())).thenReturn(Optional.of(show));
         when(bookingRepo.save(Mockito.any())).thenReturn(bookedSeat);
 
         var result = seatBooking.bookSeat(bookShowRequest);
 
         Assertions.assertEquals(1L, result.getTicketId());
+        assertEquals(SeatState.BLOCKED.code(), show.seatMap().states()[0]);
+        assertEquals(SeatState.BLOCKED.code(), show.seatMap().states()[1]);
+    }
+
+    @Test
+    void bookSeats_should_book_each_show_in_one_save_and_report_every_request() throws BookingUnSuccessful {
+        Show show = show(1, 3);
+        List<BookShowRequest> requests = List.of(
+                BookShowRequest.builder().phoneNumber(1L).showNumber(1L).blockedSeat(List.of("A1")).build(),
+                BookShowRequest.builder().phoneNumber(2L).showNumber(1L).blockedSeat(List.of("A1")).build(),
+                BookShowRequest.builder().phoneNumber(3L).showNumber(2L).blockedSeat(List.of("A1")).build(),
+                BookShowRequest.builder().phoneNumber(1L).showNumber(1L).blockedSeat(List.of("A3")).build(),
+                BookShowRequest.builder().phoneNumber(4L).showNumber(1L).blockedSeat(List.of("A2", "A3")).build(),
+                BookShowRequest.builder().phoneNumber(5L).showNumber(1L).blockedSeat(List.of("A3")).build());
+        when(bookingRepo.findExistingPhoneNumbers(Mockito.any())).thenReturn(List.of(5L));
+        when(showRepo.findById(1L)).thenReturn(Optional.of(show));
+        when(showRepo.findById(2L)).thenReturn(Optional.empty());
+        when(bookingRepo.saveAll(Mockito.<List<BookedSeat>>any())).thenAnswer(i -> i.getArgument(0));
+
+        var results = seatBooking.bookSeats(requests);
+
+        assertEquals(6, results.size());
+        assertEquals(List.of("A1"), results.get(0).getBookedSeat().getBookedSeat());
+        assertEquals("There was error while booking try again", results.get(1).getError());
+        assertEquals("Show not found with given id: 2", results.get(2).getError());
+        assertEquals("Booking with phone number already exist: 1", results.get(3).getError());
+        assertEquals(List.of("A2", "A3"), results.get(4).getBookedSeat().getBookedSeat());
+        assertEquals("Booking with phone number already exist: 5", results.get(5).getError());
+        assertEquals(List.of("A1", "A2", "A3"), show.seatMap().labels(SeatState.BLOCKED));
+        Mockito.verify(showRepo, times(1)).save(show);
+        Mockito.verify(bookingRepo, times(1)).saveAll(Mockito.any());
+        Mockito.verify(seatHoldTimer, times(2)).schedule(Mockito.any(), Mockito.any());
+    }
+
+    @Test
+    void bookSeat_should_pick_best_adjacent_seats_when_none_are_named() throws BookingAlreadyExist, BookingUnSuccessful {
+        Show show = show(3, 6);
+        show.seatMap().set(show.seatMap().indexesOf(List.of("B3")), SeatState.BOOKED);
+        when(bookingRepo.existsByPhoneNumber(Mockito.any())).thenReturn(false);
+        when(showRepo.findById(Mockito.any())).thenReturn(Optional.of(show));
+        when(bookingRepo.save(Mockito.any())).thenAnswer(i -> i.getArgument(0));
+
+        BookedSeat first = seatBooking.bookSeat(BookShowRequest.builder().phoneNumber(1L).showNumber(1L).numberOfSeats(2).build());
+        BookedSeat second = seatBooking.bookSeat(BookShowRequest.builder().phoneNumber(2L).showNumber(1L).numberOfSeats(3).build());
+
+        assertEquals(List.of("B4", "B5"), first.getBookedSeat());
+        assertEquals(List.of("C2", "C3", "C4"), second.getBookedSeat());
+        assertEquals(List.of("B4", "B5", "C2", "C3", "C4"), show.seatMap().labels(SeatState.BLOCKED));
+        BookShowRequest tooMany = BookShowRequest.builder().phoneNumber(3L).showNumber(1L).numberOfSeats(7).build();
+        assertThrows(BookingUnSuccessful.class, () -> seatBooking.bookSeat(tooMany));
+    }
+
+    @Test
+    void bookSeats_should_reject_too_many_requests() {
+        List<BookShowRequest> requests = Collections.nCopies(5001, new BookShowRequest());
+
+        assertThrows(BookingUnSuccessful.class, () -> seatBooking.bookSeats(requests));
     }
 
     @Test
@@ -76,14 +158,8 @@ class SeatBookingImplTest {
                 .showNumber(1L)
                 .phoneNumber(12345L)
                 .build();
-        BookedSeat bookedSeat = BookedSeat.builder()
-                .ticketId(1L)
-                .seatStatus(SeatStatus.BLOCKED)
-                .phoneNumber(bookShowRequest.getPhoneNumber())
-                .bookedSeat(bookShowRequest.getBlockedSeat())
-                .build();
 
-        when(bookingRepo.findById(Mockito.any())).thenReturn(Optional.of(bookedSeat));
+        when(bookingRepo.existsByPhoneNumber(Mockito.any())).thenReturn(true);
 
         var result = assertThrows(BookingAlreadyExist.class, () ->seatBooking.bookSeat(bookShowRequest));
 
@@ -98,16 +174,29 @@ class SeatBookingImplTest {
                 .phoneNumber(12345L)
                 .build();
 
-        Show show = Show.builder()
-                .id(1L)
-                .availableSeats(List.of("C1", "A2"))
-                .blockedSeats(List.of())
-                .bookedSeats(List.of())
-                .build();
-        when(bookingRepo.findById(Mockito.any())).thenReturn(Optional.empty());
+        Show show = show(3, 2);
+        show.seatMap().set(new int[]{0}, SeatState.BOOKED);
+        when(bookingRepo.existsByPhoneNumber(Mockito.any())).thenReturn(false);
         when(showRepo.findById(Mockito.any())).thenReturn(Optional.of(show));
         var result = assertThrows(BookingUnSuccessful.class, () -> seatBooking.bookSeat(bookShowRequest));
 
+        Assertions.assertEquals("There was error while booking try again", result.getMessage());
+        assertEquals(SeatState.AVAILABLE.code(), show.seatMap().states()[1]);
+        Mockito.verify(showRepo, times(0)).save(Mockito.any());
+    }
+
+    @Test
+    void bookSeat_should_throw_exception_for_seat_outside_layout() {
+        BookShowRequest bookShowRequest = BookShowRequest.builder()
+                .blockedSeat(List.of("A1", "D7"))
+                .showNumber(1L)
+                .phoneNumber(12345L)
+                .build();
+
+        when(bookingRepo.existsByPhoneNumber(Mockito.any())).thenReturn(false);
+        when(showRepo.findById(Mockito.any())).thenReturn(Optional.of(show(3, 2)));
+        var result = assertThrows(BookingUnSuccessful.class, () -> seatBooking.bookSeat(bookShowRequest));
+
         Assertions.assertEquals("There was error while booking try again", result.getMessage());
     }
 
@@ -119,7 +208,7 @@ class SeatBookingImplTest {
                 .phoneNumber(12345L)
                 .build();
 
-        when(bookingRepo.findById(Mockito.any())).thenReturn(Optional.empty());
+        when(bookingRepo.existsByPhoneNumber(Mockito.any())).thenReturn(false);
         when(showRepo.findById(Mockito.any())).thenReturn(Optional.empty());
         var result = assertThrows(BookingUnSuccessful.class, () -> seatBooking.bookSeat(bookShowRequest));
 
@@ -127,7 +216,7 @@ class SeatBookingImplTest {
     }
 
     @Test
-    void updateBooking_should_update_successfully_for_booked() throws BookingNotFound {
+    void updateBooking_should_update_successfully_for_booked() throws BookingNotFound, BookingUnSuccessful {
         BookShowRequest bookShowRequest = BookShowRequest.builder()
                 .blockedSeat(List.of("A1", "A2"))
                 .showNumber(1L)
@@ -140,28 +229,29 @@ class SeatBookingImplTest {
                 .phoneNumber(1L)
                 .bookedSeat(List.of("A1"))
                 .bookingTime(Date.from(Instant.now()))
+                .holdExpiresAt(Date.from(Instant.now().plusSeconds(60)))
                 .build();
 
-        Show show = Show.builder()
-                .id(1L)
-                .availableSeats(bookShowRequest.getBlockedSeat())
-                .blockedSeats(bookedSeat.getBookedSeat())
-                .bookedSeats(List.of())
-                .build();
-        when(bookingRepo.findByPhoneNumber(Mockito.any())).thenReturn(Optional.ofNullable(bookedSeat));
+        Show show = show(1, 2);
+        show.setCancellationWindow(60_000);
+        show.seatMap().set(new int[]{0}, SeatState.BLOCKED);
+        when(bookingRepo.findLatestByPhoneNumber(Mockito.any())).thenReturn(Optional.ofNullable(bookedSeat));
         when(showRepo.findById(Mockito.any())).thenReturn(Optional.ofNullable(show));
+        when(bookingRepo.updateSeatStatus(Mockito.any(), Mockito.any(), Mockito.any())).thenReturn(1);
 
         var res = seatBooking.updateBooking(bookShowRequest, SeatStatus.BOOKED);
 
         assertEquals(SeatStatus.BOOKED, res.getSeatStatus());
+        assertEquals(SeatState.BOOKED.code(), show.seatMap().states()[0]);
+        assertEquals(SeatState.AVAILABLE.code(), show.seatMap().states()[1]);
 
-        Mockito.verify(bookingRepo, times(1)).save(Mockito.any());
+        Mockito.verify(bookingRepo, times(1)).updateSeatStatus(122L, SeatStatus.BLOCKED, SeatStatus.BOOKED);
         Mockito.verify(showRepo, times(1)).save(Mockito.any());
 
     }
 
     @Test
-    void updateBooking_should_update_successfully_for_cancel() throws BookingNotFound {
+    void updateBooking_should_update_successfully_for_cancel() throws BookingNotFound, BookingUnSuccessful {
         BookShowRequest bookShowRequest = BookShowRequest.builder()
                 .blockedSeat(List.of("A1", "A2"))
                 .showNumber(1L)
@@ -175,24 +265,97 @@ class SeatBookingImplTest {
                 .bookedSeat(List.of("A1"))
                 .build();
 
-        Show show = Show.builder()
-                .id(1L)
-                .availableSeats(bookShowRequest.getBlockedSeat())
-                .blockedSeats(bookedSeat.getBookedSeat())
-                .bookedSeats(List.of())
-                .build();
-        when(bookingRepo.findByPhoneNumber(Mockito.any())).thenReturn(Optional.ofNullable(bookedSeat));
+        Show show = show(1, 2);
+        show.seatMap().set(new int[]{0}, SeatState.BLOCKED);
+        when(bookingRepo.findLatestByPhoneNumber(Mockito.any())).thenReturn(Optional.ofNullable(bookedSeat));
         when(showRepo.findById(Mockito.any())).thenReturn(Optional.ofNullable(show));
+        when(bookingRepo.updateSeatStatus(Mockito.any(), Mockito.any(), Mockito.any())).thenReturn(1);
 
         var res = seatBooking.updateBooking(bookShowRequest, SeatStatus.CANCELED);
 
         assertEquals(SeatStatus.CANCELED, res.getSeatStatus());
+        assertEquals(SeatState.AVAILABLE.code(), show.seatMap().states()[0]);
 
-        Mockito.verify(bookingRepo, times(1)).save(Mockito.any());
+        Mockito.verify(bookingRepo, times(1)).updateSeatStatus(122L, SeatStatus.BLOCKED, SeatStatus.CANCELED);
         Mockito.verify(showRepo, times(1)).save(Mockito.any());
 
     }
 
+    @Test
+    void updateBooking_should_cancel_when_hold_expired_before_confirmation() throws BookingNotFound, BookingUnSuccessful {
+        BookShowRequest bookShowRequest = BookShowRequest.builder()
+                .blockedSeat(List.of("A1"))
+                .showNumber(1L)
+                .phoneNumber(12345L)
+                .build();
+
+        BookedSeat bookedSeat = BookedSeat.builder()
+                .ticketId(122L)
+                .seatStatus(SeatStatus.BLOCKED)
+                .phoneNumber(12345L)
+                .bookedSeat(List.of("A1"))
+                .holdExpiresAt(Date.from(Instant.now().minusSeconds(1)))
+                .build();
+
+        Show show = show(1, 2);
+        show.seatMap().set(new int[]{0}, SeatState.BLOCKED);
+        when(bookingRepo.findLatestByPhoneNumber(Mockito.any())).thenReturn(Optional.of(bookedSeat));
+        when(showRepo.findById(Mockito.any())).thenReturn(Optional.of(show));
+        when(bookingRepo.updateSeatStatus(Mockito.any(), Mockito.any(), Mockito.any())).thenReturn(1);
+
+        var res = seatBooking.updateBooking(bookShowRequest, SeatStatus.BOOKED);
+
+        assertEquals(SeatStatus.CANCELED, res.getSeatStatus());
+        assertEquals(SeatState.AVAILABLE.code(), show.seatMap().states()[0]);
+        Mockito.verify(bookingRepo, times(1)).updateSeatStatus(122L, SeatStatus.BLOCKED, SeatStatus.CANCELED);
+    }
+
+    @Test
+    void updateBooking_should_not_confirm_a_canceled_booking() {
+        BookShowRequest bookShowRequest = BookShowRequest.builder()
+                .blockedSeat(List.of("A1"))
+                .showNumber(1L)
+                .phoneNumber(12345L)
+                .build();
+
+        BookedSeat bookedSeat = BookedSeat.builder()
+                .ticketId(122L)
+                .seatStatus(SeatStatus.CANCELED)
+                .phoneNumber(12345L)
+                .bookedSeat(List.of("A1"))
+                .build();
+        when(bookingRepo.findLatestByPhoneNumber(Mockito.any())).thenReturn(Optional.of(bookedSeat));
+
+        var res = assertThrows(BookingUnSuccessful.class, () -> seatBooking.updateBooking(bookShowRequest, SeatStatus.BOOKED));
+
+        assertEquals("Booking can not be changed from CANCELED to BOOKED", res.getMessage());
+        Mockito.verify(showRepo, times(0)).save(Mockito.any());
+    }
+
+    @Test
+    void updateBooking_should_fail_when_booking_changed_concurrently() {
+        BookShowRequest bookShowRequest = BookShowRequest.builder()
+                .blockedSeat(List.of("A1"))
+                .showNumber(1L)
+                .phoneNumber(12345L)
+                .build();
+
+        BookedSeat bookedSeat = BookedSeat.builder()
+                .ticketId(122L)
+                .seatStatus(SeatStatus.BLOCKED)
+                .phoneNumber(12345L)
+                .bookedSeat(List.of("A1"))
+                .build();
+        when(bookingRepo.findLatestByPhoneNumber(Mockito.any())).thenReturn(Optional.of(bookedSeat));
+        when(showRepo.findById(Mockito.any())).thenReturn(Optional.of(show(1, 1)));
+        when(bookingRepo.updateSeatStatus(Mockito.any(), Mockito.any(), Mockito.any())).thenReturn(0);
+
+        assertThrows(BookingUnSuccessful.class, () -> seatBooking.updateBooking(bookShowRequest, SeatStatus.BOOKED));
+
+        Mockito.verify(showRepo, times(0)).save(Mockito.any());
+        assertEquals(1.0, meterRegistry.counter("bookshow.booking.conflicts", "kind", "booking_status").count());
+    }
+
     @Test
     void updateBooking_should_throw_exception_when_booking_not_found() throws BookingNotFound {
         BookShowRequest bookShowRequest = BookShowRequest.builder()
@@ -208,12 +371,12 @@ class SeatBookingImplTest {
                 .bookedSeat(List.of("A1"))
                 .build();
 
-        when(bookingRepo.findByPhoneNumber(Mockito.any())).thenReturn(Optional.ofNullable(bookedSeat));
+        when(bookingRepo.findLatestByPhoneNumber(Mockito.any())).thenReturn(Optional.ofNullable(bookedSeat));
         when(showRepo.findById(Mockito.any())).thenReturn(Optional.empty());
 
-
         var res = assertThrows(RuntimeException.class, () -> seatBooking.updateBooking(bookShowRequest, SeatStatus.BOOKED));
         assertEquals("Error while processing",  res.getMessage());
+        Mockito.verify(bookingRepo, times(0)).updateSeatStatus(Mockito.any(), Mockito.any(), Mockito.any());
 
         Mockito.verify(bookingRepo, times(0)).save(Mockito.any());
         Mockito.verify(showRepo, times(0)).save(Mockito.any());
@@ -228,7 +391,7 @@ class SeatBookingImplTest {
                 .phoneNumber(12345L)
                 .build();
 
-        when(bookingRepo.findByPhoneNumber(Mockito.any())).thenReturn(Optional.empty());
+        when(bookingRepo.findLatestByPhoneNumber(Mockito.any())).thenReturn(Optional.empty());
 
         var res = assertThrows(BookingNotFound.class, () -> seatBooking.updateBooking(bookShowRequest, SeatStatus.BOOKED));
 
@@ -247,7 +410,7 @@ class SeatBookingImplTest {
                 .phoneNumber(1L)
                 .bookedSeat(List.of("A1"))
                 .build();
-        when(bookingRepo.findByPhoneNumber(Mockito.any())).thenReturn(Optional.of(bookedSeat));
+        when(bookingRepo.findLatestByPhoneNumber(Mockito.any())).thenReturn(Optional.of(bookedSeat));
         var result = seatBooking.findBooking(1L);
 
         assertEquals(1L, result.getPhoneNumber());
@@ -257,7 +420,7 @@ class SeatBookingImplTest {
 
     @Test
     void findBooking_should_throw_exception_for_booking_not_exist() throws BookingNotFound {
-        when(bookingRepo.findByPhoneNumber(Mockito.any())).thenReturn(Optional.empty());
+        when(bookingRepo.findLatestByPhoneNumber(Mockito.any())).thenReturn(Optional.empty());
         var result = assertThrows(BookingNotFound.class, () -> seatBooking.findBooking(1L));
 
         assertEquals("No booking found for the given phone number: 1", result.getMessage());
@@ -287,6 +450,18 @@ class SeatBookingImplTest {
         assertEquals("No booking found for the given ticket id: 1", result.getMessage());
     }
 
+    @Test
+    void findBookingPageForShow_should_return_one_page_of_bookings() {
+        BookingSummary first = Mockito.mock(BookingSummary.class);
+        BookingSummary second = Mockito.mock(BookingSummary.class);
+        when(bookingRepo.findByShowNumberAndTicketIdGreaterThanOrderByTicketIdAsc(1L, 0L, PageRequest.of(0, 3)))
+                .thenReturn(List.of(first, second));
+
+        var result = seatBooking.findBookingPageForShow(1L, null, 2);
+        assertEquals(List.of(first, second), result.getItems());
+        assertNull(result.getNextCursor());
+    }
+
     @Test
     void findAllBookingForShow_should_return_list_of_bookings() {
         BookedSeat bookedSeat = BookedSeat.builder()
@@ -313,15 +488,12 @@ class SeatBookingImplTest {
                 .phoneNumber(1L)
                 .bookedSeat(List.of("A1"))
                 .build();
-        Show show = Show.builder()
-                .id(1L)
-                .availableSeats(List.of())
-                .blockedSeats(List.of())
-                .bookedSeats(List.of("A1"))
-                .build();
+        Show show = show(1, 1);
+        show.seatMap().set(new int[]{0}, SeatState.BOOKED);
 
         when(bookingRepo.findByTicketId(Mockito.any())).thenReturn(Optional.ofNullable(bookedSeat));
         when(showRepo.findById(Mockito.any())).thenReturn(Optional.ofNullable(show));
+        when(bookingRepo.updateSeatStatus(Mockito.any(), Mockito.any(), Mockito.any())).thenReturn(1);
 
         var result = seatBooking.cancelBookingTicketById(1L);
 
@@ -329,9 +501,10 @@ class SeatBookingImplTest {
         assertEquals(1L, result.getPhoneNumber());
         assertEquals(List.of("A1"), result.getBookedSeat());
         assertEquals(SeatStatus.CANCELED, result.getSeatStatus());
+        assertEquals(SeatState.AVAILABLE.code(), show.seatMap().states()[0]);
 
         Mockito.verify(showRepo, times(1)).save(Mockito.any());
-        Mockito.verify(bookingRepo, times(1)).save(Mockito.any());
+        Mockito.verify(bookingRepo, times(1)).updateSeatStatus(121L, SeatStatus.BOOKED, SeatStatus.CANCELED);
 
     }
 
@@ -360,6 +533,56 @@ class SeatBookingImplTest {
         var result = assertThrows(ShowNotFound.class, () -> seatBooking.cancelBookingTicketById(1L));
 
         assertEquals("something went wrong show could not be found", result.getMessage());
+        Mockito.verify(bookingRepo, times(0)).updateSeatStatus(Mockito.any(), Mockito.any(), Mockito.any());
 
     }
-}
\ No newline at end of file
+
+    @Test
+    void releaseExpiredHolds_should_free_seats_of_expired_blocked_bookings_only() {
+        BookedSeat expired = BookedSeat.builder()
+                .ticketId(1L)
+                .showNumber(1L)
+                .seatStatus(SeatStatus.BLOCKED)
+                .bookedSeat(List.of("A1"))
+                .holdExpiresAt(Date.from(Instant.now().minusSeconds(1)))
+                .build();
+        BookedSeat confirmed = BookedSeat.builder()
+                .ticketId(2L)
+                .showNumber(1L)
+                .seatStatus(SeatStatus.BOOKED)
+                .bookedSeat(List.of("A2"))
+                .holdExpiresAt(Date.from(Instant.now().minusSeconds(1)))
+                .build();
+        BookedSeat extended = BookedSeat.builder()
+                .ticketId(3L)
+                .showNumber(1L)
+                .seatStatus(SeatStatus.BLOCKED)
+                .bookedSeat(List.of("A3"))
+                .holdExpiresAt(Date.from(Instant.now().plusSeconds(60)))
+                .build();
+        Show show = show(1, 3);
+        show.seatMap().set(new int[]{0, 2}, SeatState.BLOCKED);
+        show.seatMap().set(new int[]{1}, SeatState.BOOKED);
+        when(bookingRepo.findByTicketIdIn(Mockito.any())).thenReturn(List.of(expired, confirmed, extended));
+        when(bookingRepo.updateSeatStatus(1L, SeatStatus.BLOCKED, SeatStatus.CANCELED)).thenReturn(1);
+        when(showRepo.findById(1L)).thenReturn(Optional.of(show));
+
+        var released = seatBooking.releaseExpiredHolds(List.of(1L, 2L, 3L));
+
+        assertEquals(List.of(expired), released);
+        assertEquals(SeatStatus.CANCELED, expired.getSeatStatus());
+        assertEquals(SeatState.AVAILABLE.code(), show.seatMap().states()[0]);
+        assertEquals(SeatState.BOOKED.code(), show.seatMap().states()[1]);
+        assertEquals(SeatState.BLOCKED.code(), show.seatMap().states()[2]);
+        Mockito.verify(showRepo, times(1)).save(Mockito.any());
+    }
+
+    private Show show(int numberOfRows, int numberOfSeatsPerRows) {
+        return Show.builder()
+                .id(1L)
+                .numberOfRows(numberOfRows)
+                .numberOfSeatsPerRows(numberOfSeatsPerRows)
+                .seatStates(SeatMap.empty(numberOfRows, numberOfSeatsPerRows).states())
+                .build();
+    }
+}
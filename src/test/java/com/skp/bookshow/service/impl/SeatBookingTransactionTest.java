@@ -0,0 +1,124 @@
+package com.skp.bookshow.service.impl;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.skp.bookshow.Application;
+import com.skp.bookshow.cache.ShowAvailabilityCache;
+import com.skp.bookshow.model.BookedSeat;
+import com.skp.bookshow.model.Show;
+import com.skp.bookshow.model.enums.SeatState;
+import com.skp.bookshow.model.enums.SeatStatus;
+import com.skp.bookshow.model.request.BookShowRequest;
+import com.skp.bookshow.repository.BookingRepo;
+import com.skp.bookshow.repository.ShowRepo;
+import com.skp.bookshow.scheduler.SeatHoldTimer;
+import com.skp.bookshow.stream.ShowSeatStream;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.AdditionalAnswers;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs the booking service on the database, with saves of chosen shows failing, to check that the status of a
+ * booking and the seats of its show are committed together.
+ */
+@DataJpaTest
+@ContextConfiguration(classes = Application.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class SeatBookingTransactionTest {
+    @Autowired
+    ShowRepo showRepo;
+    @Autowired
+    BookingRepo bookingRepo;
+    @Autowired
+    PlatformTransactionManager transactionManager;
+
+    private final Set<Long> failingShows = ConcurrentHashMap.newKeySet();
+    private SeatBookingImpl seatBooking;
+
+    @BeforeEach
+    void setUp() {
+        ShowRepo failingShowRepo = Mockito.mock(ShowRepo.class, AdditionalAnswers.delegatesTo(showRepo));
+        Mockito.doAnswer(i -> {
+            Show show = i.getArgument(0);
+            if (failingShows.contains(show.getId())) throw new DataAccessResourceFailureException("Could not save show " + show.getId());
+            return showRepo.save(show);
+        }).when(failingShowRepo).save(Mockito.any());
+
+        seatBooking = new SeatBookingImpl();
+        seatBooking.showRepo = failingShowRepo;
+        seatBooking.bookingRepo = bookingRepo;
+        seatBooking.seatHoldTimer = new SeatHoldTimer(1000);
+        seatBooking.showAvailabilityCache = new ShowAvailabilityCache(100, 60_000, new ObjectMapper());
+        seatBooking.showSeatStream = Mockito.mock(ShowSeatStream.class);
+        seatBooking.meterRegistry = new SimpleMeterRegistry();
+        seatBooking.transactionOperations = new TransactionTemplate(transactionManager);
+    }
+
+    @Test
+    void updateBooking_should_keep_status_when_seats_cannot_be_moved() throws Exception {
+        Long showId = newShow(60_000);
+        BookedSeat booking = seatBooking.bookSeat(request(showId, 9_000_001L));
+        failingShows.add(showId);
+
+        assertThrows(DataAccessResourceFailureException.class, () -> seatBooking.updateBooking(request(showId, 9_000_001L), SeatStatus.BOOKED));
+        assertThrows(DataAccessResourceFailureException.class, () -> seatBooking.cancelBookingTicketById(booking.getTicketId()));
+
+        assertEquals(SeatStatus.BLOCKED, bookingRepo.findByTicketId(booking.getTicketId()).orElseThrow().getSeatStatus());
+        assertEquals(List.of("A1"), showRepo.findById(showId).orElseThrow().seatMap().labels(SeatState.BLOCKED));
+
+        failingShows.clear();
+        seatBooking.updateBooking(request(showId, 9_000_001L), SeatStatus.BOOKED);
+
+        assertEquals(SeatStatus.BOOKED, bookingRepo.findByTicketId(booking.getTicketId()).orElseThrow().getSeatStatus());
+        assertEquals(List.of("A1"), showRepo.findById(showId).orElseThrow().seatMap().labels(SeatState.BOOKED));
+    }
+
+    @Test
+    void releaseExpiredHolds_should_release_other_shows_when_one_fails() throws Exception {
+        Long failingShow = newShow(0);
+        Long otherShow = newShow(0);
+        Long kept = seatBooking.bookSeat(request(failingShow, 9_000_002L)).getTicketId();
+        Long released = seatBooking.bookSeat(request(otherShow, 9_000_003L)).getTicketId();
+        failingShows.add(failingShow);
+
+        var result = seatBooking.releaseExpiredHolds(List.of(kept, released));
+
+        assertEquals(1, result.size());
+        assertEquals(released, result.get(0).getTicketId());
+        assertEquals(SeatStatus.BLOCKED, bookingRepo.findByTicketId(kept).orElseThrow().getSeatStatus());
+        assertEquals(List.of("A1"), showRepo.findById(failingShow).orElseThrow().seatMap().labels(SeatState.BLOCKED));
+        assertEquals(SeatStatus.CANCELED, bookingRepo.findByTicketId(released).orElseThrow().getSeatStatus());
+        assertEquals(List.of(), showRepo.findById(otherShow).orElseThrow().seatMap().labels(SeatState.BLOCKED));
+    }
+
+    private Long newShow(int cancellationWindow) {
+        return showRepo.save(Show.builder()
+                .numberOfRows(1)
+                .numberOfSeatsPerRows(2)
+                .cancellationWindow(cancellationWindow)
+                .build()).getId();
+    }
+
+    private static BookShowRequest request(Long showId, Long phoneNumber) {
+        return BookShowRequest.builder()
+                .showNumber(showId)
+                .phoneNumber(phoneNumber)
+                .blockedSeat(List.of("A1"))
+                .build();
+    }
+}
@@ -0,0 +1,80 @@
+package com.skp.bookshow.service.impl;
+
+import com.skp.bookshow.model.Show;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ShowLanesTest {
+
+    @Test
+    void submit_should_batch_changes_queued_behind_a_running_one() throws Exception {
+        CountDownLatch running = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        List<Integer> batchSizes = new ArrayList<>();
+        Show show = Show.builder().id(1L).build();
+        try (var lanes = new ShowLanes(1, 16, 16, (showId, changes) -> {
+            batchSizes.add(changes.size());
+            List<Optional<Show>> results = new ArrayList<>();
+            changes.forEach(change -> results.add(Optional.ofNullable(change.apply(show))));
+            return results;
+        })) {
+            ExecutorService executor = Executors.newFixedThreadPool(5);
+            Future<Optional<Show>> first = executor.submit(() -> lanes.submit(1L, s -> {
+                running.countDown();
+                await(release);
+                return s;
+            }));
+            running.await();
+            List<Future<Optional<Show>>> queued = new ArrayList<>();
+            for (int i = 0; i < 4; i++) {
+                queued.add(executor.submit(() -> lanes.submit(1L, Function.identity())));
+            }
+            while (lanes.backlog() < 4) {
+                Thread.sleep(10);
+            }
+            release.countDown();
+
+            assertSame(show, first.get(5, TimeUnit.SECONDS).orElseThrow());
+            for (Future<Optional<Show>> result : queued) {
+                assertSame(show, result.get(5, TimeUnit.SECONDS).orElseThrow());
+            }
+            assertEquals(List.of(1, 4), batchSizes);
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    void submit_should_fail_only_the_change_that_throws() {
+        Show show = Show.builder().id(1L).build();
+        try (var lanes = new ShowLanes(2, 16, 16, (showId, changes) -> {
+            List<Optional<Show>> results = new ArrayList<>();
+            changes.forEach(change -> results.add(Optional.ofNullable(change.apply(show))));
+            return results;
+        })) {
+            assertThrows(IllegalArgumentException.class, () -> lanes.submit(1L, s -> {
+                throw new IllegalArgumentException("bad change");
+            }));
+            assertEquals(Optional.of(show), lanes.submit(1L, Function.identity()));
+            assertEquals(Optional.empty(), lanes.submit(2L, s -> null));
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
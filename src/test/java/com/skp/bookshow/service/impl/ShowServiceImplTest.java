@@ -1,7 +1,15 @@
 package com.skp.bookshow.service.impl;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.skp.bookshow.cache.SeatMapFormat;
+import com.skp.bookshow.cache.ShowAvailabilityCache;
+import com.skp.bookshow.cache.ShowSchedule;
 import com.skp.bookshow.exception.ShowNotFound;
+import com.skp.bookshow.model.SeatMap;
 import com.skp.bookshow.model.Show;
+import com.skp.bookshow.model.enums.SeatState;
+import com.skp.bookshow.model.projection.ShowSummary;
+import com.skp.bookshow.model.response.CursorPage;
 import com.skp.bookshow.model.request.ShowRequest;
 import com.skp.bookshow.repository.ShowRepo;
 import org.junit.jupiter.api.Test;
@@ -9,7 +17,9 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.Mockito;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageRequest;
 
 import java.time.Instant;
 import java.util.Date;
@@ -24,6 +34,12 @@ class ShowServiceImplTest {
     @Mock
     ShowRepo showRepo;
 
+    @Spy
+    ShowAvailabilityCache showAvailabilityCache = new ShowAvailabilityCache(100, 60_000, new ObjectMapper());
+
+    @Spy
+    ShowSchedule showSchedule = new ShowSchedule();
+
     @InjectMocks
     ShowServiceImpl showServiceImpl = new ShowServiceImpl();
 
@@ -42,10 +58,12 @@ class ShowServiceImplTest {
         when(showRepo.save(Mockito.any())).thenReturn(show);
 
         var result = showServiceImpl.createShow(showRequest);
-        assertEquals(6, result.getAvailableSeats().size());
-        assertEquals(List.of("A1", "A2", "B1", "B2", "C1", "C2"), result.getAvailableSeats());
-        assertEquals(0, result.getBlockedSeats().size());
-        assertEquals(0, result.getBookedSeats().size());
+        assertEquals(6, result.getAvailableSeatCount());
+        assertEquals(List.of("A1", "A2", "B1", "B2", "C1", "C2"), result.seatMap().labels(SeatState.AVAILABLE));
+        assertEquals(0, result.getBlockedSeatCount());
+        assertEquals(0, result.getBookedSeatCount());
+        Mockito.verify(showSchedule).add(show);
+        assertEquals(1L, showServiceImpl.findSchedule(1L, null, null, null, 50).getItems().get(0).getId());
     }
 
     @Test
@@ -57,9 +75,7 @@ class ShowServiceImplTest {
                 .numberOfRows(3)
                 .movieId(1L)
                 .showTime(Date.from(Instant.now()))
-                .availableSeats(List.of("A1", "A2", "B1", "B2", "C1", "C2"))
-                .blockedSeats(List.of())
-                .blockedSeats(List.of())
+                .seatStates(SeatMap.empty(3, 2).states())
                 .build();
         Show show1 = Show.builder()
                 .id(2L)
@@ -68,9 +84,7 @@ class ShowServiceImplTest {
                 .numberOfRows(3)
                 .movieId(1L)
                 .showTime(Date.from(Instant.now()))
-                .availableSeats(List.of("A1", "A2", "B1", "B2", "C1", "C2"))
-                .blockedSeats(List.of())
-                .blockedSeats(List.of())
+                .seatStates(SeatMap.empty(3, 2).states())
                 .build();
         when(showRepo.findAll()).thenReturn(List.of(show, show1));
 
@@ -80,6 +94,28 @@ class ShowServiceImplTest {
         assertEquals( 2L, result.get(1).getId());
     }
 
+    @Test
+    public void findPage_should_return_next_cursor_when_more_shows_exist() {
+        ShowSummary first = Mockito.mock(ShowSummary.class);
+        ShowSummary second = Mockito.mock(ShowSummary.class);
+        ShowSummary third = Mockito.mock(ShowSummary.class);
+        when(second.getId()).thenReturn(12L);
+        when(showRepo.findByIdGreaterThanOrderByIdAsc(10L, PageRequest.of(0, 3))).thenReturn(List.of(first, second, third));
+
+        var result = showServiceImpl.findPage(10L, 2);
+        assertEquals(List.of(first, second), result.getItems());
+        assertEquals(12L, result.getNextCursor());
+    }
+
+    @Test
+    public void findPage_should_start_from_the_first_show_and_cap_the_limit() {
+        when(showRepo.findByIdGreaterThanOrderByIdAsc(0L, PageRequest.of(0, CursorPage.MAX_LIMIT + 1))).thenReturn(List.of());
+
+        var result = showServiceImpl.findPage(null, 100_000);
+        assertTrue(result.getItems().isEmpty());
+        assertNull(result.getNextCursor());
+    }
+
     @Test
     public void findBy_should_return_the_show_if_present() throws ShowNotFound {
         Show show = Show.builder()
@@ -89,15 +125,39 @@ class ShowServiceImplTest {
                 .numberOfRows(3)
                 .movieId(1L)
                 .showTime(Date.from(Instant.now()))
-                .availableSeats(List.of("A1", "A2", "B1", "B2", "C1", "C2"))
-                .blockedSeats(List.of())
-                .blockedSeats(List.of())
+                .seatStates(SeatMap.empty(3, 2).states())
                 .build();
 
+        show.seatMap().set(new int[]{1}, SeatState.BLOCKED);
+        show.seatMap().set(new int[]{4}, SeatState.BOOKED);
+
         when(showRepo.findById(Mockito.anyLong())).thenReturn(Optional.of(show));
 
         var result = showServiceImpl.findById(1L);
         assertEquals(1, result.getShowNumber());
+        assertEquals(List.of("A1", "B1", "B2", "C2"), result.getAvailableSeat());
+        assertEquals(List.of("A2"), result.getBlockedSeat());
+        assertEquals(List.of("C1"), result.getBookedSeat());
+    }
+
+    @Test
+    public void findBy_should_serve_repeated_reads_from_the_cache() throws ShowNotFound {
+        Show show = Show.builder()
+                .id(1L)
+                .version(0L)
+                .numberOfSeatsPerRows(2)
+                .numberOfRows(1)
+                .seatStates(SeatMap.empty(1, 2).states())
+                .build();
+        when(showRepo.findById(1L)).thenReturn(Optional.of(show));
+
+        var first = showServiceImpl.findSerializedById(1L, SeatMapFormat.JSON, true);
+        var second = showServiceImpl.findSerializedById(1L, SeatMapFormat.JSON, true);
+
+        assertSame(first.getBody(), second.getBody());
+        assertEquals(first.getEtag(), second.getEtag());
+        assertEquals("{\"showNumber\":1,\"bookedSeat\":[],\"availableSeat\":[\"A1\",\"A2\"],\"blockedSeat\":[]}", new String(first.getBody()));
+        Mockito.verify(showRepo, Mockito.times(1)).findById(1L);
     }
 
     @Test
@@ -109,14 +169,13 @@ class ShowServiceImplTest {
                 .numberOfRows(3)
                 .movieId(1L)
                 .showTime(Date.from(Instant.now()))
-                .availableSeats(List.of("A1", "A2", "B1", "B2", "C1", "C2"))
-                .blockedSeats(List.of())
-                .blockedSeats(List.of())
+                .seatStates(SeatMap.empty(3, 2).states())
                 .build();
 
         var res = assertThrows(ShowNotFound.class, () -> showServiceImpl.findById(2L));
 
         assertEquals("Show not found with given id: 2", res.getMessage());
+        assertThrows(ShowNotFound.class, () -> showServiceImpl.streamById(2L));
 
     }
 
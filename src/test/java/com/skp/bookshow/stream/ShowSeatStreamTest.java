@@ -0,0 +1,172 @@
+package com.skp.bookshow.stream;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.skp.bookshow.cache.ShowAvailability;
+import com.skp.bookshow.cache.ShowAvailabilityCache;
+import com.skp.bookshow.model.SeatMap;
+import com.skp.bookshow.model.Show;
+import com.skp.bookshow.model.enums.SeatState;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter.DataWithMediaType;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ShowSeatStreamTest {
+    private final ShowAvailabilityCache cache = new ShowAvailabilityCache(100, 60_000, new ObjectMapper());
+    private final ShowSeatStream stream = new ShowSeatStream(16, 60_000, 1, cache, new ObjectMapper());
+
+    @AfterEach
+    void tearDown() {
+        stream.shutdown();
+    }
+
+    @Test
+    void subscribe_should_watch_the_show() {
+        assertFalse(stream.isWatched(1L));
+
+        stream.subscribe(1L, () -> availability(show(1L, 0L)));
+        stream.subscribe(1L, () -> availability(show(1L, 0L)));
+
+        assertTrue(stream.isWatched(1L));
+        assertEquals(2, stream.subscriberCount(1L));
+        assertFalse(stream.isWatched(2L));
+    }
+
+    @Test
+    void subscribe_should_read_snapshot_again_when_a_newer_change_was_published() {
+        stream.subscribe(1L, () -> availability(show(1L, 1L)));
+        Show show = show(1L, 3L);
+        byte[] before = show.seatMap().states().clone();
+        show.seatMap().set(new int[]{0}, SeatState.BLOCKED);
+        stream.publish(show, before);
+
+        AtomicInteger reads = new AtomicInteger();
+        stream.subscribe(1L, () -> availability(show(1L, reads.incrementAndGet() == 1 ? 2L : 3L)));
+
+        assertEquals(2, reads.get());
+        assertEquals(2, stream.subscriberCount(1L));
+    }
+
+    @Test
+    void subscribe_should_see_changes_saved_while_the_first_snapshot_is_read() {
+        AtomicInteger reads = new AtomicInteger();
+        stream.subscribe(1L, () -> {
+            if (reads.incrementAndGet() > 1) return availability(changed(2L));
+            ShowAvailability stale = availability(show(1L, 1L));
+            stream.publish(changed(2L), SeatMap.empty(1, 2).states());
+            return stale;
+        });
+
+        assertEquals(2, reads.get());
+        assertEquals(1, stream.subscriberCount(1L));
+    }
+
+    @Test
+    void subscribe_should_skip_deltas_queued_before_the_snapshot() throws Exception {
+        var release = new CountDownLatch(1);
+        var first = new RecordingEmitter(release);
+        var second = new RecordingEmitter(null);
+        var emitters = new ArrayDeque<>(List.of(first, second));
+        var stream = new ShowSeatStream(16, 60_000, 1, cache, new ObjectMapper()) {
+            @Override
+            SeatEventEmitter newEmitter() {
+                return emitters.poll();
+            }
+        };
+        try {
+            stream.subscribe(1L, () -> availability(show(1L, 1L)));
+            stream.publish(changed(2L, 0), SeatMap.empty(1, 2).states());
+            stream.subscribe(1L, () -> availability(changed(2L, 0)));
+            release.countDown();
+            stream.publish(changed(3L, 1), changed(2L, 0).seatMap().states());
+
+            assertEquals(List.of("snapshot:1", "delta:2", "delta:3"), first.await(3));
+            assertEquals(List.of("snapshot:2", "delta:3"), second.await(2));
+        } finally {
+            stream.shutdown();
+        }
+    }
+
+    @Test
+    void publish_should_ignore_shows_nobody_watches() {
+        Show show = show(1L, 1L);
+
+        stream.publish(show, show.seatMap().states().clone());
+
+        assertFalse(stream.isWatched(1L));
+    }
+
+    private ShowAvailability availability(Show show) {
+        cache.update(show);
+        return cache.get(show.getId(), id -> Optional.of(show)).orElseThrow();
+    }
+
+    private static Show changed(Long version, int... blocked) {
+        Show show = show(1L, version);
+        show.seatMap().set(new int[]{0}, SeatState.BLOCKED);
+        show.seatMap().set(blocked, SeatState.BLOCKED);
+        return show;
+    }
+
+    private static Show show(Long id, Long version) {
+        return Show.builder()
+                .id(id)
+                .version(version)
+                .numberOfRows(1)
+                .numberOfSeatsPerRows(2)
+                .seatStates(SeatMap.empty(1, 2).states())
+                .build();
+    }
+
+    /**
+     * Records the name and id of every event sent, waiting on {@code release} before the first.
+     */
+    private static final class RecordingEmitter extends SeatEventEmitter {
+        private final CountDownLatch release;
+        private final List<String> events = new CopyOnWriteArrayList<>();
+
+        private RecordingEmitter(CountDownLatch release) {
+            super(60_000L);
+            this.release = release;
+        }
+
+        @Override
+        synchronized void send(Set<DataWithMediaType> event) throws IOException {
+            if (release != null && events.isEmpty()) {
+                try {
+                    release.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            String text = event.stream().map(data -> String.valueOf(data.getData())).collect(Collectors.joining());
+            Matcher id = Pattern.compile("id:(\\d+)").matcher(text);
+            Matcher name = Pattern.compile("event:(\\w+)").matcher(text);
+            assertTrue(id.find() && name.find());
+            events.add(name.group(1) + ":" + id.group(1));
+        }
+
+        private List<String> await(int count) throws InterruptedException {
+            for (int i = 0; i < 100 && events.size() < count; i++) {
+                Thread.sleep(20);
+            }
+            Thread.sleep(50);
+            return new ArrayList<>(events);
+        }
+    }
+}
@@ -0,0 +1,2 @@
+INSERT INTO show(id, movie_id, number_of_rows, number_of_seats_per_rows, cancellation_window, version, available_seat_count, blocked_seat_count, booked_seat_count) VALUES (500, 1, 1, 1, 0, 0, 0, 0, 1);
+INSERT INTO booked_seat(ticket_id, phone_number, show_number, seat_status) VALUES (700, 1, 500, 'BOOKED');